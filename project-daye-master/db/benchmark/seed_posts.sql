@@ -0,0 +1,32 @@
+-- 검색 방식 비교용 게시글 100만 건 생성 (MariaDB 전용, SEQUENCE 엔진의 seq_1_to_1000000 사용)
+-- 테스트 DB에서만 실행 (운영 DB에서 실행하지 말 것), 작성자는 가장 먼저 가입한 사용자
+-- FULLTEXT 인덱스가 있으면 삽입이 느려지므로 V10 인덱스를 지운 상태에서 실행한 뒤 다시 만드는 것을 권장
+--
+-- 검색어별 게시글 비율 (제목 기준)
+--   여행/고양이/요리/캠핑/축구/음악/영화/자동차/게임/등산: 각 10%
+--   브이로그/후기/모음/하이라이트/리뷰/일상/강좌: 각 약 14%
+--   오로라: 내용에만 0.1%
+--
+-- 실행 후 비교: POST /admin/search/benchmark?keywords=여행,오로라,고양이 후기&searchType=all&iterations=5
+-- (search.mode=index로 실행하면 검색 색인도 함께 비교, 색인을 만드는 동안은 제외됨)
+
+SET @author_id = (SELECT MIN(id) FROM users);
+
+INSERT INTO posts (title, content, author_id, view_count, comment_count, created_at, updated_at)
+SELECT
+    CONCAT(
+        ELT(1 + seq % 10, '여행', '고양이', '요리', '캠핑', '축구', '음악', '영화', '자동차', '게임', '등산'), ' ',
+        ELT(1 + (seq DIV 10) % 7, '브이로그', '후기', '모음', '하이라이트', '리뷰', '일상', '강좌'), ' #', seq),
+    CONCAT(
+        ELT(1 + seq % 5, '오늘은 ', '주말에 ', '지난번에 ', '처음으로 ', '오랜만에 '),
+        ELT(1 + (seq DIV 5) % 8, '친구들과 ', '가족과 ', '혼자서 ', '동호회에서 ', '회사 동료와 ', '아이들과 ', '강아지와 ', '부모님과 '),
+        ELT(1 + (seq DIV 40) % 6, '다녀온 곳을 정리했습니다. ', '찍은 영상을 올립니다. ', '준비한 과정을 공유합니다. ',
+            '느낀 점을 적어 봅니다. ', '연습한 내용을 기록합니다. ', '궁금했던 것을 해결했습니다. '),
+        IF(seq % 1000 = 0, '밤하늘의 오로라가 정말 멋졌습니다. ', ''),
+        REPEAT('자세한 내용은 영상에서 확인해 주세요. 댓글로 의견 남겨 주시면 감사하겠습니다. ', 1 + seq % 4)),
+    @author_id,
+    seq % 500,
+    0,
+    NOW() - INTERVAL seq MINUTE,
+    NOW() - INTERVAL seq MINUTE
+FROM seq_1_to_1000000;
@@ -46,6 +46,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/comments").authenticated()
                 .requestMatchers("/api/comments/*/replies").authenticated()
                 .requestMatchers("/api/comments/*").authenticated()
+                // 동영상 업로드 API는 인증 필요
+                .requestMatchers("/api/uploads/**").authenticated()
                 // 나머지는 인증 필요
                 .anyRequest().authenticated()
             )
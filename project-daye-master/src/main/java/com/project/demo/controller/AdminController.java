@@ -2,8 +2,18 @@ package com.project.demo.controller;
 
 import com.project.demo.entity.Post;
 import com.project.demo.entity.User;
+import com.project.demo.repository.PostSummary;
+import com.project.demo.service.MediaGarbageCollectionService;
+import com.project.demo.service.MediaTaskExecutor;
+import com.project.demo.service.PostFulltextSearchService;
+import com.project.demo.service.PostSearchIndexService;
 import com.project.demo.service.PostService;
+import com.project.demo.service.SearchBenchmarkService;
+import com.project.demo.service.StorageMigrationService;
+import com.project.demo.service.StreamLimitService;
+import com.project.demo.service.ThumbnailRegenerationService;
 import com.project.demo.service.UserService;
+import com.project.demo.service.VideoMetadataBackfillService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/admin")
@@ -27,12 +38,39 @@ public class AdminController {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private VideoMetadataBackfillService videoMetadataBackfillService;
+
+    @Autowired
+    private StorageMigrationService storageMigrationService;
+
+    @Autowired
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    @Autowired
+    private MediaGarbageCollectionService mediaGarbageCollectionService;
+
+    @Autowired
+    private StreamLimitService streamLimitService;
+
+    @Autowired
+    private ThumbnailRegenerationService thumbnailRegenerationService;
+
+    @Autowired
+    private PostSearchIndexService postSearchIndexService;
+
+    @Autowired
+    private PostFulltextSearchService postFulltextSearchService;
+
+    @Autowired
+    private SearchBenchmarkService searchBenchmarkService;
+
     @GetMapping("")
     public String adminDashboard(Model model) {
         long totalUsers = userService.getTotalUserCount();
         long totalPosts = postService.getTotalPostCount();
         List<User> recentUsers = userService.getRecentUsers(0, 5);
-        List<Post> recentPosts = postService.getRecentPosts(0, 5);
+        List<PostSummary> recentPosts = postService.getRecentPosts(0, 5);
 
         model.addAttribute("totalUsers", totalUsers);
         model.addAttribute("totalPosts", totalPosts);
@@ -141,7 +179,7 @@ public class AdminController {
             Model model) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Post> postsPage;
+        Page<PostSummary> postsPage;
         
         if (search.isEmpty()) {
             postsPage = postService.getAllPosts(pageable);
@@ -188,4 +226,116 @@ public class AdminController {
             return "error: " + e.getMessage();
         }
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/media/backfill-metadata")
+    @ResponseBody
+    public String startMetadataBackfill() {
+        if (videoMetadataBackfillService.start()) {
+            return "success";
+        }
+        return "error: 메타데이터 백필이 이미 실행 중입니다.";
+    }
+
+    @GetMapping("/media/backfill-metadata")
+    @ResponseBody
+    public Map<String, Object> getMetadataBackfillStatus() {
+        return videoMetadataBackfillService.getStatus();
+    }
+
+    @PostMapping("/media/regenerate-thumbnails")
+    @ResponseBody
+    public String startThumbnailRegeneration(@RequestParam(defaultValue = "false") boolean restart) {
+        if (thumbnailRegenerationService.start(restart)) {
+            return "success";
+        }
+        return "error: 썸네일 재생성이 이미 실행 중입니다.";
+    }
+
+    @PostMapping("/media/regenerate-thumbnails/stop")
+    @ResponseBody
+    public String stopThumbnailRegeneration() {
+        if (thumbnailRegenerationService.stop()) {
+            return "success";
+        }
+        return "error: 실행 중인 썸네일 재생성이 없습니다.";
+    }
+
+    @GetMapping("/media/regenerate-thumbnails")
+    @ResponseBody
+    public Map<String, Object> getThumbnailRegenerationStatus() {
+        return thumbnailRegenerationService.getStatus();
+    }
+
+    @PostMapping("/search/rebuild")
+    @ResponseBody
+    public String rebuildSearchIndex() {
+        if (postSearchIndexService.rebuild()) {
+            return "success";
+        }
+        return "error: 검색 색인을 이미 만드는 중입니다.";
+    }
+
+    @GetMapping("/search/status")
+    @ResponseBody
+    public Map<String, Object> getSearchIndexStatus() {
+        Map<String, Object> status = postSearchIndexService.getStatus();
+        status.put("fulltext", postFulltextSearchService.getStatus());
+        return status;
+    }
+
+    // 검색 방식별 응답 시간 비교 (keywords는 쉼표로 구분)
+    @PostMapping("/search/benchmark")
+    @ResponseBody
+    public Map<String, Object> runSearchBenchmark(
+            @RequestParam List<String> keywords,
+            @RequestParam(defaultValue = "all") String searchType,
+            @RequestParam(defaultValue = "5") int iterations) {
+        try {
+            return searchBenchmarkService.run(keywords, searchType, iterations);
+        } catch (RuntimeException e) {
+            return Map.of("error", e.getMessage());
+        }
+    }
+
+    @PostMapping("/media/migrate-storage")
+    @ResponseBody
+    public String startStorageMigration() {
+        if (storageMigrationService.start()) {
+            return "success";
+        }
+        return "error: 저장소 이동이 이미 실행 중입니다.";
+    }
+
+    @GetMapping("/media/migrate-storage")
+    @ResponseBody
+    public Map<String, Object> getStorageMigrationStatus() {
+        return storageMigrationService.getStatus();
+    }
+
+    @PostMapping("/media/gc")
+    @ResponseBody
+    public String startMediaGarbageCollection() {
+        if (mediaGarbageCollectionService.start()) {
+            return "success";
+        }
+        return "error: 미사용 파일 정리가 이미 실행 중입니다.";
+    }
+
+    @GetMapping("/media/gc")
+    @ResponseBody
+    public Map<String, Object> getMediaGarbageCollectionStatus() {
+        return mediaGarbageCollectionService.getStatus();
+    }
+
+    @GetMapping("/media/executor")
+    @ResponseBody
+    public Map<String, Object> getMediaExecutorStatus() {
+        return mediaTaskExecutor.getStatus();
+    }
+
+    @GetMapping("/media/streams")
+    @ResponseBody
+    public Map<String, Object> getMediaStreamStatus() {
+        return streamLimitService.getStatus();
+    }
+}
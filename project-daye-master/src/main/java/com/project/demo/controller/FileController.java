@@ -3,20 +3,37 @@ package com.project.demo.controller;
 import com.project.demo.entity.Post;
 import com.project.demo.repository.PostRepository;
 import com.project.demo.service.FileService;
+import com.project.demo.service.HlsPackagingService;
+import com.project.demo.service.MediaTransferService;
+import com.project.demo.service.StreamLimitService;
+import com.project.demo.service.ThumbnailCacheService;
+import com.project.demo.service.ThumbnailVariantService;
+import com.project.demo.storage.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.support.ResourceRegion;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 @Controller
@@ -29,16 +46,32 @@ public class FileController {
     @Autowired
     private FileService fileService;
 
-    private static final long CHUNK_SIZE = 1024 * 1024; // 1MB 청크 크기
+    @Autowired
+    private MediaTransferService mediaTransferService;
+
+    @Autowired
+    private ThumbnailVariantService thumbnailVariantService;
+
+    @Autowired
+    private StreamLimitService streamLimitService;
+
+    @Autowired
+    private ThumbnailCacheService thumbnailCacheService;
+
+    @Autowired
+    private HlsPackagingService hlsPackagingService;
+
+    private static final long CHUNK_SIZE = 1024 * 1024; // 1MB 청크 크기 (Range 응답 한 구간의 최대 크기)
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable"; // 1년 캐시
 
     @GetMapping("/video/{postId}")
-    public ResponseEntity<Resource> streamVideo(@PathVariable Long postId,
-                                               @RequestHeader(value = "Range", required = false) String rangeHeader) {
+    public ResponseEntity<?> streamVideo(@PathVariable Long postId,
+                                         @RequestHeader(value = "Range", required = false) String rangeHeader,
+                                         @RequestHeader(value = "If-Range", required = false) String ifRangeHeader,
+                                         HttpServletRequest request,
+                                         HttpServletResponse response) {
         
         try {
-            System.out.println("=== 동영상 요청 시작 ===");
-            System.out.println("요청된 Post ID: " + postId);
-            
             Optional<Post> postOpt = postRepository.findById(postId);
             if (postOpt.isEmpty()) {
                 System.out.println("Post를 찾을 수 없습니다: " + postId);
@@ -46,26 +79,21 @@ public class FileController {
             }
 
             Post post = postOpt.get();
-            System.out.println("Post 정보:");
-            System.out.println("- ID: " + post.getId());
-            System.out.println("- 제목: " + post.getTitle());
-            System.out.println("- 동영상 파일명: " + post.getVideoFilename());
-
             if (post.getVideoFilename() == null || post.getVideoFilename().isEmpty()) {
                 System.out.println("동영상 파일명이 없습니다.");
                 return ResponseEntity.notFound().build();
             }
 
-            File videoFile = fileService.getVideoFile(post.getVideoFilename());
-            System.out.println("찾은 동영상 파일 경로: " + videoFile.getAbsolutePath());
-            System.out.println("파일 존재 여부: " + videoFile.exists());
-            
+            StoredFile videoFile = fileService.getVideoFile(post.getVideoFilename());
             if (!videoFile.exists()) {
-                System.out.println("동영상 파일이 존재하지 않습니다.");
+                System.out.println("동영상 파일이 존재하지 않습니다: " + videoFile.getName());
                 return ResponseEntity.notFound().build();
             }
 
-            FileSystemResource resource = new FileSystemResource(videoFile);
+            long contentLength = videoFile.length();
+            long lastModified = videoFile.lastModified();
+            String etag = etagOf(videoFile, contentLength, lastModified);
+            Resource resource = videoFile.toResource();
             String contentType = determineContentType(post.getVideoContentType(), post.getVideoFilename());
 
             HttpHeaders headers = new HttpHeaders();
@@ -74,24 +102,153 @@ public class FileController {
             headers.set("Access-Control-Allow-Origin", "*");
             headers.set("Access-Control-Allow-Methods", "GET, HEAD, OPTIONS");
             headers.set("Access-Control-Allow-Headers", "Range, Content-Type");
+            headers.set("Access-Control-Expose-Headers", "Content-Range, Content-Length, Accept-Ranges, ETag");
             headers.set("Cache-Control", "public, max-age=3600");
             headers.set("Content-Disposition", "inline");
-            headers.set("Content-Length", String.valueOf(videoFile.length()));
-            
-            System.out.println("응답 헤더:");
-            System.out.println("- Content-Type: " + contentType);
-            System.out.println("- Content-Length: " + videoFile.length());
-            System.out.println("- Accept-Ranges: bytes");
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(resource);
+            // If-None-Match / If-Modified-Since 검증 (ETag, Last-Modified 헤더도 여기서 응답에 설정됨)
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, headers.getCacheControl());
+                return null;
+            }
+
+            // 사용자/게시글별 동시 스트림 한도 (전송이 끝나면 반납)
+            StreamLimitService.StreamLease lease = streamLimitService.acquire(request, postId, MediaTransferService.ENDPOINT_VIDEO);
+            if (lease == null) {
+                return tooManyStreams();
+            }
+            try {
+                // Range 요청이 없거나, 해석할 수 없거나 (RFC 9110: 무시하고 전체 응답),
+                // If-Range 검증에 실패한 경우 (파일이 바뀐 경우) 전체 파일 응답
+                List<HttpRange> ranges = parseRanges(rangeHeader);
+                if (ranges.isEmpty() || !isIfRangeSatisfied(ifRangeHeader, etag, lastModified)) {
+                    mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_VIDEO,
+                            videoFile, HttpStatus.OK, headers, null, lease);
+                    return null;
+                }
+
+                List<ResourceRegion> regions = toBoundedRegions(ranges, resource, contentLength);
+                if (regions.isEmpty()) {
+                    return rangeNotSatisfiable(contentLength);
+                }
+
+                // 단일 구간은 Content-Range, 다중 구간은 multipart/byteranges로 전송
+                mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_VIDEO,
+                        videoFile, HttpStatus.PARTIAL_CONTENT, headers, regions, lease);
+                return null;
+            } finally {
+                lease.close();
+            }
 
         } catch (Exception e) {
+            // 전송 도중 클라이언트가 연결을 끊은 경우 (탐색 시 흔함) 이미 커밋된 응답은 그대로 둠
+            if (response.isCommitted()) {
+                return null;
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Range 헤더 해석 (헤더가 없거나 형식이 잘못되었으면 빈 목록)
+     */
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 요청된 Range들을 ResourceRegion으로 변환
+     * - 파일 범위를 벗어난 구간은 제외
+     * - 겹치거나 맞닿은 구간은 하나로 병합
+     * - 각 구간은 최대 CHUNK_SIZE로 제한 (플레이어는 이어지는 구간을 다시 요청함)
+     */
+    private List<ResourceRegion> toBoundedRegions(List<HttpRange> ranges, Resource resource, long contentLength) {
+        List<long[]> spans = new ArrayList<>();
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(contentLength);
+            long end = Math.min(range.getRangeEnd(contentLength), contentLength - 1);
+            if (start < 0 || start >= contentLength || end < start) {
+                continue;
+            }
+            spans.add(new long[]{start, end});
+        }
+
+        if (spans.size() > 1) {
+            spans.sort(Comparator.comparingLong(span -> span[0]));
+            List<long[]> merged = new ArrayList<>();
+            for (long[] span : spans) {
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && span[0] <= last[1] + 1) {
+                    last[1] = Math.max(last[1], span[1]);
+                } else {
+                    merged.add(span);
+                }
+            }
+            spans = merged;
+        }
+
+        List<ResourceRegion> regions = new ArrayList<>();
+        for (long[] span : spans) {
+            long count = Math.min(span[1] - span[0] + 1, CHUNK_SIZE);
+            regions.add(new ResourceRegion(resource, span[0], count));
+        }
+        return regions;
+    }
+
+    /**
+     * If-Range 헤더 검증
+     * - 헤더가 없으면 통과
+     * - ETag인 경우 현재 ETag와 강한 비교로 일치해야 통과 (약한 ETag는 항상 불일치)
+     * - HTTP 날짜인 경우 파일의 Last-Modified와 초 단위로 일치해야 통과
+     */
+    private boolean isIfRangeSatisfied(String ifRangeHeader, String etag, long lastModified) {
+        if (ifRangeHeader == null || ifRangeHeader.isBlank()) {
+            return true;
+        }
+        String value = ifRangeHeader.trim();
+        if (value.startsWith("W/")) {
+            return false;
+        }
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        try {
+            long ifRangeSeconds = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return ifRangeSeconds == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 파일 ETag (파일명, 크기, 수정 시각으로 만든 강한 검증자)
+     * 저장된 파일은 같은 이름으로 내용을 바꿔 쓰지 않으므로 세 값이 같으면 바이트도 같음
+     */
+    private String etagOf(StoredFile file, long length, long lastModified) {
+        String identity = file.getArea().getDirectoryName() + "/" + file.getName() + ":" + length + ":" + lastModified;
+        return "\"" + DigestUtils.md5DigestAsHex(identity.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private ResponseEntity<?> rangeNotSatisfiable(long contentLength) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength)
+                .header("Accept-Ranges", "bytes")
+                .build();
+    }
+
+    private ResponseEntity<?> tooManyStreams() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(streamLimitService.getRetryAfterSeconds()))
+                .build();
+    }
+
     private String determineContentType(String originalContentType, String filename) {
         String extension = getFileExtension(filename).toLowerCase();
 
@@ -133,7 +290,9 @@ public class FileController {
     }
 
     @GetMapping("/download/{postId}")
-    public ResponseEntity<Resource> downloadVideo(@PathVariable Long postId) {
+    public ResponseEntity<?> downloadVideo(@PathVariable Long postId,
+                                           HttpServletRequest request,
+                                           HttpServletResponse response) throws IOException {
         Optional<Post> postOpt = postRepository.findById(postId);
         if (postOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -144,38 +303,182 @@ public class FileController {
             return ResponseEntity.notFound().build();
         }
 
-        File videoFile = fileService.getVideoFile(post.getVideoFilename());
+        StoredFile videoFile = fileService.getVideoFile(post.getVideoFilename());
         if (!videoFile.exists()) {
             return ResponseEntity.notFound().build();
         }
 
-        Resource resource = new FileSystemResource(videoFile);
         String contentType = determineContentType(post.getVideoContentType(), post.getVideoFilename());
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                       "attachment; filename=\"" + post.getVideoOriginalName() + "\"")
-                .body(resource);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + post.getVideoOriginalName() + "\"");
+
+        StreamLimitService.StreamLease lease = streamLimitService.acquire(request, postId, MediaTransferService.ENDPOINT_DOWNLOAD);
+        if (lease == null) {
+            return tooManyStreams();
+        }
+        try {
+            mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_DOWNLOAD,
+                    videoFile, HttpStatus.OK, headers, null, lease);
+        } finally {
+            lease.close();
+        }
+        return null;
     }
 
+    /**
+     * 썸네일 (w를 지정하면 그 너비 이상인 가장 작은 축소본, 예: ?w=320)
+     */
     @GetMapping("/thumbnail/{thumbnailFilename}")
-    public ResponseEntity<Resource> getThumbnail(@PathVariable String thumbnailFilename) {
-        File thumbnailFile = fileService.getThumbnailFile(thumbnailFilename);
+    public ResponseEntity<Resource> getThumbnail(@PathVariable String thumbnailFilename,
+                                                 @RequestParam(value = "w", required = false) Integer width) {
+        // 기본 썸네일은 메모리의 인코딩된 이미지로 응답 (내용이 바뀌지 않으므로 1년 캐시)
+        if (fileService.isDefaultThumbnail(thumbnailFilename)) {
+            byte[] bytes = fileService.getDefaultThumbnailBytes(fileService.resolveThumbnailWidth(width));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.IMAGE_JPEG);
+            headers.set("Cache-Control", IMMUTABLE_CACHE_CONTROL);
+            headers.setETag("\"" + DigestUtils.md5DigestAsHex(bytes) + "\"");
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(new ByteArrayResource(bytes));
+        }
 
-        if (!thumbnailFile.exists()) {
+        // 자주 요청되는 썸네일은 저장소를 거치지 않고 메모리(힙 밖)에서 응답
+        int resolvedWidth = fileService.resolveThumbnailWidth(width);
+        ThumbnailCacheService.CachedThumbnail cached = thumbnailCacheService.get(thumbnailFilename, resolvedWidth);
+        if (cached != null) {
+            return thumbnailResponse(cached.toResource(), IMMUTABLE_CACHE_CONTROL, cached.getEtag(), cached.getLastModified());
+        }
+
+        StoredFile thumbnailFile;
+        // 썸네일 파일명은 생성할 때마다 새로 발급되고 내용이 바뀌지 않으므로 URL 자체가 지문 역할 → 1년 캐시
+        String cacheControl = IMMUTABLE_CACHE_CONTROL;
+        try {
+            thumbnailFile = thumbnailVariantService.getThumbnail(thumbnailFilename, width);
+        } catch (IOException | RuntimeException e) {
+            // 축소본을 만들지 못하면 원본으로 응답 (다음에 다시 시도하도록 짧게 캐시)
+            System.out.println("썸네일 축소본 생성 실패: " + thumbnailFilename + ", 오류: " + e.getMessage());
+            thumbnailFile = fileService.getThumbnailFile(thumbnailFilename);
+            cacheControl = "public, max-age=300";
+        }
+
+        if (thumbnailFile == null || !thumbnailFile.exists()) {
             return ResponseEntity.notFound().build();
         }
 
-        Resource resource = new FileSystemResource(thumbnailFile);
+        long length = thumbnailFile.length();
+        long lastModified = thumbnailFile.lastModified();
+        String etag = etagOf(thumbnailFile, length, lastModified);
+
+        // 원본 대체 응답(짧은 캐시)은 캐시에 넣지 않음
+        if (IMMUTABLE_CACHE_CONTROL.equals(cacheControl)) {
+            try {
+                cached = thumbnailCacheService.put(thumbnailFilename, resolvedWidth, thumbnailFile, etag);
+                if (cached != null) {
+                    return thumbnailResponse(cached.toResource(), cacheControl, etag, lastModified);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("썸네일 캐시 저장 실패: " + thumbnailFilename + ", 오류: " + e.getMessage());
+            }
+        }
+        return thumbnailResponse(thumbnailFile.toResource(), cacheControl, etag, lastModified);
+    }
 
+    // ETag / Last-Modified가 있으면 If-None-Match / If-Modified-Since 요청에 304로 응답됨
+    private ResponseEntity<Resource> thumbnailResponse(Resource body, String cacheControl, String etag, long lastModified) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.IMAGE_JPEG);
-        headers.set("Cache-Control", "public, max-age=86400"); // 24시간 캐시
+        headers.set("Cache-Control", cacheControl);
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(resource);
+                .body(body);
+    }
+
+    /**
+     * HLS 플레이리스트(.m3u8)와 세그먼트(.ts)
+     * 패키지 파일명은 동영상 파일명에서 만들어지고 내용이 바뀌지 않으므로 1년 캐시
+     * 세그먼트는 원본 동영상과 같은 동시 스트림 한도를 적용 (전송이 끝나면 반납)
+     */
+    @GetMapping("/hls/{filename}")
+    public ResponseEntity<?> getHlsFile(@PathVariable String filename,
+                                        HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        MediaType contentType;
+        boolean segment = false;
+        if (filename.endsWith(".m3u8")) {
+            contentType = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+        } else if (filename.endsWith(".ts")) {
+            contentType = MediaType.parseMediaType("video/mp2t");
+            segment = true;
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+
+        StoredFile hlsFile = fileService.getHlsFile(filename);
+        if (!hlsFile.exists()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long length = hlsFile.length();
+        long lastModified = hlsFile.lastModified();
+        String etag = etagOf(hlsFile, length, lastModified);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.set("Cache-Control", IMMUTABLE_CACHE_CONTROL);
+        headers.set("Access-Control-Allow-Origin", "*");
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+
+        if (!segment) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(hlsFile.toResource());
+        }
+
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+            return null;
+        }
+
+        // 게시글별 한도가 있을 때만 세그먼트가 속한 게시글을 조회
+        Long postId = null;
+        if (streamLimitService.isPostLimited()) {
+            String masterPlaylist = hlsPackagingService.masterPlaylistOfSegment(filename);
+            List<Long> postIds = masterPlaylist != null
+                    ? postRepository.findIdsByHlsPlaylist(masterPlaylist) : List.of();
+            if (postIds.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            postId = postIds.get(0);
+        }
+
+        StreamLimitService.StreamLease lease = streamLimitService.acquire(request, postId, MediaTransferService.ENDPOINT_HLS);
+        if (lease == null) {
+            return tooManyStreams();
+        }
+        // ResponseEntity로 반환하면 lease를 닫은 뒤에 본문이 쓰이므로 여기서 직접 전송
+        // (ETag, Last-Modified는 checkNotModified가 이미 응답에 설정함)
+        headers.remove(HttpHeaders.ETAG);
+        headers.remove(HttpHeaders.LAST_MODIFIED);
+        try {
+            mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_HLS,
+                    hlsFile, HttpStatus.OK, headers, null, lease);
+        } catch (IOException e) {
+            // 전송 도중 클라이언트가 연결을 끊은 경우 이미 커밋된 응답은 그대로 둠
+            if (!response.isCommitted()) {
+                throw e;
+            }
+        } finally {
+            lease.close();
+        }
+        return null;
     }
 
     // OPTIONS 요청 처리 (CORS preflight)
@@ -203,18 +506,21 @@ public class FileController {
             return ResponseEntity.notFound().build();
         }
 
-        File videoFile = fileService.getVideoFile(post.getVideoFilename());
+        StoredFile videoFile = fileService.getVideoFile(post.getVideoFilename());
         if (!videoFile.exists()) {
             return ResponseEntity.notFound().build();
         }
 
         long fileSize = videoFile.length();
+        long lastModified = videoFile.lastModified();
         String contentType = determineContentType(post.getVideoContentType(), post.getVideoFilename());
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(contentType));
         headers.set("Accept-Ranges", "bytes");
         headers.setContentLength(fileSize);
+        headers.setETag(etagOf(videoFile, fileSize, lastModified));
+        headers.setLastModified(lastModified);
         headers.set("Access-Control-Allow-Origin", "*");
 
         return ResponseEntity.ok().headers(headers).build();
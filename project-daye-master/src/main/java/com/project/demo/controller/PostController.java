@@ -2,10 +2,15 @@ package com.project.demo.controller;
 
 import com.project.demo.entity.Post;
 import com.project.demo.entity.User;
+import com.project.demo.repository.PostSummary;
 import com.project.demo.service.PostService;
+import com.project.demo.service.VideoUploadService;
+import com.project.demo.service.ViewCountService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,7 +18,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/posts")
@@ -22,8 +30,14 @@ public class PostController {
     @Autowired
     private PostService postService;
     
+    @Autowired
+    private ViewCountService viewCountService;
+    
+    @Autowired
+    private VideoUploadService videoUploadService;
+    
     @GetMapping
-    public String listPosts(@RequestParam(defaultValue = "0") int page,
+    public String listPosts(@RequestParam(required = false) Integer page,
                            @RequestParam(defaultValue = "10") int size,
                            @RequestParam(required = false) String keyword,
                            @RequestParam(required = false, defaultValue = "all") String searchType,
@@ -33,13 +47,24 @@ public class PostController {
             // 페이징 크기 검증
             size = postService.validatePageSize(size);
             
-            Page<Post> posts;
+            Page<PostSummary> posts;
             
             if (keyword != null && !keyword.trim().isEmpty()) {
                 // 고급 검색 사용
-                posts = postService.searchPostsByType(searchType, keyword.trim(), page, size);
+                posts = postService.searchPostsByType(searchType, keyword.trim(), page != null ? page : 0, size);
                 model.addAttribute("keyword", keyword);
                 model.addAttribute("searchType", searchType);
+            } else if (page == null) {
+                // 페이지 번호 없이 들어오면 피드(무한 스크롤)로 표시, 이후 목록은 /posts/feed/cards로 이어서 받음
+                PostService.FeedPage feed = postService.getFeed(null, size);
+                model.addAttribute("posts", new PageImpl<>(feed.getPosts()));
+                model.addAttribute("feedMode", true);
+                model.addAttribute("nextCursor", feed.getNextCursor());
+                model.addAttribute("currentPage", 0);
+                model.addAttribute("currentSize", size);
+                model.addAttribute("searchType", searchType);
+                model.addAttribute("searchTypes", new String[]{"all", "title", "content", "author", "filename"});
+                return "posts/list";
             } else {
                 posts = postService.getAllPosts(page, size);
                 model.addAttribute("searchType", searchType);
@@ -59,7 +84,7 @@ public class PostController {
         } catch (Exception e) {
             // 오류가 발생해도 절대 error.html로 가지 않고 빈 페이지로 처리
             try {
-                Page<Post> emptyPosts = postService.getAllPosts(0, 10);
+                Page<PostSummary> emptyPosts = postService.getAllPosts(0, 10);
                 model.addAttribute("posts", emptyPosts);
             } catch (Exception ex) {
                 // PostService에서도 오류가 발생하면 완전히 빈 객체 생성
@@ -77,6 +102,46 @@ public class PostController {
         }
     }
     
+    /**
+     * 피드 JSON (cursor는 이전 응답의 nextCursor, 처음이면 생략)
+     */
+    @GetMapping("/feed")
+    @ResponseBody
+    public ResponseEntity<FeedResponse> getFeed(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "10") int size) {
+        try {
+            PostService.FeedPage feed = postService.getFeed(cursor, size);
+            FeedResponse response = new FeedResponse();
+            response.setItems(feed.getPosts().stream().map(this::convertToFeedItem).collect(Collectors.toList()));
+            response.setNextCursor(feed.getNextCursor());
+            response.setHasNext(feed.isHasNext());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 피드 다음 카드 목록 (갤러리 무한 스크롤용 HTML 조각, 다음 위치는 X-Next-Cursor 헤더)
+     */
+    @GetMapping("/feed/cards")
+    public String getFeedCards(@RequestParam String cursor,
+                               @RequestParam(defaultValue = "10") int size,
+                               Model model,
+                               HttpServletResponse response) {
+        try {
+            PostService.FeedPage feed = postService.getFeed(cursor, size);
+            model.addAttribute("posts", new PageImpl<>(feed.getPosts()));
+            if (feed.getNextCursor() != null) {
+                response.setHeader("X-Next-Cursor", feed.getNextCursor());
+            }
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            model.addAttribute("posts", new PageImpl<>(new ArrayList<PostSummary>()));
+        }
+        return "posts/list :: postCard";
+    }
+    
     @GetMapping("/{id}")
     public String viewPost(@PathVariable Long id, Model model) {
         try {
@@ -85,8 +150,10 @@ public class PostController {
                 model.addAttribute("errorMessage", "게시글을 찾을 수 없습니다.");
                 return "error";
             }
-            postService.incrementViewCount(id);
+            // 조회수는 모았다가 주기적으로 반영, 화면에는 반영 전 증가분을 더해서 표시
+            viewCountService.increment(id);
             model.addAttribute("post", post);
+            model.addAttribute("viewCount", (post.getViewCount() != null ? post.getViewCount() : 0) + viewCountService.getPending(id));
             return "posts/view";
         } catch (Exception e) {
             model.addAttribute("errorMessage", "게시글을 불러오는 중 오류가 발생했습니다: " + e.getMessage());
@@ -103,13 +170,17 @@ public class PostController {
     @PostMapping("/write")
     public String writePost(@ModelAttribute Post post,
                            @RequestParam(value = "videoFile", required = false) MultipartFile videoFile,
+                           @RequestParam(value = "uploadToken", required = false) String uploadToken,
                            @AuthenticationPrincipal User user,
                            RedirectAttributes redirectAttributes) {
+        String token = null;
         try {
-            postService.createPost(post, user, videoFile);
+            token = stageVideo(videoFile, uploadToken, user);
+            postService.createPost(post, user, token);
             redirectAttributes.addFlashAttribute("message", "게시글이 성공적으로 작성되었습니다.");
             return "redirect:/posts";
         } catch (Exception e) {
+            discardStagedVideo(token, uploadToken, user);
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/posts/write";
         }
@@ -138,13 +209,17 @@ public class PostController {
     public String editPost(@PathVariable Long id,
                           @ModelAttribute Post post,
                           @RequestParam(value = "videoFile", required = false) MultipartFile videoFile,
+                          @RequestParam(value = "uploadToken", required = false) String uploadToken,
                           @AuthenticationPrincipal User user,
                           RedirectAttributes redirectAttributes) {
+        String token = null;
         try {
-            postService.updatePost(id, post, user, videoFile);
+            token = stageVideo(videoFile, uploadToken, user);
+            postService.updatePost(id, post, user, token);
             redirectAttributes.addFlashAttribute("message", "게시글이 성공적으로 수정되었습니다.");
             return "redirect:/posts/" + id;
         } catch (Exception e) {
+            discardStagedVideo(token, uploadToken, user);
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/posts/" + id + "/edit";
         }
@@ -163,4 +238,100 @@ public class PostController {
             return "redirect:/posts/" + id;
         }
     }
+    
+    /**
+     * multipart로 받은 동영상은 게시글 트랜잭션 전에 저장하고 업로드 토큰으로 넘김
+     * (fast start 변환과 해시 계산이 DB 연결을 잡은 채로 실행되지 않도록, 스트리밍 업로드 토큰이 있으면 그대로 사용)
+     */
+    private String stageVideo(MultipartFile videoFile, String uploadToken, User user) {
+        if ((uploadToken != null && !uploadToken.isEmpty()) || videoFile == null || videoFile.isEmpty()) {
+            return uploadToken;
+        }
+        try {
+            return videoUploadService.stage(user, videoFile).getToken();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("동영상 업로드 중 오류가 발생했습니다: " + e.getMessage(), e);
+        }
+    }
+    
+    // 여기서 저장한 multipart 동영상이 게시글에 연결되지 않았으면 참조 반환 (클라이언트가 올린 토큰은 다시 쓸 수 있게 둠)
+    private void discardStagedVideo(String token, String uploadToken, User user) {
+        if (token != null && !token.equals(uploadToken)) {
+            videoUploadService.discard(token, user);
+        }
+    }
+    
+    private FeedItemDto convertToFeedItem(PostSummary post) {
+        FeedItemDto dto = new FeedItemDto();
+        dto.setId(post.getId());
+        dto.setTitle(post.getTitle());
+        dto.setAuthorName(post.getAuthorName());
+        dto.setCreatedAt(post.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        dto.setViewCount(post.getViewCount());
+        dto.setCommentCount(post.getCommentCount());
+        dto.setThumbnailPath(post.getThumbnailPath());
+        dto.setThumbnailPending(post.isThumbnailPending());
+        dto.setVideoDuration(post.getVideoDurationText());
+        dto.setVideoResolution(post.getVideoResolutionText());
+        return dto;
+    }
+    
+    // DTO 클래스들
+    public static class FeedResponse {
+        private List<FeedItemDto> items = new ArrayList<>();
+        private String nextCursor;
+        private boolean hasNext;
+        
+        public List<FeedItemDto> getItems() { return items; }
+        public void setItems(List<FeedItemDto> items) { this.items = items; }
+        
+        public String getNextCursor() { return nextCursor; }
+        public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+        
+        public boolean isHasNext() { return hasNext; }
+        public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+    }
+    
+    public static class FeedItemDto {
+        private Long id;
+        private String title;
+        private String authorName;
+        private String createdAt;
+        private Integer viewCount;
+        private Integer commentCount;
+        private String thumbnailPath;
+        private boolean thumbnailPending;
+        private String videoDuration;
+        private String videoResolution;
+        
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+        
+        public String getAuthorName() { return authorName; }
+        public void setAuthorName(String authorName) { this.authorName = authorName; }
+        
+        public String getCreatedAt() { return createdAt; }
+        public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+        
+        public Integer getViewCount() { return viewCount; }
+        public void setViewCount(Integer viewCount) { this.viewCount = viewCount; }
+        
+        public Integer getCommentCount() { return commentCount; }
+        public void setCommentCount(Integer commentCount) { this.commentCount = commentCount; }
+        
+        public String getThumbnailPath() { return thumbnailPath; }
+        public void setThumbnailPath(String thumbnailPath) { this.thumbnailPath = thumbnailPath; }
+        
+        public boolean isThumbnailPending() { return thumbnailPending; }
+        public void setThumbnailPending(boolean thumbnailPending) { this.thumbnailPending = thumbnailPending; }
+        
+        public String getVideoDuration() { return videoDuration; }
+        public void setVideoDuration(String videoDuration) { this.videoDuration = videoDuration; }
+        
+        public String getVideoResolution() { return videoResolution; }
+        public void setVideoResolution(String videoResolution) { this.videoResolution = videoResolution; }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.project.demo.controller;
+
+import com.project.demo.entity.User;
+import com.project.demo.service.FileService;
+import com.project.demo.service.VideoUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadController {
+
+    @Autowired
+    private VideoUploadService videoUploadService;
+
+    @Autowired
+    private FileService fileService;
+
+    /**
+     * 동영상 스트리밍 업로드 (인증 필요)
+     * 요청 본문 전체가 동영상 파일이며, multipart 임시 파일을 거치지 않고 최종 경로에 바로 저장
+     * 원본 파일명은 X-Upload-Filename 헤더로 전달 (URL 인코딩)
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> uploadVideo(@RequestHeader("X-Upload-Filename") String encodedFilename,
+                                                           @AuthenticationPrincipal User user,
+                                                           HttpServletRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // 본문을 읽기 전에 선언된 크기로 먼저 거절
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > fileService.getMaxFileSize()) {
+            body.put("error", "파일 크기가 2GB를 초과합니다.");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body);
+        }
+
+        try {
+            String originalFilename = URLDecoder.decode(encodedFilename, StandardCharsets.UTF_8);
+            VideoUploadService.StagedUpload upload = videoUploadService.stage(
+                    user, request.getInputStream(), originalFilename, request.getContentType(), contentLength);
+
+            body.put("uploadToken", upload.getToken());
+            body.put("originalName", upload.getOriginalName());
+            body.put("size", upload.getSize());
+            body.put("sha256", upload.getSha256());
+            return ResponseEntity.ok(body);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("동영상 업로드 실패: " + e.getMessage());
+            body.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(body);
+        }
+    }
+
+    /**
+     * 업로드 전 확인: 본인이 이미 올린 동영상과 같은 내용(SHA-256)이면 전송 없이 업로드 토큰 발급
+     * 없거나 다른 사용자의 동영상이면 똑같이 404를 반환하며 (존재 여부 확인 방지), 클라이언트는 평소처럼 업로드
+     */
+    @PostMapping("/by-hash")
+    public ResponseEntity<Map<String, Object>> uploadByHash(@RequestBody UploadByHashRequest hashRequest,
+                                                            @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        String sha256 = hashRequest.getSha256();
+        if (sha256 == null || !sha256.matches("[0-9a-fA-F]{64}")) {
+            body.put("error", "해시 형식이 올바르지 않습니다.");
+            return ResponseEntity.badRequest().body(body);
+        }
+
+        try {
+            VideoUploadService.StagedUpload upload = videoUploadService.stageExisting(
+                    user, sha256, hashRequest.getFilename(), hashRequest.getContentType());
+            if (upload == null) {
+                body.put("exists", false);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+            }
+            body.put("exists", true);
+            body.put("uploadToken", upload.getToken());
+            body.put("originalName", upload.getOriginalName());
+            body.put("size", upload.getSize());
+            body.put("sha256", upload.getSha256());
+            return ResponseEntity.ok(body);
+        } catch (RuntimeException e) {
+            return errorBody(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
+    /**
+     * 이어받기 업로드 세션 생성 (인증 필요)
+     * 응답의 chunkSize 단위로 파일을 나눠 청크 번호와 함께 업로드
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> createSession(@RequestBody CreateSessionRequest sessionRequest,
+                                                             @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            VideoUploadService.UploadSession session = videoUploadService.createSession(
+                    user, sessionRequest.getFilename(), sessionRequest.getContentType(), sessionRequest.getSize());
+            return ResponseEntity.ok(sessionBody(session));
+        } catch (RuntimeException e) {
+            return errorBody(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
+    /**
+     * 업로드 세션 상태 조회 (연결이 끊긴 뒤 어디부터 이어서 올릴지 확인)
+     */
+    @GetMapping("/sessions/{uploadId}")
+    public ResponseEntity<Map<String, Object>> getSession(@PathVariable String uploadId,
+                                                          @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(sessionBody(videoUploadService.getSession(uploadId, user)));
+        } catch (RuntimeException e) {
+            return errorBody(HttpStatus.NOT_FOUND, e);
+        }
+    }
+
+    /**
+     * 청크 업로드 (요청 본문이 청크 내용, 같은 번호를 다시 보내면 덮어씀)
+     */
+    @PutMapping("/sessions/{uploadId}/chunks/{index}")
+    public ResponseEntity<Map<String, Object>> uploadChunk(@PathVariable String uploadId,
+                                                           @PathVariable int index,
+                                                           @AuthenticationPrincipal User user,
+                                                           HttpServletRequest request) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            VideoUploadService.UploadSession session = videoUploadService.writeChunk(
+                    uploadId, user, index, request.getInputStream(), request.getContentLengthLong());
+            return ResponseEntity.ok(sessionBody(session));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("청크 업로드 실패: " + uploadId + "#" + index + ", 오류: " + e.getMessage());
+            return errorBody(HttpStatus.BAD_REQUEST, e);
+        }
+    }
+
+    /**
+     * 업로드 완료 (모든 청크를 받은 경우 게시글 작성에 사용할 업로드 토큰 발급)
+     */
+    @PostMapping("/sessions/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> completeSession(@PathVariable String uploadId,
+                                                               @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            VideoUploadService.StagedUpload upload = videoUploadService.completeSession(uploadId, user);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("uploadToken", upload.getToken());
+            body.put("originalName", upload.getOriginalName());
+            body.put("size", upload.getSize());
+            body.put("sha256", upload.getSha256());
+            return ResponseEntity.ok(body);
+        } catch (RuntimeException e) {
+            return errorBody(HttpStatus.CONFLICT, e);
+        }
+    }
+
+    @DeleteMapping("/sessions/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abortSession(@PathVariable String uploadId,
+                                                            @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            videoUploadService.abortSession(uploadId, user);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return errorBody(HttpStatus.CONFLICT, e);
+        }
+    }
+
+    /**
+     * 게시글에 사용하지 않을 업로드 토큰 반환 (이미 사용했거나 없는 토큰이면 무시)
+     */
+    @DeleteMapping("/{token}")
+    public ResponseEntity<Void> discardUpload(@PathVariable String token,
+                                              @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        videoUploadService.discard(token, user);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Map<String, Object> sessionBody(VideoUploadService.UploadSession session) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uploadId", session.getUploadId());
+        body.put("size", session.getSize());
+        body.put("chunkSize", session.getChunkSize());
+        body.put("totalChunks", session.getTotalChunks());
+        body.put("committedOffset", session.getCommittedOffset());
+        body.put("receivedChunks", session.getReceivedChunkCount());
+        body.put("missingChunks", session.getMissingChunks());
+        return body;
+    }
+
+    private ResponseEntity<Map<String, Object>> errorBody(HttpStatus status, Exception e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        return ResponseEntity.status(status).body(body);
+    }
+
+    // DTO 클래스들
+    public static class CreateSessionRequest {
+        private String filename;
+        private String contentType;
+        private long size;
+
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+    }
+
+    public static class UploadByHashRequest {
+        private String sha256;
+        private String filename;
+        private String contentType;
+
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
+
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 내용 해시(SHA-256) 기준으로 저장된 동영상 파일
+ * 같은 동영상을 여러 게시글이 올려도 파일은 하나만 저장하고 참조 수로 관리
+ */
+@Entity
+@Table(name = "media_blobs")
+@Getter
+@Setter
+public class MediaBlob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+    
+    @Column(nullable = false, unique = true)
+    private String filename;
+    
+    @Column(nullable = false)
+    private Long size;
+    
+    // 이 파일을 사용하는 게시글 및 아직 게시글에 연결되지 않은 업로드 수
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // 마지막으로 참조를 획득한 시각 (게시글이 없는 참조가 만료된 업로드의 것인지 판단, 기존 행은 null → createdAt)
+    @Column(name = "acquired_at")
+    private LocalDateTime acquiredAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        acquiredAt = createdAt;
+    }
+}
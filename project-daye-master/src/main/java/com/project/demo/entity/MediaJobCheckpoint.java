@@ -0,0 +1,34 @@
+package com.project.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 일괄 작업의 진행 위치 (중단된 뒤 다시 시작하면 이 위치 다음 게시글부터 처리)
+ */
+@Entity
+@Table(name = "media_job_checkpoints")
+@Getter
+@Setter
+public class MediaJobCheckpoint {
+    
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+    
+    // 이 id까지의 게시글은 모두 처리됨
+    @Column(name = "last_post_id", nullable = false)
+    private Long lastPostId = 0L;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
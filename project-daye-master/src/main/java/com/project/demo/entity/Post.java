@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,13 +14,27 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // 피드 커서 조회용 (created_at, id) 정렬 인덱스
+    @Index(name = "idx_posts_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 public class Post {
     
+    // 썸네일 생성 작업 상태 (백그라운드 작업으로 생성)
+    public enum ThumbnailStatus { PENDING, RUNNING, DONE, FAILED }
+    
+    // HLS 패키징 작업 상태 (백그라운드 작업으로 생성)
+    public enum HlsStatus { PENDING, RUNNING, DONE, FAILED }
+    
+    // fast start 변환 결과 (REMUXED: 업로드 시 moov를 앞으로 옮김, ALREADY: 원래 앞에 있음, UNSUPPORTED: MP4/MOV가 아니거나 변환 불가,
+    // FAILED: 변환 중 오류, SKIPPED: moov가 뒤에 있지만 이미 등록된 파일이라 변환하지 않음)
+    public enum FastStartStatus { REMUXED, ALREADY, UNSUPPORTED, FAILED, SKIPPED }
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -53,9 +68,45 @@ public class Post {
     @Column(name = "video_size")
     private Long videoSize;
     
+    // 업로드 시 계산한 동영상 파일 SHA-256 (16진수)
+    @Column(name = "video_sha256", length = 64)
+    private String videoSha256;
+    
     @Column(name = "thumbnail_filename")
     private String thumbnailFilename;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "thumbnail_status", length = 20)
+    private ThumbnailStatus thumbnailStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "hls_status", length = 20)
+    private HlsStatus hlsStatus;
+    
+    // HLS 마스터 플레이리스트 파일명 (패키징 완료 시 설정)
+    @Column(name = "hls_playlist")
+    private String hlsPlaylist;
+    
+    // 동영상 메타데이터 (업로드 후 썸네일 생성 시 함께 저장)
+    @Column(name = "video_duration_ms")
+    private Long videoDurationMillis;
+    
+    @Column(name = "video_width")
+    private Integer videoWidth;
+    
+    @Column(name = "video_height")
+    private Integer videoHeight;
+    
+    @Column(name = "video_frame_rate")
+    private Double videoFrameRate;
+    
+    @Column(name = "video_codec", length = 50)
+    private String videoCodec;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "video_fast_start", length = 20)
+    private FastStartStatus videoFastStart;
+    
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -90,10 +141,61 @@ public class Post {
     }
     
     public String getVideoPath() {
-        return videoFilename != null ? "/uploads/videos/" + videoFilename : null;
+        return videoFilename != null ? "/files/video/" + id : null;
+    }
+    
+    // HLS 재생 주소 (패키징이 끝난 경우에만)
+    public String getHlsPath() {
+        return hlsPlaylist != null ? "/files/hls/" + hlsPlaylist : null;
+    }
+    
+    // 썸네일 생성 대기/진행 중 여부 (화면에서 placeholder 표시용)
+    public boolean isThumbnailPending() {
+        return thumbnailStatus == ThumbnailStatus.PENDING || thumbnailStatus == ThumbnailStatus.RUNNING;
+    }
+    
+    // 동영상 교체 시 메타데이터 초기화 (새 동영상 수집 시 다시 채워짐)
+    public void clearVideoMetadata() {
+        this.videoDurationMillis = null;
+        this.videoWidth = null;
+        this.videoHeight = null;
+        this.videoFrameRate = null;
+        this.videoCodec = null;
+        this.videoFastStart = null;
+    }
+    
+    // 재생 시간 표시용 문자열 (예: 3:05, 1:02:03)
+    public String getVideoDurationText() {
+        return formatDuration(videoDurationMillis);
+    }
+    
+    // 해상도 표시용 문자열 (예: 1920x1080)
+    public String getVideoResolutionText() {
+        return formatResolution(videoWidth, videoHeight);
+    }
+    
+    // 목록 요약(PostSummary)과 같은 형식으로 표시하기 위한 공용 함수
+    public static String formatDuration(Long durationMillis) {
+        if (durationMillis == null) {
+            return null;
+        }
+        long totalSeconds = durationMillis / 1000;
+        long hours = totalSeconds / 3600;
+        long minutes = (totalSeconds % 3600) / 60;
+        long seconds = totalSeconds % 60;
+        return hours > 0
+                ? String.format("%d:%02d:%02d", hours, minutes, seconds)
+                : String.format("%d:%02d", minutes, seconds);
+    }
+    
+    public static String formatResolution(Integer width, Integer height) {
+        if (width == null || height == null) {
+            return null;
+        }
+        return width + "x" + height;
     }
     
     public String getThumbnailPath() {
-        return thumbnailFilename != null ? "/uploads/thumbnails/" + thumbnailFilename : null;
+        return thumbnailFilename != null ? "/files/thumbnail/" + thumbnailFilename : null;
     }
 } 
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.Collection;
 import java.util.List;
@@ -61,6 +62,11 @@ public class User implements UserDetails {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private java.time.LocalDateTime createdAt = java.time.LocalDateTime.now();
     
+    // 이름이 마지막으로 바뀐 시각 (검색 색인 파일을 읽을 때 이후에 이름이 바뀐 작성자의 게시글을 다시 색인)
+    @Column(name = "full_name_changed_at")
+    @JsonIgnore
+    private java.time.LocalDateTime fullNameChangedAt;
+    
     @PrePersist
     protected void onCreate() {
         if (roles == null) {
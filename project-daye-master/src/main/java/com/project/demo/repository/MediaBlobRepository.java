@@ -0,0 +1,46 @@
+package com.project.demo.repository;
+
+import com.project.demo.entity.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, Long> {
+    
+    Optional<MediaBlob> findBySha256(String sha256);
+    
+    Optional<MediaBlob> findByFilename(String filename);
+    
+    // 주어진 파일명 중 acquiredAfter 이후에 참조를 획득한 것 (미사용 파일 정리 시 참조 확인)
+    // 그보다 오래된 참조는 게시글이 없으면 재시작 등으로 반환되지 못한 업로드의 것으로 봄
+    @Query("SELECT b.filename FROM MediaBlob b WHERE b.filename IN :filenames "
+            + "AND COALESCE(b.acquiredAt, b.createdAt) > :acquiredAfter")
+    List<String> findRecentlyAcquiredFilenames(@Param("filenames") Collection<String> filenames,
+                                               @Param("acquiredAfter") LocalDateTime acquiredAfter);
+    
+    // 참조 수 증감 (엔티티를 읽어서 저장하지 않고 DB에서 바로 계산)
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount + :delta WHERE b.id = :id")
+    int adjustRefCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount + 1, b.acquiredAt = :now WHERE b.id = :id")
+    int acquire(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    // 게시글이 참조하지 않고 acquiredBefore 전에 마지막으로 획득된 행 삭제 (격리된 파일을 지울 때 함께 정리)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MediaBlob b WHERE b.filename = :filename "
+            + "AND COALESCE(b.acquiredAt, b.createdAt) < :acquiredBefore "
+            + "AND NOT EXISTS (SELECT p.id FROM Post p WHERE p.videoFilename = b.filename)")
+    int deleteOrphan(@Param("filename") String filename, @Param("acquiredBefore") LocalDateTime acquiredBefore);
+}
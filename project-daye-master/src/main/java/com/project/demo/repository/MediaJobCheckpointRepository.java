@@ -0,0 +1,9 @@
+package com.project.demo.repository;
+
+import com.project.demo.entity.MediaJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MediaJobCheckpointRepository extends JpaRepository<MediaJobCheckpoint, String> {
+}
@@ -1,18 +1,51 @@
 package com.project.demo.repository;
 
 import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.entity.Post.HlsStatus;
+import com.project.demo.entity.Post.ThumbnailStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     
+    // 목록용 요약 조회 (작성자 이름을 join으로 함께 읽고 내용은 앞 100자만)
+    String SUMMARY_SELECT = "SELECT new com.project.demo.repository.PostSummary(" +
+            "p.id, p.title, SUBSTRING(p.content, 1, 100), p.thumbnailFilename, p.thumbnailStatus, " +
+            "p.videoDurationMillis, p.videoWidth, p.videoHeight, p.viewCount, p.commentCount, " +
+            "p.createdAt, p.updatedAt, a.fullName) FROM Post p JOIN p.author a ";
+    
     Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
     
+    @Query(value = SUMMARY_SELECT + "ORDER BY p.createdAt DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummary> findSummaries(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<PostSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 최신 게시글 (count 쿼리 없음, 피드 첫 페이지와 대시보드에서 사용)
+    @Query(SUMMARY_SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findLatestSummaries(Pageable pageable);
+    
+    // 피드(무한 스크롤) 조회: (created_at, id) 인덱스를 따라 읽으므로 OFFSET/COUNT 없이 깊이와 관계없이 일정한 시간
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFeedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
     @Query("SELECT p FROM Post p WHERE " +
            "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -33,4 +66,186 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     
     @Query("SELECT p FROM Post p WHERE p.title LIKE %:keyword% OR p.content LIKE %:keyword% ORDER BY p.createdAt DESC")
     Page<Post> findByTitleContainingOrContentContaining(@Param("keyword") String keyword, Pageable pageable);
-} 
\ No newline at end of file
+    
+    // MariaDB FULLTEXT 검색 (boolean mode, 관련도 내림차순 / 같으면 최신 게시글 먼저)
+    // V10 마이그레이션의 FULLTEXT 인덱스가 있어야 하며 H2에서는 사용할 수 없음
+    // 본문 전체를 읽지 않도록 id만 조회하고 화면에 필요한 값은 findSummariesByIdIn으로 가져옴
+    @Query(value = "SELECT id FROM posts WHERE MATCH(title, content) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(title, content) AGAINST (:query IN BOOLEAN MODE) DESC, id DESC",
+           countQuery = "SELECT COUNT(*) FROM posts WHERE MATCH(title, content) AGAINST (:query IN BOOLEAN MODE)",
+           nativeQuery = true)
+    Page<Long> searchFulltextTitleOrContent(@Param("query") String query, Pageable pageable);
+    
+    @Query(value = "SELECT id FROM posts WHERE MATCH(title) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(title) AGAINST (:query IN BOOLEAN MODE) DESC, id DESC",
+           countQuery = "SELECT COUNT(*) FROM posts WHERE MATCH(title) AGAINST (:query IN BOOLEAN MODE)",
+           nativeQuery = true)
+    Page<Long> searchFulltextTitle(@Param("query") String query, Pageable pageable);
+    
+    @Query(value = "SELECT id FROM posts WHERE MATCH(content) AGAINST (:query IN BOOLEAN MODE) " +
+                   "ORDER BY MATCH(content) AGAINST (:query IN BOOLEAN MODE) DESC, id DESC",
+           countQuery = "SELECT COUNT(*) FROM posts WHERE MATCH(content) AGAINST (:query IN BOOLEAN MODE)",
+           nativeQuery = true)
+    Page<Long> searchFulltextContent(@Param("query") String query, Pageable pageable);
+    
+    // 썸네일 작업 상태 조회/변경 (백그라운드 썸네일 작업용)
+    @Query("SELECT p.id FROM Post p WHERE p.thumbnailStatus = :status ORDER BY p.id ASC")
+    List<Long> findIdsByThumbnailStatus(@Param("status") ThumbnailStatus status, Pageable pageable);
+    
+    // 작업 중 동영상이 교체된 경우를 막기 위해 동영상 파일명이 같을 때만 반영
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.thumbnailStatus = :status WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int updateThumbnailStatus(@Param("id") Long id,
+                              @Param("videoFilename") String videoFilename,
+                              @Param("status") ThumbnailStatus status);
+    
+    // 현재 상태가 from인 경우에만 to로 변경 (중복 실행 방지)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.thumbnailStatus = :to " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename AND p.thumbnailStatus = :from")
+    int transitionThumbnailStatus(@Param("id") Long id,
+                                  @Param("videoFilename") String videoFilename,
+                                  @Param("from") ThumbnailStatus from,
+                                  @Param("to") ThumbnailStatus to);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.thumbnailStatus = :to WHERE p.thumbnailStatus = :from")
+    int updateThumbnailStatusFrom(@Param("from") ThumbnailStatus from, @Param("to") ThumbnailStatus to);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.thumbnailFilename = :thumbnailFilename, p.thumbnailStatus = :status " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int completeThumbnail(@Param("id") Long id,
+                          @Param("videoFilename") String videoFilename,
+                          @Param("thumbnailFilename") String thumbnailFilename,
+                          @Param("status") ThumbnailStatus status);
+    
+    // HLS 패키징 작업 상태 조회/변경 (썸네일 작업과 같은 방식)
+    @Query("SELECT p.id FROM Post p WHERE p.hlsStatus = :status ORDER BY p.id ASC")
+    List<Long> findIdsByHlsStatus(@Param("status") HlsStatus status, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.hlsStatus = :status WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int updateHlsStatus(@Param("id") Long id,
+                        @Param("videoFilename") String videoFilename,
+                        @Param("status") HlsStatus status);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.hlsStatus = :to " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename AND p.hlsStatus = :from")
+    int transitionHlsStatus(@Param("id") Long id,
+                            @Param("videoFilename") String videoFilename,
+                            @Param("from") HlsStatus from,
+                            @Param("to") HlsStatus to);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.hlsStatus = :to WHERE p.hlsStatus = :from")
+    int updateHlsStatusFrom(@Param("from") HlsStatus from, @Param("to") HlsStatus to);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.hlsPlaylist = :hlsPlaylist, p.hlsStatus = :status " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int completeHls(@Param("id") Long id,
+                    @Param("videoFilename") String videoFilename,
+                    @Param("hlsPlaylist") String hlsPlaylist,
+                    @Param("status") HlsStatus status);
+    
+    // 동영상 메타데이터 저장 (작업 중 동영상이 교체된 경우 반영하지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.videoDurationMillis = :durationMillis, p.videoWidth = :width, " +
+           "p.videoHeight = :height, p.videoFrameRate = :frameRate, p.videoCodec = :codec " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int updateVideoMetadata(@Param("id") Long id,
+                            @Param("videoFilename") String videoFilename,
+                            @Param("durationMillis") Long durationMillis,
+                            @Param("width") Integer width,
+                            @Param("height") Integer height,
+                            @Param("frameRate") Double frameRate,
+                            @Param("codec") String codec);
+    
+    // fast start 변환 결과 저장 (작업 중 동영상이 교체된 경우 반영하지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.videoFastStart = :status WHERE p.id = :id AND p.videoFilename = :videoFilename")
+    int updateVideoFastStart(@Param("id") Long id,
+                             @Param("videoFilename") String videoFilename,
+                             @Param("status") FastStartStatus status);
+    
+    // 썸네일 재생성 대상 (썸네일 작업이 끝난 동영상 게시글, id 순서로 afterId 이후부터 조회)
+    // 썸네일 작업 상태가 생기기 전에 올라온 게시글은 상태가 NULL이고 썸네일 파일명만 있음
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId AND p.videoFilename IS NOT NULL " +
+           "AND (p.thumbnailStatus = :status OR (p.thumbnailStatus IS NULL AND p.thumbnailFilename IS NOT NULL)) " +
+           "ORDER BY p.id ASC")
+    List<Long> findIdsWithThumbnailStatusAfter(@Param("afterId") Long afterId,
+                                               @Param("status") ThumbnailStatus status,
+                                               Pageable pageable);
+    
+    @Query("SELECT COUNT(p) FROM Post p WHERE p.id > :afterId AND p.videoFilename IS NOT NULL " +
+           "AND (p.thumbnailStatus = :status OR (p.thumbnailStatus IS NULL AND p.thumbnailFilename IS NOT NULL))")
+    long countWithThumbnailStatusAfter(@Param("afterId") Long afterId, @Param("status") ThumbnailStatus status);
+    
+    // 재생성한 썸네일로 교체 (그 사이 동영상이나 썸네일이 바뀌었으면 반영하지 않음)
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.thumbnailFilename = :newFilename " +
+           "WHERE p.id = :id AND p.videoFilename = :videoFilename AND p.thumbnailFilename = :oldFilename " +
+           "AND (p.thumbnailStatus = :status OR p.thumbnailStatus IS NULL)")
+    int replaceThumbnail(@Param("id") Long id,
+                         @Param("videoFilename") String videoFilename,
+                         @Param("oldFilename") String oldFilename,
+                         @Param("newFilename") String newFilename,
+                         @Param("status") ThumbnailStatus status);
+    
+    // 검색 색인용 조회 (작성자 이름도 색인하므로 함께 조회)
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Post> findPageForIndexing(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id IN :ids")
+    List<Post> findForIndexingByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Post p")
+    List<Long> findAllIds();
+    
+    @Query("SELECT p.id FROM Post p WHERE p.updatedAt > :since")
+    List<Long> findIdsUpdatedAfter(@Param("since") LocalDateTime since);
+    
+    // 작성자 이름 변경은 게시글의 updatedAt을 바꾸지 않으므로 따로 조회
+    @Query("SELECT p.id FROM Post p WHERE p.author.fullNameChangedAt > :since")
+    List<Long> findIdsByAuthorRenamedAfter(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT p.id FROM Post p WHERE p.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+    
+    // 사용자가 이 동영상 파일을 사용하는 게시글을 갖고 있는지 (해시로 업로드 생략 시 소유 확인)
+    @Query("SELECT COUNT(p) > 0 FROM Post p WHERE p.author.id = :authorId AND p.videoFilename = :videoFilename")
+    boolean existsByAuthorIdAndVideoFilename(@Param("authorId") Long authorId,
+                                             @Param("videoFilename") String videoFilename);
+    
+    // 주어진 파일명 중 게시글이 참조하는 것 (미사용 파일 정리 시 참조 확인)
+    @Query("SELECT p.videoFilename FROM Post p WHERE p.videoFilename IN :filenames")
+    List<String> findReferencedVideoFilenames(@Param("filenames") Collection<String> filenames);
+    
+    @Query("SELECT p.thumbnailFilename FROM Post p WHERE p.thumbnailFilename IN :filenames")
+    List<String> findReferencedThumbnailFilenames(@Param("filenames") Collection<String> filenames);
+    
+    @Query("SELECT p.hlsPlaylist FROM Post p WHERE p.hlsPlaylist IN :filenames")
+    List<String> findReferencedHlsPlaylists(@Param("filenames") Collection<String> filenames);
+    
+    // HLS 패키지를 사용하는 게시글 (같은 동영상을 공유하면 여러 개)
+    @Query("SELECT p.id FROM Post p WHERE p.hlsPlaylist = :hlsPlaylist ORDER BY p.id")
+    List<Long> findIdsByHlsPlaylist(@Param("hlsPlaylist") String hlsPlaylist);
+    
+    // 메타데이터가 없는 동영상 게시글 (id 순서로 afterId 이후부터 조회)
+    @Query("SELECT p.id FROM Post p WHERE p.id > :afterId AND p.videoFilename IS NOT NULL " +
+           "AND p.videoDurationMillis IS NULL ORDER BY p.id ASC")
+    List<Long> findIdsMissingVideoMetadata(@Param("afterId") Long afterId, Pageable pageable);
+}
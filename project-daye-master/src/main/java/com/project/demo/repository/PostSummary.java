@@ -0,0 +1,49 @@
+package com.project.demo.repository;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.ThumbnailStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 게시글 목록용 요약 (갤러리, 피드, 관리자 목록/대시보드)
+ * - 작성자 이름까지 join 쿼리 한 번으로 읽으므로 게시글마다 작성자(와 EAGER roles)를 따로 조회하지 않음
+ * - 내용은 미리보기용 앞부분만 읽음 (PostRepository.SUMMARY_SELECT)
+ */
+@Getter
+@AllArgsConstructor
+public class PostSummary {
+
+    private final Long id;
+    private final String title;
+    private final String contentPreview;
+    private final String thumbnailFilename;
+    private final ThumbnailStatus thumbnailStatus;
+    private final Long videoDurationMillis;
+    private final Integer videoWidth;
+    private final Integer videoHeight;
+    private final Integer viewCount;
+    private final Integer commentCount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final String authorName;
+
+    // 썸네일 생성 대기/진행 중 여부 (화면에서 placeholder 표시용)
+    public boolean isThumbnailPending() {
+        return thumbnailStatus == ThumbnailStatus.PENDING || thumbnailStatus == ThumbnailStatus.RUNNING;
+    }
+
+    public String getVideoDurationText() {
+        return Post.formatDuration(videoDurationMillis);
+    }
+
+    public String getVideoResolutionText() {
+        return Post.formatResolution(videoWidth, videoHeight);
+    }
+
+    public String getThumbnailPath() {
+        return thumbnailFilename != null ? "/files/thumbnail/" + thumbnailFilename : null;
+    }
+}
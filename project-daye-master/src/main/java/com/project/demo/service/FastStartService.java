@@ -0,0 +1,344 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * MP4/MOV fast start 변환 (moov 박스를 mdat 앞으로 이동)
+ * - moov(인덱스)가 파일 끝에 있으면 브라우저가 끝부분을 먼저 받아야 재생을 시작할 수 있음
+ * - 재인코딩 없이 최상위 박스 순서만 바꾸고 청크 위치(stco/co64)를 moov 크기만큼 보정
+ *   (트랙, 회전 정보 등 나머지 내용은 바이트 단위로 그대로 유지되며 파일 크기도 같음)
+ * - 업로드를 마무리할 때 해시를 계산하기 전에 변환 (해시 이름으로 등록된 파일은 다시 쓰지 않음)
+ *   변환하면서 기록하는 바이트로 새 해시를 함께 계산하므로 변환한 파일을 해시 계산을 위해 다시 읽지 않음
+ */
+@Service
+public class FastStartService {
+
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final long MAX_MOOV_SIZE = 64L * 1024 * 1024; // 메모리에 올려 보정하는 moov 최대 크기
+
+    // 청크 위치 테이블까지 내려가는 경로의 컨테이너 박스
+    private static final List<String> CONTAINER_BOXES = List.of("moov", "trak", "mdia", "minf", "stbl");
+
+    @Autowired
+    private StorageBackend storage;
+
+    /**
+     * 업로드 마무리: 해시 계산 전의 업로드 파일을 필요하면 fast start로 변환
+     * 변환에 실패해도 원본으로 재생할 수 있으므로 업로드는 계속 진행
+     * @return REMUXED면 변환하면서 계산한 새 해시가 담겨 있음 (그 외에는 파일이 그대로이므로 해시 없음)
+     */
+    public PreparedUpload prepareUpload(String uploadedFilename) {
+        MessageDigest digest = newSha256();
+        try {
+            FastStartStatus status = ensureFastStart(uploadedFilename, digest);
+            if (status == FastStartStatus.REMUXED) {
+                System.out.println("fast start 변환 완료: " + uploadedFilename);
+                return new PreparedUpload(status, HexFormat.of().formatHex(digest.digest()));
+            }
+            return new PreparedUpload(status, null);
+        } catch (Exception e) {
+            System.out.println("fast start 변환 실패: " + uploadedFilename + ", 오류: " + e.getMessage());
+            return new PreparedUpload(FastStartStatus.FAILED, null);
+        }
+    }
+
+    /**
+     * 필요하면 fast start로 변환 (아직 해시 이름으로 등록되지 않은 업로드 파일에만 사용)
+     * @return REMUXED(변환함), ALREADY(이미 moov가 앞에 있음), UNSUPPORTED(MP4/MOV 구조가 아니거나 변환할 수 없음)
+     */
+    public FastStartStatus ensureFastStart(String uploadedFilename) throws IOException {
+        return ensureFastStart(uploadedFilename, null);
+    }
+
+    // digest가 있으면 변환된 파일에 기록하는 바이트를 순서대로 반영
+    private FastStartStatus ensureFastStart(String uploadedFilename, MessageDigest digest) throws IOException {
+        List<Box> boxes = readTopLevelBoxes(uploadedFilename);
+        Box moov = find(boxes, "moov");
+        Box mdat = find(boxes, "mdat");
+        if (boxes == null || moov == null || mdat == null) {
+            return FastStartStatus.UNSUPPORTED;
+        }
+        if (moov.offset < mdat.offset) {
+            return FastStartStatus.ALREADY;
+        }
+        if (moov.size > MAX_MOOV_SIZE) {
+            System.out.println("moov 박스가 너무 커서 fast start 변환을 건너뜁니다: " + uploadedFilename);
+            return FastStartStatus.UNSUPPORTED;
+        }
+        return remux(uploadedFilename, boxes, moov, mdat, digest) ? FastStartStatus.REMUXED : FastStartStatus.UNSUPPORTED;
+    }
+
+    /**
+     * 등록된 파일의 상태만 확인 (변환하지 않음)
+     * @return ALREADY, SKIPPED(moov가 뒤에 있지만 등록된 파일이라 변환하지 않음), UNSUPPORTED
+     */
+    public FastStartStatus inspect(String videoFilename) throws IOException {
+        List<Box> boxes = readTopLevelBoxes(videoFilename);
+        Box moov = find(boxes, "moov");
+        Box mdat = find(boxes, "mdat");
+        if (boxes == null || moov == null || mdat == null) {
+            return FastStartStatus.UNSUPPORTED;
+        }
+        return moov.offset < mdat.offset ? FastStartStatus.ALREADY : FastStartStatus.SKIPPED;
+    }
+
+    /**
+     * 최상위 박스 목록 (MP4/MOV 구조로 읽을 수 없으면 null)
+     * 박스 헤더만 읽고 내용은 건너뛰므로 파일 크기와 관계없이 읽기 횟수가 박스 수만큼
+     */
+    private List<Box> readTopLevelBoxes(String videoFilename) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(16);
+        try (SeekableByteChannel channel = storage.openRead(Area.VIDEOS, videoFilename)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                if (fileSize - position < 8) {
+                    return null;
+                }
+                header.clear().limit(8);
+                readFully(channel, position, header);
+                long size = header.getInt(0) & 0xFFFFFFFFL;
+                String type = new String(header.array(), 4, 4, StandardCharsets.ISO_8859_1);
+                int headerSize = 8;
+                if (size == 1) {
+                    if (fileSize - position < 16) {
+                        return null;
+                    }
+                    header.clear().position(8).limit(16);
+                    readFully(channel, position + 8, header);
+                    size = header.getLong(8);
+                    headerSize = 16;
+                } else if (size == 0) {
+                    size = fileSize - position; // 파일 끝까지
+                }
+                if (size < headerSize || size > fileSize - position || !isBoxType(type)) {
+                    return null;
+                }
+                boxes.add(new Box(type, position, size));
+                position += size;
+            }
+        }
+        return boxes;
+    }
+
+    private boolean remux(String videoFilename, List<Box> boxes, Box moov, Box mdat,
+                          MessageDigest digest) throws IOException {
+        ByteBuffer moovData = ByteBuffer.allocate((int) moov.size);
+        try (SeekableByteChannel in = storage.openRead(Area.VIDEOS, videoFilename)) {
+            readFully(in, moov.offset, moovData);
+        }
+        // mdat부터 moov 앞까지의 내용이 moov 크기만큼 뒤로 밀림
+        if (!shiftChunkOffsets(moovData, 0, moovData.capacity(), mdat.offset, moov.offset, moov.size)) {
+            System.out.println("청크 위치를 보정할 수 없어 fast start 변환을 건너뜁니다: " + videoFilename);
+            return false;
+        }
+
+        String tempFilename = videoFilename + "." + UUID.randomUUID() + ".tmp";
+        try {
+            try (SeekableByteChannel in = storage.openRead(Area.VIDEOS, videoFilename);
+                 SeekableByteChannel out = storage.openWrite(Area.VIDEOS, tempFilename, true)) {
+                ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+                // mdat 앞의 박스(ftyp 등) → moov → 나머지 박스 순서로 기록
+                for (Box box : boxes) {
+                    if (box.offset >= mdat.offset) {
+                        break;
+                    }
+                    copyRange(in, out, box.offset, box.size, buffer, digest);
+                }
+                if (digest != null) {
+                    digest.update(moovData.array());
+                }
+                moovData.clear();
+                while (moovData.hasRemaining()) {
+                    out.write(moovData);
+                }
+                for (Box box : boxes) {
+                    if (box.offset >= mdat.offset && box != moov) {
+                        copyRange(in, out, box.offset, box.size, buffer, digest);
+                    }
+                }
+                if (out.size() != in.size()) {
+                    throw new IOException("변환된 파일 크기가 원본과 다릅니다: " + videoFilename);
+                }
+            }
+            storage.move(Area.VIDEOS, tempFilename, videoFilename);
+            return true;
+        } finally {
+            storage.delete(Area.VIDEOS, tempFilename);
+        }
+    }
+
+    /**
+     * moov 안의 stco/co64 항목 중 [shiftFrom, shiftUntil) 범위를 가리키는 위치에 shift를 더함
+     * @return 32비트 위치(stco)가 넘치거나 압축된 moov(cmov)여서 보정할 수 없으면 false
+     */
+    private boolean shiftChunkOffsets(ByteBuffer data, int start, int end, long shiftFrom, long shiftUntil, long shift) {
+        int position = start;
+        while (position + 8 <= end) {
+            long size = data.getInt(position) & 0xFFFFFFFFL;
+            String type = new String(data.array(), position + 4, 4, StandardCharsets.ISO_8859_1);
+            int headerSize = 8;
+            if (size == 1) {
+                if (position + 16 > end) {
+                    return false;
+                }
+                size = data.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerSize || size > end - position) {
+                return false;
+            }
+            int boxEnd = (int) (position + size);
+            int body = position + headerSize;
+
+            if (type.equals("cmov")) {
+                return false;
+            }
+            if (CONTAINER_BOXES.contains(type)) {
+                // moov 자신은 호출한 쪽에서 시작하므로 박스 헤더 다음부터 자식 박스
+                if (!shiftChunkOffsets(data, body, boxEnd, shiftFrom, shiftUntil, shift)) {
+                    return false;
+                }
+            } else if (type.equals("stco") || type.equals("co64")) {
+                boolean wide = type.equals("co64");
+                if (body + 8 > boxEnd) {
+                    return false;
+                }
+                long count = data.getInt(body + 4) & 0xFFFFFFFFL; // version/flags 다음 항목 수
+                int entrySize = wide ? 8 : 4;
+                if (count * entrySize > boxEnd - body - 8) {
+                    return false;
+                }
+                for (int i = 0; i < count; i++) {
+                    int entry = body + 8 + i * entrySize;
+                    long offset = wide ? data.getLong(entry) : data.getInt(entry) & 0xFFFFFFFFL;
+                    if (offset < shiftFrom || offset >= shiftUntil) {
+                        continue;
+                    }
+                    offset += shift;
+                    if (wide) {
+                        data.putLong(entry, offset);
+                    } else if (offset > 0xFFFFFFFFL) {
+                        return false;
+                    } else {
+                        data.putInt(entry, (int) offset);
+                    }
+                }
+            }
+            position = boxEnd;
+        }
+        return true;
+    }
+
+    private void copyRange(SeekableByteChannel in, SeekableByteChannel out, long offset, long length,
+                           ByteBuffer buffer, MessageDigest digest) throws IOException {
+        in.position(offset);
+        long remaining = length;
+        while (remaining > 0) {
+            buffer.clear();
+            if (buffer.capacity() > remaining) {
+                buffer.limit((int) remaining);
+            }
+            int read = in.read(buffer);
+            if (read < 0) {
+                throw new IOException("파일이 예상보다 짧습니다.");
+            }
+            remaining -= read;
+            buffer.flip();
+            if (digest != null) {
+                digest.update(buffer.array(), 0, buffer.limit());
+            }
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private void readFully(SeekableByteChannel channel, long position, ByteBuffer target) throws IOException {
+        channel.position(position);
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new IOException("파일이 예상보다 짧습니다.");
+            }
+        }
+    }
+
+    // 박스 이름은 출력 가능한 ASCII 4글자 (MP4/MOV가 아닌 파일을 잘못 해석하지 않도록)
+    private boolean isBoxType(String type) {
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (c < 0x20 || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Box find(List<Box> boxes, String type) {
+        if (boxes == null) {
+            return null;
+        }
+        for (Box box : boxes) {
+            if (box.type.equals(type)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 업로드 마무리 결과 (sha256은 변환한 경우에만 있음)
+     */
+    public static class PreparedUpload {
+        private final FastStartStatus status;
+        private final String sha256;
+
+        PreparedUpload(FastStartStatus status, String sha256) {
+            this.status = status;
+            this.sha256 = sha256;
+        }
+
+        public FastStartStatus getStatus() { return status; }
+
+        public String getSha256() { return sha256; }
+    }
+
+    // 최상위 박스 위치
+    private static class Box {
+        private final String type;
+        private final long offset;
+        private final long size;
+
+        Box(String type, long offset, long size) {
+            this.type = type;
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+}
@@ -1,146 +1,606 @@
 package com.project.demo.service;
 
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import com.project.demo.storage.StoredFile;
+import jakarta.annotation.PostConstruct;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.Java2DFrameConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.*;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class FileService {
     
-    // static/uploads 경로로 변경 (서버 재시작 후에도 파일 유지)
-    private static final String UPLOAD_DIR = "./project-daye-master/src/main/resources/static/uploads/videos/";
-    private static final String THUMBNAIL_DIR = "./project-daye-master/src/main/resources/static/uploads/thumbnails/";
     private static final long MAX_FILE_SIZE = 2L * 1024 * 1024 * 1024; // 2GB
     private static final String[] ALLOWED_EXTENSIONS = {".mp4", ".webm", ".ogv", ".avi", ".mov", ".mkv"};
+    private static final int UPLOAD_BUFFER_SIZE = 256 * 1024; // 스트리밍 업로드 읽기 버퍼 크기
+    private static final int SNIFF_BYTES = 4 * 1024;          // 컨테이너 형식 확인에 읽는 업로드 앞부분 크기
     
-    public FileService() {
-        createDirectories();
+    // 동영상 컨테이너 형식 (업로드 앞부분의 시그니처로 판별, 형식마다 허용하는 확장자)
+    public enum VideoContainer {
+        MP4(".mp4", ".mov"),        // ISO BMFF / QuickTime
+        MATROSKA(".webm", ".mkv"),  // EBML (DocType webm, matroska)
+        AVI(".avi"),                // RIFF AVI
+        OGG(".ogv");
+        
+        private final List<String> extensions;
+        
+        VideoContainer(String... extensions) {
+            this.extensions = List.of(extensions);
+        }
+        
+        public boolean matchesExtension(String extension) {
+            return extensions.contains(extension.toLowerCase());
+        }
+    }
+    
+    // 파일 맨 앞에 올 수 있는 MP4/MOV 최상위 박스 (ftyp가 없는 오래된 QuickTime 파일 포함)
+    private static final Set<String> LEADING_MP4_BOXES = Set.of("ftyp", "moov", "mdat", "wide", "free", "skip", "pnot");
+    
+    // 썸네일 설정 (크기는 THUMBNAIL_WIDTH/HEIGHT, 인코딩 형식/품질은 writeThumbnailImage에서 변경)
+    // 바꾼 뒤에는 관리자 썸네일 재생성으로 기존 게시글에 반영 (ThumbnailRegenerationService)
+    public static final int THUMBNAIL_WIDTH = 800;
+    private static final int THUMBNAIL_HEIGHT = 450;
+    private static final double THUMBNAIL_SCAN_SECONDS = 10.0; // 후보 프레임을 찾는 앞부분 범위 (초)
+    private static final double GOOD_FRAME_SCORE = 50.0;       // 이 점수 이상이면 더 찾지 않음
+    private static final int LUMA_SAMPLE_STEP = 7;             // 휘도 계산 시 픽셀 샘플링 간격
+    
+    // 기본 썸네일 (프레임을 추출하지 못한 게시글들이 함께 사용, 파일로 저장하지 않고 메모리에서 제공)
+    public static final String DEFAULT_THUMBNAIL_FILENAME = "default.jpg";
+    
+    // 파일 저장 위치는 저장소 구현체가 결정 (media.storage.type, media.storage.root)
+    @Autowired
+    private StorageBackend storage;
+    
+    @Autowired
+    private ThumbnailCacheService thumbnailCacheService;
+    
+    // 썸네일 축소본 너비 (원본 800px 외에 목록 카드 등에서 요청하는 크기)
+    @Value("${media.thumbnail.variant-widths:160,320}")
+    private int[] variantWidths;
+    
+    private byte[] defaultThumbnailBytes;
+    private final Map<Integer, byte[]> defaultThumbnailVariants = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        defaultThumbnailBytes = renderDefaultThumbnail();
     }
     
-    private void createDirectories() {
+    /**
+     * 요청 본문을 임시 파일 없이 최종 경로에 바로 저장 (본문을 한 번만 읽고 한 번만 기록)
+     * 앞부분으로 컨테이너 형식을 먼저 확인하므로 동영상이 아닌 파일은 본문을 더 받지 않고 실패
+     * 기록하면서 크기와 SHA-256을 함께 계산하고, 최대 크기를 넘는 순간 중단하고 파일을 삭제
+     * @param declaredLength 요청의 Content-Length (알 수 없으면 -1)
+     */
+    public StoredVideo storeVideoStream(InputStream in, String originalFilename, long declaredLength) {
+        validateVideoFilename(originalFilename);
+        if (declaredLength > MAX_FILE_SIZE) {
+            throw new RuntimeException("파일 크기가 2GB를 초과합니다.");
+        }
+        
+        InputStream body;
         try {
-            Path videoDir = Paths.get(UPLOAD_DIR);
-            Path thumbnailDir = Paths.get(THUMBNAIL_DIR);
+            body = checkVideoContainer(in, originalFilename);
+        } catch (IOException e) {
+            throw new RuntimeException("파일 업로드에 실패했습니다.", e);
+        }
+        
+        String filename = UUID.randomUUID().toString() + getFileExtension(originalFilename);
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+        long size = 0;
+        boolean stored = false;
+        
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, filename, true)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > MAX_FILE_SIZE) {
+                    throw new RuntimeException("파일 크기가 2GB를 초과합니다.");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
             
-            Files.createDirectories(videoDir);
-            Files.createDirectories(thumbnailDir);
+            if (size == 0) {
+                throw new RuntimeException("파일이 비어있습니다.");
+            }
+            if (declaredLength >= 0 && size != declaredLength) {
+                throw new RuntimeException("업로드가 중간에 끊겼습니다.");
+            }
+            stored = true;
         } catch (IOException e) {
-            throw new RuntimeException("디렉토리 생성에 실패했습니다.", e);
+            throw new RuntimeException("파일 업로드에 실패했습니다.", e);
+        } finally {
+            if (!stored) {
+                deleteFile(filename);
+            }
         }
+        
+        StoredVideo result = new StoredVideo();
+        result.setFilename(filename);
+        result.setSize(size);
+        result.setSha256(HexFormat.of().formatHex(digest.digest()));
+        return result;
     }
     
-    public String uploadVideo(MultipartFile file) {
-        validateVideoFile(file);
-        
-        String originalFilename = file.getOriginalFilename();
-        String extension = getFileExtension(originalFilename);
-        String filename = UUID.randomUUID().toString() + extension;
+    /**
+     * 이어받기 업로드용 빈 파일 생성
+     * 청크를 최종 경로의 파일에 바로 기록하므로 완료 후 다시 복사하지 않음
+     */
+    public String createVideoFile(String originalFilename, long size) {
+        validateVideoFilename(originalFilename);
+        if (size <= 0) {
+            throw new RuntimeException("파일이 비어있습니다.");
+        }
+        if (size > MAX_FILE_SIZE) {
+            throw new RuntimeException("파일 크기가 2GB를 초과합니다.");
+        }
         
+        String filename = UUID.randomUUID().toString() + getFileExtension(originalFilename);
         try {
-            Path filePath = Paths.get(UPLOAD_DIR + filename);
-            Files.copy(file.getInputStream(), filePath);
-            
+            storage.openWrite(Area.VIDEOS, filename, true).close();
             return filename;
         } catch (IOException e) {
             throw new RuntimeException("파일 업로드에 실패했습니다.", e);
         }
     }
     
+    /**
+     * 업로드 스트림 앞부분(최대 4KB)의 시그니처로 동영상 컨테이너 형식 확인
+     * 동영상이 아니거나 확장자와 다른 형식이면 나머지 본문을 읽지 않고 바로 실패
+     * @return 확인에 사용한 앞부분을 되돌려 놓은 스트림 (처음부터 다시 읽음)
+     */
+    public InputStream checkVideoContainer(InputStream in, String originalFilename) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(in, SNIFF_BYTES);
+        byte[] header = new byte[SNIFF_BYTES];
+        int length = 0;
+        int read;
+        while (length < SNIFF_BYTES && (read = pushback.read(header, length, SNIFF_BYTES - length)) != -1) {
+            length += read;
+        }
+        
+        VideoContainer container = detectVideoContainer(header, length);
+        if (container == null) {
+            throw new RuntimeException("동영상 파일이 아닙니다. 파일 내용을 확인해주세요.");
+        }
+        String extension = getFileExtension(originalFilename);
+        if (!container.matchesExtension(extension)) {
+            throw new RuntimeException("파일 내용(" + container.name() + ")이 확장자(" + extension + ")와 일치하지 않습니다.");
+        }
+        
+        pushback.unread(header, 0, length);
+        return pushback;
+    }
+    
+    /**
+     * 파일 앞부분으로 컨테이너 형식 판별 (알 수 없는 형식이면 null)
+     */
+    public VideoContainer detectVideoContainer(byte[] header, int length) {
+        if (length >= 8) {
+            long boxSize = ((header[0] & 0xFFL) << 24) | ((header[1] & 0xFFL) << 16) | ((header[2] & 0xFFL) << 8) | (header[3] & 0xFFL);
+            String boxType = new String(header, 4, 4, StandardCharsets.ISO_8859_1);
+            if (LEADING_MP4_BOXES.contains(boxType) && (boxSize == 0 || boxSize == 1 || boxSize >= 8)) {
+                return VideoContainer.MP4;
+            }
+        }
+        if (length >= 4 && (header[0] & 0xFF) == 0x1A && (header[1] & 0xFF) == 0x45
+                && (header[2] & 0xFF) == 0xDF && (header[3] & 0xFF) == 0xA3) {
+            String docType = readEbmlDocType(header, length);
+            return "webm".equals(docType) || "matroska".equals(docType) ? VideoContainer.MATROSKA : null;
+        }
+        if (length >= 12 && startsWith(header, 0, "RIFF") && startsWith(header, 8, "AVI ")) {
+            return VideoContainer.AVI;
+        }
+        if (length >= 4 && startsWith(header, 0, "OggS")) {
+            return VideoContainer.OGG;
+        }
+        return null;
+    }
+    
+    // EBML 헤더의 DocType 요소(ID 0x4282) 값
+    private String readEbmlDocType(byte[] header, int length) {
+        for (int i = 4; i + 2 < length; i++) {
+            if ((header[i] & 0xFF) != 0x42 || (header[i + 1] & 0xFF) != 0x82) {
+                continue;
+            }
+            // 크기는 가변 길이 정수, DocType은 짧은 문자열이라 1바이트 크기만 처리
+            int size = header[i + 2] & 0xFF;
+            if ((size & 0x80) == 0) {
+                return null;
+            }
+            size &= 0x7F;
+            if (i + 3 + size > length) {
+                return null;
+            }
+            return new String(header, i + 3, size, StandardCharsets.US_ASCII);
+        }
+        return null;
+    }
+    
+    private boolean startsWith(byte[] header, int offset, String signature) {
+        for (int i = 0; i < signature.length(); i++) {
+            if (header[offset + i] != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 요청 본문을 파일의 지정된 위치에 기록 (위치 지정 쓰기라 여러 청크를 동시에 기록할 수 있음)
+     * 본문 크기가 length와 다르면 실패 처리
+     */
+    public void writeVideoChunk(String filename, InputStream in, long position, long length) {
+        byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+        long written = 0;
+        
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, filename, false)) {
+            channel.position(position);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (written + read > length) {
+                    throw new RuntimeException("청크 크기가 올바르지 않습니다.");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    written += channel.write(chunk);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("청크 저장에 실패했습니다.", e);
+        }
+        
+        if (written != length) {
+            throw new RuntimeException("청크 크기가 올바르지 않습니다.");
+        }
+    }
+    
+    /**
+     * 저장된 동영상 파일의 SHA-256 계산 (16진수)
+     */
+    public String computeSha256(String filename) {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = ByteBuffer.allocate(UPLOAD_BUFFER_SIZE);
+        
+        try (SeekableByteChannel channel = storage.openRead(Area.VIDEOS, filename)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("파일 해시 계산에 실패했습니다.", e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * 업로드된 파일을 내용 해시 기반 이름으로 변경 (같은 디렉토리 안의 이동이라 복사하지 않음)
+     * @return 변경된 파일명 (해시 + 확장자)
+     */
+    public String moveToContentAddress(String filename, String sha256) {
+        String contentFilename = sha256 + getFileExtension(filename).toLowerCase();
+        moveVideoFile(filename, contentFilename);
+        return contentFilename;
+    }
+    
+    /**
+     * 동영상 파일 이름 변경 (대상이 있으면 덮어씀)
+     */
+    public void moveVideoFile(String filename, String targetFilename) {
+        if (targetFilename.equals(filename)) {
+            return;
+        }
+        try {
+            storage.move(Area.VIDEOS, filename, targetFilename);
+        } catch (IOException e) {
+            throw new RuntimeException("파일 저장에 실패했습니다.", e);
+        }
+    }
+    
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
     public String generateThumbnail(String videoFilename) {
+        return ingestVideo(videoFilename).getThumbnailFilename();
+    }
+    
+    /**
+     * 동영상 수집 처리 (한 번 열어서 썸네일 생성과 메타데이터 추출을 함께 수행)
+     * 썸네일 추출에 실패하면 공용 기본 썸네일을 사용하며, 메타데이터는 읽을 수 있는 만큼 채움
+     */
+    public IngestResult ingestVideo(String videoFilename) {
         String thumbnailFilename = UUID.randomUUID().toString() + ".jpg";
-        String videoPath = UPLOAD_DIR + videoFilename;
-        String thumbnailPath = THUMBNAIL_DIR + thumbnailFilename;
+        IngestResult result = new IngestResult();
         
-        File videoFile = new File(videoPath);
-        if (!videoFile.exists()) {
-            return createDefaultThumbnail(thumbnailFilename);
+        if (!storage.exists(Area.VIDEOS, videoFilename)) {
+            result.setThumbnailFilename(DEFAULT_THUMBNAIL_FILENAME);
+            return result;
         }
         
         FFmpegFrameGrabber grabber = null;
         try {
             // FFmpegFrameGrabber 설정
-            grabber = new FFmpegFrameGrabber(videoPath);
+            grabber = openGrabber(videoFilename);
             grabber.start();
             
-            // 동영상 정보 출력
+            // 동영상 정보 (게시글에 저장)
+            VideoMetadata metadata = readMetadata(grabber);
+            result.setMetadata(metadata);
+            
             int videoLength = grabber.getLengthInFrames();
-            double frameRate = grabber.getFrameRate();
             int videoWidth = grabber.getImageWidth();
             int videoHeight = grabber.getImageHeight();
             double duration = grabber.getLengthInTime() / 1000000.0; // 마이크로초를 초로 변환
             
             if (videoLength <= 0 || videoWidth <= 0 || videoHeight <= 0) {
-                return createDefaultThumbnail(thumbnailFilename);
+                result.setThumbnailFilename(DEFAULT_THUMBNAIL_FILENAME);
+                return result;
             }
             
-            // 썸네일 추출 시점 계산 (여러 지점 시도)
-            double[] timePoints = {
-                Math.min(1.0, duration * 0.1),    // 10% 지점 또는 1초
-                Math.min(2.0, duration * 0.2),    // 20% 지점 또는 2초
-                Math.min(5.0, duration * 0.3),    // 30% 지점 또는 5초
-                duration * 0.5,                   // 50% 지점 (중간)
-                0.5                               // 0.5초 (마지막 시도)
-            };
+            // 후보 시점들을 앞에서부터 한 번만 순차 디코딩하며 수집 (시점마다 seek하지 않음)
+            double[] candidates = thumbnailCandidateTimes(duration);
             
-            for (double timePoint : timePoints) {
-                if (timePoint >= duration) continue;
+            // 변환기와 이미지 버퍼는 한 번만 생성해서 재사용
+            Java2DFrameConverter converter = new Java2DFrameConverter();
+            FrameSelector selector = new FrameSelector();
+            
+            int next = 0;
+            Frame frame;
+            while (next < candidates.length && (frame = grabber.grabImage()) != null) {
+                if (frame.image == null) {
+                    continue;
+                }
                 
-                // 해당 시점으로 이동
-                long timestampMicros = (long)(timePoint * 1000000);
-                grabber.setTimestamp(timestampMicros);
+                // 아직 다음 후보 시점 전이면 디코딩만 하고 변환하지 않음
+                double frameTime = frame.timestamp / 1000000.0;
+                if (frameTime < candidates[next]) {
+                    continue;
+                }
+                while (next < candidates.length && candidates[next] <= frameTime) {
+                    next++;
+                }
                 
-                // 프레임 추출
-                Frame frame = grabber.grabImage();
+                selector.offer(converter.convert(frame));
+                if (selector.bestScore >= GOOD_FRAME_SCORE) {
+                    break;
+                }
+            }
+            
+            // 앞부분에서 좋은 프레임을 찾지 못했으면 기존처럼 50% 지점도 확인 (긴 동영상은 한 번만 seek)
+            double midPoint = duration * 0.5;
+            if (selector.bestScore < GOOD_FRAME_SCORE && midPoint >= THUMBNAIL_SCAN_SECONDS) {
+                grabber.setTimestamp((long) (midPoint * 1000000));
+                frame = grabber.grabImage();
                 if (frame != null && frame.image != null) {
-                    
-                    // Frame을 BufferedImage로 변환
-                    Java2DFrameConverter converter = new Java2DFrameConverter();
-                    BufferedImage bufferedImage = converter.convert(frame);
-                    
-                    if (bufferedImage != null) {
-                        // 썸네일 크기로 리사이즈 (16:9 비율에 맞춤)
-                        BufferedImage thumbnail = resizeImage(bufferedImage, 800, 450);
-                        
-                        // 파일로 저장
-                        File thumbnailFile = new File(thumbnailPath);
-                        boolean saved = ImageIO.write(thumbnail, "jpg", thumbnailFile);
-                        
-                        if (saved && thumbnailFile.exists() && thumbnailFile.length() > 1000) {
-                            return thumbnailFilename;
-                        }
-                    }
+                    selector.offer(converter.convert(frame));
                 }
             }
             
-            return createDefaultThumbnail(thumbnailFilename);
+            if (selector.bestScore < 0) {
+                result.setThumbnailFilename(DEFAULT_THUMBNAIL_FILENAME);
+                return result;
+            }
+            
+            // 파일로 저장
+            if (writeThumbnailImage(selector.best, thumbnailFilename)) {
+                result.setThumbnailFilename(thumbnailFilename);
+                return result;
+            }
+            
+            result.setThumbnailFilename(DEFAULT_THUMBNAIL_FILENAME);
+            return result;
             
         } catch (Exception e) {
-            return createDefaultThumbnail(thumbnailFilename);
+            result.setThumbnailFilename(DEFAULT_THUMBNAIL_FILENAME);
+            return result;
         } finally {
             // 리소스 정리
-            if (grabber != null) {
-                try {
-                    grabber.stop();
-                    grabber.release();
-                } catch (Exception e) {
-                    // 리소스 해제 실패는 무시
-                }
+            releaseGrabber(grabber);
+        }
+    }
+    
+    /**
+     * 동영상 메타데이터만 조회 (프레임은 디코딩하지 않음, 기존 게시글 백필용)
+     */
+    public VideoMetadata probeVideo(String videoFilename) {
+        if (!storage.exists(Area.VIDEOS, videoFilename)) {
+            throw new RuntimeException("동영상 파일이 존재하지 않습니다: " + videoFilename);
+        }
+        
+        FFmpegFrameGrabber grabber = null;
+        try {
+            grabber = openGrabber(videoFilename);
+            grabber.start();
+            return readMetadata(grabber);
+        } catch (Exception e) {
+            throw new RuntimeException("동영상 정보를 읽을 수 없습니다: " + videoFilename, e);
+        } finally {
+            releaseGrabber(grabber);
+        }
+    }
+    
+    /**
+     * 로컬 파일이면 경로로, 아니면 저장소 스트림으로 FFmpeg 입력을 엶
+     * (moov가 파일 끝에 있는 MP4는 되돌아가 읽어야 하므로 스트림 입력은 되감기 범위를 제한하지 않음,
+     *  읽은 만큼만 버퍼가 늘어나므로 실제 사용량은 파일 크기 이하)
+     */
+    public FFmpegFrameGrabber openGrabber(String videoFilename) throws IOException {
+        Optional<Path> localPath = storage.localPath(Area.VIDEOS, videoFilename);
+        if (localPath.isPresent()) {
+            return new FFmpegFrameGrabber(localPath.get().toFile());
+        }
+        return new FFmpegFrameGrabber(Channels.newInputStream(storage.openRead(Area.VIDEOS, videoFilename)),
+                Integer.MAX_VALUE - 8);
+    }
+    
+    // 썸네일과 축소본을 JPEG로 기록 (모든 썸네일 파일이 이 메서드를 거침)
+    private boolean writeThumbnailImage(BufferedImage image, String thumbnailFilename) throws IOException {
+        boolean written;
+        try (OutputStream out = Channels.newOutputStream(storage.openWrite(Area.THUMBNAILS, thumbnailFilename, true))) {
+            written = ImageIO.write(image, "jpg", out);
+        }
+        if (!written) {
+            deleteThumbnail(thumbnailFilename);
+        }
+        return written;
+    }
+    
+    private VideoMetadata readMetadata(FFmpegFrameGrabber grabber) {
+        VideoMetadata metadata = new VideoMetadata();
+        long lengthInTime = grabber.getLengthInTime();
+        if (lengthInTime > 0) {
+            metadata.setDurationMillis(lengthInTime / 1000);
+        }
+        if (grabber.getImageWidth() > 0 && grabber.getImageHeight() > 0) {
+            metadata.setWidth(grabber.getImageWidth());
+            metadata.setHeight(grabber.getImageHeight());
+        }
+        double frameRate = grabber.getVideoFrameRate() > 0 ? grabber.getVideoFrameRate() : grabber.getFrameRate();
+        if (frameRate > 0 && !Double.isInfinite(frameRate) && !Double.isNaN(frameRate)) {
+            metadata.setFrameRate(Math.round(frameRate * 1000) / 1000.0);
+        }
+        metadata.setCodec(grabber.getVideoCodecName());
+        return metadata;
+    }
+    
+    private void releaseGrabber(FFmpegFrameGrabber grabber) {
+        if (grabber != null) {
+            try {
+                grabber.stop();
+                grabber.release();
+            } catch (Exception e) {
+                // 리소스 해제 실패는 무시
             }
         }
     }
     
-    private BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) {
+    /**
+     * 순차 디코딩으로 확인하는 썸네일 후보 시점 (초, 오름차순)
+     * 순차 디코딩 비용을 제한하기 위해 앞부분 THUMBNAIL_SCAN_SECONDS 이내로 제한
+     * (그보다 뒤인 50% 지점은 ingestVideo에서 필요할 때만 seek해서 확인)
+     */
+    private double[] thumbnailCandidateTimes(double duration) {
+        double scanLimit = Math.min(duration, THUMBNAIL_SCAN_SECONDS);
+        double[] timePoints = {
+            0.5,                              // 0.5초
+            Math.min(1.0, duration * 0.1),    // 10% 지점 또는 1초
+            Math.min(2.0, duration * 0.2),    // 20% 지점 또는 2초
+            Math.min(5.0, duration * 0.3),    // 30% 지점 또는 5초
+            duration * 0.5                    // 50% 지점 (짧은 동영상)
+        };
+        
+        double[] candidates = Arrays.stream(timePoints)
+                .filter(timePoint -> timePoint < scanLimit)
+                .sorted()
+                .distinct()
+                .toArray();
+        
+        // 아주 짧은 동영상은 첫 프레임 사용
+        return candidates.length > 0 ? candidates : new double[]{0.0};
+    }
+    
+    /**
+     * 후보 프레임 중 점수가 가장 높은 프레임 (썸네일 크기의 버퍼 두 개를 번갈아 사용)
+     */
+    private class FrameSelector {
+        private BufferedImage best = new BufferedImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        private BufferedImage scratch = new BufferedImage(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        private double bestScore = -1;
+        
+        // 썸네일 크기로 축소한 뒤 점수 계산, 더 좋은 프레임이면 버퍼 교체
+        void offer(BufferedImage image) {
+            if (image == null) {
+                return;
+            }
+            drawScaled(image, scratch);
+            double score = scoreFrame(scratch);
+            if (score > bestScore) {
+                BufferedImage previous = best;
+                best = scratch;
+                scratch = previous;
+                bestScore = score;
+            }
+        }
+    }
+    
+    /**
+     * 프레임 점수 (휘도 표준편차)
+     * - 단색/검은 화면처럼 변화가 없는 프레임은 낮은 점수
+     * - 너무 어둡거나 밝은 프레임은 감점
+     * 픽셀을 일정 간격으로 샘플링하여 계산 비용을 줄임
+     */
+    private double scoreFrame(BufferedImage image) {
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        long sum = 0;
+        long sumSquares = 0;
+        int samples = 0;
+        
+        for (int i = 0; i < pixels.length; i += LUMA_SAMPLE_STEP) {
+            int rgb = pixels[i];
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            int b = rgb & 0xFF;
+            int luma = (r * 299 + g * 587 + b * 114) / 1000;
+            sum += luma;
+            sumSquares += (long) luma * luma;
+            samples++;
+        }
+        
+        if (samples == 0) {
+            return 0;
+        }
+        
+        double mean = (double) sum / samples;
+        double variance = (double) sumSquares / samples - mean * mean;
+        double score = Math.sqrt(Math.max(variance, 0));
+        
+        if (mean < 24 || mean > 232) {
+            score *= 0.25;
+        }
+        return score;
+    }
+    
+    /**
+     * 원본 이미지를 비율을 유지하며 target 이미지 중앙에 그림 (남는 영역은 검은색)
+     */
+    private void drawScaled(BufferedImage originalImage, BufferedImage target) {
+        int targetWidth = target.getWidth();
+        int targetHeight = target.getHeight();
         int originalWidth = originalImage.getWidth();
         int originalHeight = originalImage.getHeight();
         
@@ -159,8 +619,7 @@ public class FileService {
         }
         
         // 고품질 리사이징
-        BufferedImage resizedImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resizedImage.createGraphics();
+        Graphics2D g2d = target.createGraphics();
         
         // 렌더링 품질 설정
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
@@ -177,11 +636,108 @@ public class FileService {
         g2d.drawImage(originalImage, x, y, newWidth, newHeight, null);
         
         g2d.dispose();
+    }
+    
+    /**
+     * 기본 썸네일 JPEG (시작 시 한 번만 그려서 인코딩)
+     */
+    public byte[] getDefaultThumbnailBytes() {
+        return defaultThumbnailBytes;
+    }
+    
+    /**
+     * 기본 썸네일 축소본 (너비별로 처음 요청될 때 한 번만 만들어 메모리에 보관)
+     */
+    public byte[] getDefaultThumbnailBytes(int width) {
+        if (width >= THUMBNAIL_WIDTH) {
+            return defaultThumbnailBytes;
+        }
+        return defaultThumbnailVariants.computeIfAbsent(width, w -> {
+            try {
+                BufferedImage original = ImageIO.read(new ByteArrayInputStream(defaultThumbnailBytes));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ImageIO.write(scaleToWidth(original, w), "jpg", out);
+                return out.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    public boolean isDefaultThumbnail(String thumbnailFilename) {
+        return DEFAULT_THUMBNAIL_FILENAME.equals(thumbnailFilename);
+    }
+    
+    /**
+     * 요청 너비에 맞는 썸네일 크기 선택 (요청보다 크거나 같은 것 중 가장 작은 축소본, 없으면 원본)
+     */
+    public int resolveThumbnailWidth(Integer requestedWidth) {
+        int resolved = THUMBNAIL_WIDTH;
+        if (requestedWidth == null) {
+            return resolved;
+        }
+        for (int width : variantWidths) {
+            if (width >= requestedWidth && width < resolved) {
+                resolved = width;
+            }
+        }
+        return resolved;
+    }
+    
+    /**
+     * 썸네일 축소본 파일명 (예: {uuid}-w320.jpg)
+     */
+    public String thumbnailVariantFilename(String thumbnailFilename, int width) {
+        int dot = thumbnailFilename.lastIndexOf('.');
+        String base = dot > 0 ? thumbnailFilename.substring(0, dot) : thumbnailFilename;
+        return base + "-w" + width + ".jpg";
+    }
+    
+    /**
+     * 원본 썸네일을 축소해서 저장소에 기록
+     * 임시 파일에 쓴 뒤 이름을 바꾸므로 다른 요청이 쓰는 도중의 파일을 읽지 않음
+     */
+    public void renderThumbnailVariant(String thumbnailFilename, int width) throws IOException {
+        BufferedImage original;
+        try (InputStream in = Channels.newInputStream(storage.openRead(Area.THUMBNAILS, thumbnailFilename))) {
+            original = ImageIO.read(in);
+        }
+        if (original == null) {
+            throw new IOException("썸네일 이미지를 읽을 수 없습니다: " + thumbnailFilename);
+        }
         
-        return resizedImage;
+        String variantFilename = thumbnailVariantFilename(thumbnailFilename, width);
+        String tempFilename = variantFilename + "." + UUID.randomUUID() + ".tmp";
+        try {
+            if (!writeThumbnailImage(scaleToWidth(original, width), tempFilename)) {
+                throw new IOException("썸네일 축소본 저장 실패: " + variantFilename);
+            }
+            storage.move(Area.THUMBNAILS, tempFilename, variantFilename);
+        } finally {
+            storage.delete(Area.THUMBNAILS, tempFilename);
+        }
     }
     
-    private String createDefaultThumbnail(String thumbnailFilename) {
+    /**
+     * 비율을 유지하며 지정 너비로 축소 (절반씩 여러 번 줄여서 한 번에 줄일 때 생기는 계단 현상 방지)
+     */
+    private BufferedImage scaleToWidth(BufferedImage image, int width) {
+        BufferedImage current = image;
+        while (current.getWidth() > width) {
+            int nextWidth = Math.max(width, current.getWidth() / 2);
+            int nextHeight = Math.max(1, (int) Math.round((double) current.getHeight() * nextWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = next.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            g2d.dispose();
+            current = next;
+        }
+        return current;
+    }
+    
+    private byte[] renderDefaultThumbnail() {
         try {
             BufferedImage defaultThumbnail = new BufferedImage(800, 450, BufferedImage.TYPE_INT_RGB);
             Graphics2D g2d = defaultThumbnail.createGraphics();
@@ -229,32 +785,20 @@ public class FileService {
             
             g2d.dispose();
             
-            // 파일 저장
-            File outputFile = new File(THUMBNAIL_DIR + thumbnailFilename);
-            boolean success = ImageIO.write(defaultThumbnail, "jpg", outputFile);
-            
-            if (success && outputFile.exists()) {
-                return thumbnailFilename;
-            } else {
-                throw new RuntimeException("기본 썸네일 파일 저장 실패");
+            // JPEG로 인코딩해서 보관
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!ImageIO.write(defaultThumbnail, "jpg", out)) {
+                throw new RuntimeException("기본 썸네일 인코딩 실패");
             }
+            return out.toByteArray();
             
         } catch (Exception e) {
             throw new RuntimeException("기본 썸네일 생성에 실패했습니다.", e);
         }
     }
     
-    private void validateVideoFile(MultipartFile file) {
-        if (file.isEmpty()) {
-            throw new RuntimeException("파일이 비어있습니다.");
-        }
-        
-        if (file.getSize() > MAX_FILE_SIZE) {
-            throw new RuntimeException("파일 크기가 2GB를 초과합니다.");
-        }
-        
-        String originalFilename = file.getOriginalFilename();
-        if (originalFilename == null) {
+    private void validateVideoFilename(String originalFilename) {
+        if (originalFilename == null || originalFilename.isEmpty()) {
             throw new RuntimeException("파일명이 없습니다.");
         }
         
@@ -284,30 +828,94 @@ public class FileService {
     public void deleteFile(String filename) {
         if (filename != null && !filename.isEmpty()) {
             try {
-                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
+                storage.delete(Area.VIDEOS, filename);
+            } catch (IOException | IllegalArgumentException e) {
                 // 파일 삭제 실패는 무시
             }
         }
     }
     
     public void deleteThumbnail(String thumbnailFilename) {
-        if (thumbnailFilename != null && !thumbnailFilename.isEmpty()) {
+        // 기본 썸네일은 여러 게시글이 공유하므로 삭제하지 않음
+        if (thumbnailFilename != null && !thumbnailFilename.isEmpty() && !isDefaultThumbnail(thumbnailFilename)) {
             try {
-                Path thumbnailPath = Paths.get(THUMBNAIL_DIR + thumbnailFilename);
-                Files.deleteIfExists(thumbnailPath);
-            } catch (IOException e) {
+                storage.delete(Area.THUMBNAILS, thumbnailFilename);
+                thumbnailCacheService.invalidate(thumbnailFilename);
+                // 축소본도 함께 삭제
+                for (int width : variantWidths) {
+                    String variantFilename = thumbnailVariantFilename(thumbnailFilename, width);
+                    storage.delete(Area.THUMBNAILS, variantFilename);
+                    thumbnailCacheService.invalidate(variantFilename);
+                }
+            } catch (IOException | IllegalArgumentException e) {
                 // 썸네일 삭제 실패는 무시
             }
         }
     }
     
-    public File getVideoFile(String filename) {
-        return Paths.get(UPLOAD_DIR + filename).toFile();
+    public StoredFile getVideoFile(String filename) {
+        return storage.file(Area.VIDEOS, filename);
+    }
+    
+    public StoredFile getThumbnailFile(String filename) {
+        return storage.file(Area.THUMBNAILS, filename);
+    }
+    
+    public StoredFile getHlsFile(String filename) {
+        return storage.file(Area.HLS, filename);
+    }
+    
+    public long getMaxFileSize() {
+        return MAX_FILE_SIZE;
+    }
+    
+    // DTO 클래스들
+    public static class VideoMetadata {
+        private Long durationMillis;
+        private Integer width;
+        private Integer height;
+        private Double frameRate;
+        private String codec;
+        
+        public Long getDurationMillis() { return durationMillis; }
+        public void setDurationMillis(Long durationMillis) { this.durationMillis = durationMillis; }
+        
+        public Integer getWidth() { return width; }
+        public void setWidth(Integer width) { this.width = width; }
+        
+        public Integer getHeight() { return height; }
+        public void setHeight(Integer height) { this.height = height; }
+        
+        public Double getFrameRate() { return frameRate; }
+        public void setFrameRate(Double frameRate) { this.frameRate = frameRate; }
+        
+        public String getCodec() { return codec; }
+        public void setCodec(String codec) { this.codec = codec; }
     }
     
-    public File getThumbnailFile(String filename) {
-        return Paths.get(THUMBNAIL_DIR + filename).toFile();
+    public static class IngestResult {
+        private String thumbnailFilename;
+        private VideoMetadata metadata;
+        
+        public String getThumbnailFilename() { return thumbnailFilename; }
+        public void setThumbnailFilename(String thumbnailFilename) { this.thumbnailFilename = thumbnailFilename; }
+        
+        public VideoMetadata getMetadata() { return metadata; }
+        public void setMetadata(VideoMetadata metadata) { this.metadata = metadata; }
+    }
+    
+    public static class StoredVideo {
+        private String filename;
+        private long size;
+        private String sha256;
+        
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+        
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+        
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,521 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.HlsStatus;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.ffmpeg.global.avutil;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * HLS 패키징 백그라운드 작업
+ * - 업로드된 동영상을 여러 화질(해상도/비트레이트)의 H.264/AAC HLS로 변환
+ * - 동영상은 한 번만 디코딩하고 화질별 인코더에 같은 프레임을 전달 (크기 변환은 인코더가 수행)
+ * - 결과는 저장소 HLS 영역에 {동영상 이름}.m3u8(마스터), {동영상 이름}-{화질}.m3u8, {동영상 이름}-{화질}-00001.ts로 저장
+ *   (동영상 파일명이 내용 해시이므로 같은 동영상을 쓰는 게시글은 패키지를 공유)
+ * - 작업 상태는 Post.hlsStatus에 저장 (PENDING → RUNNING → DONE / FAILED)
+ * - 미디어 작업 실행기에 PACKAGING 우선순위로 등록 (새 업로드의 썸네일 작업보다 늦게 실행)
+ */
+@Service
+public class HlsPackagingService {
+
+    private static final String MASTER_EXTENSION = ".m3u8";
+    private static final int AUDIO_BITRATE = 128 * 1000;
+    private static final String WORK_DIR_PREFIX = "hls-";
+    // 인코더가 목표 비트레이트를 넘는 경우와 세그먼트 컨테이너 오버헤드를 감안한 여유 배수
+    private static final double SPACE_MARGIN = 1.5;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StorageBackend storage;
+
+    @Value("${media.hls.enabled:true}")
+    private boolean enabled;
+
+    // 화질 목록 (세로 해상도:비디오 비트레이트 kbps), 원본보다 큰 화질은 만들지 않음
+    @Value("${media.hls.renditions:1080:5000,720:2800,480:1400,360:800}")
+    private String[] renditionSpecs;
+
+    @Value("${media.hls.segment-seconds:6}")
+    private int segmentSeconds;
+
+    // 화질별 세그먼트를 만드는 작업 디렉토리 (java.io.tmpdir는 작은 tmpfs인 경우가 많아 미디어 볼륨 아래에 둠)
+    @Value("${media.hls.work-dir:./media-storage/hls-work}")
+    private String workRoot;
+
+    // 패키징 후에도 작업 디렉토리 볼륨에 남겨둘 여유 공간
+    @Value("${media.hls.min-free-bytes:1073741824}")
+    private long minFreeBytes;
+
+    @Autowired
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    // 큐에 등록되었거나 실행 중인 게시글 (중복 등록 방지)
+    private final Set<Long> queuedPostIds = ConcurrentHashMap.newKeySet();
+
+    // 동영상별 패키징 잠금 (같은 동영상을 쓰는 게시글들이 동시에 패키징하지 않도록)
+    private final ConcurrentHashMap<String, Object> packageLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 서버가 작업 도중 종료된 경우 RUNNING 상태를 PENDING으로 되돌림
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        int recovered = postRepository.updateHlsStatusFrom(HlsStatus.RUNNING, HlsStatus.PENDING);
+        if (recovered > 0) {
+            System.out.println("중단된 HLS 작업 복구: " + recovered + "건");
+        }
+        deleteStaleWorkDirectories();
+        requeuePendingJobs();
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋된 후 HLS 작업 등록
+     */
+    public void enqueueAfterCommit(Long postId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(postId);
+                }
+            });
+        } else {
+            enqueue(postId);
+        }
+    }
+
+    /**
+     * HLS 작업 등록
+     * @return 대기열에 등록되었으면 true, 대기열이 가득 찬 경우 false (PENDING 상태로 남아 나중에 재시도)
+     */
+    public boolean enqueue(Long postId) {
+        if (!enabled || !queuedPostIds.add(postId)) {
+            return true;
+        }
+        if (!mediaTaskExecutor.submit("hls", MediaTaskExecutor.Priority.PACKAGING, () -> process(postId))) {
+            queuedPostIds.remove(postId);
+            System.out.println("HLS 작업 대기열이 가득 찼습니다. 나중에 다시 시도합니다. Post ID: " + postId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * PENDING 상태로 남은 작업들을 주기적으로 다시 등록
+     */
+    @Scheduled(fixedDelayString = "${media.hls.sweep-interval-ms:60000}",
+               initialDelayString = "${media.hls.sweep-interval-ms:60000}")
+    public void requeuePendingJobs() {
+        if (!enabled) {
+            return;
+        }
+        int capacity = mediaTaskExecutor.remainingCapacity(MediaTaskExecutor.Priority.PACKAGING);
+        if (capacity <= 0) {
+            return;
+        }
+        List<Long> pendingIds = postRepository.findIdsByHlsStatus(HlsStatus.PENDING, PageRequest.of(0, capacity));
+        for (Long postId : pendingIds) {
+            if (!enqueue(postId)) {
+                break;
+            }
+        }
+    }
+
+    private void process(Long postId) {
+        String videoFilename = null;
+        try {
+            Post post = postRepository.findById(postId).orElse(null);
+            if (post == null || post.getVideoFilename() == null || post.getVideoFilename().isEmpty()) {
+                return;
+            }
+            videoFilename = post.getVideoFilename();
+
+            if (postRepository.transitionHlsStatus(postId, videoFilename, HlsStatus.PENDING, HlsStatus.RUNNING) == 0) {
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            String masterPlaylist = masterPlaylistFilename(videoFilename);
+            // 같은 동영상을 쓰는 다른 게시글이 이미 패키징한 경우 재사용
+            Object lock = packageLocks.computeIfAbsent(videoFilename, key -> new Object());
+            try {
+                synchronized (lock) {
+                    if (!storage.exists(Area.HLS, masterPlaylist)) {
+                        packageVideo(videoFilename);
+                    }
+                }
+            } finally {
+                packageLocks.remove(videoFilename, lock);
+            }
+
+            if (postRepository.completeHls(postId, videoFilename, masterPlaylist, HlsStatus.DONE) > 0) {
+                System.out.println("HLS 패키징 완료. Post ID: " + postId + ", 소요 시간: "
+                        + (System.currentTimeMillis() - startTime) + "ms");
+            }
+
+        } catch (InsufficientSpaceException e) {
+            // 공간이 생기면 다시 시도하도록 PENDING으로 되돌림 (주기적 재등록이 처리)
+            System.out.println("HLS 패키징 보류. Post ID: " + postId + ", 사유: " + e.getMessage());
+            try {
+                postRepository.transitionHlsStatus(postId, videoFilename, HlsStatus.RUNNING, HlsStatus.PENDING);
+            } catch (Exception ex) {
+                // 상태 저장 실패는 무시 (다음 기동 시 복구)
+            }
+        } catch (Exception e) {
+            System.out.println("HLS 패키징 실패. Post ID: " + postId + ", 오류: " + e.getMessage());
+            try {
+                if (videoFilename != null) {
+                    postRepository.updateHlsStatus(postId, videoFilename, HlsStatus.FAILED);
+                }
+            } catch (Exception ex) {
+                // 상태 저장 실패는 무시 (다음 기동 시 복구)
+            }
+        } finally {
+            queuedPostIds.remove(postId);
+        }
+    }
+
+    /**
+     * 동영상을 HLS 화질 목록으로 변환해 저장소에 기록
+     * FFmpeg HLS 출력은 여러 파일을 경로로 쓰므로 작업 디렉토리(media.hls.work-dir)에 만든 뒤 저장소로 옮기고,
+     * 마스터 플레이리스트를 마지막에 기록 (마스터가 있으면 패키지가 완성된 것)
+     * @throws InsufficientSpaceException 작업 디렉토리에 예상 출력 크기만큼의 여유 공간이 없는 경우
+     */
+    public String packageVideo(String videoFilename) throws IOException {
+        String baseName = baseName(videoFilename);
+        Path root = Path.of(workRoot);
+        Files.createDirectories(root);
+        Path workDir = Files.createTempDirectory(root, WORK_DIR_PREFIX);
+        FFmpegFrameGrabber grabber = null;
+        List<FFmpegFrameRecorder> recorders = new ArrayList<>();
+        try {
+            grabber = fileService.openGrabber(videoFilename);
+            grabber.start();
+
+            int sourceWidth = grabber.getImageWidth();
+            int sourceHeight = grabber.getImageHeight();
+            if (sourceWidth <= 0 || sourceHeight <= 0) {
+                throw new IOException("동영상 해상도를 알 수 없습니다: " + videoFilename);
+            }
+            double frameRate = grabber.getVideoFrameRate() > 0 ? grabber.getVideoFrameRate() : 30;
+            int audioChannels = grabber.getAudioChannels();
+
+            List<Rendition> renditions = selectRenditions(sourceWidth, sourceHeight);
+            checkFreeSpace(workDir, videoFilename, renditions, grabber.getLengthInTime(), audioChannels);
+            for (Rendition rendition : renditions) {
+                FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(
+                        workDir.resolve(rendition.getName() + ".m3u8").toString(),
+                        rendition.getWidth(), rendition.getHeight(), audioChannels);
+                recorder.setFormat("hls");
+                recorder.setOption("hls_time", String.valueOf(segmentSeconds));
+                recorder.setOption("hls_list_size", "0");
+                recorder.setOption("hls_playlist_type", "vod");
+                recorder.setOption("hls_segment_filename",
+                        workDir.resolve(rendition.getName() + "-%05d.ts").toString());
+                recorder.setVideoCodec(avcodec.AV_CODEC_ID_H264);
+                recorder.setPixelFormat(avutil.AV_PIX_FMT_YUV420P);
+                recorder.setFrameRate(frameRate);
+                // 세그먼트 경계마다 키프레임이 오도록 GOP를 세그먼트 길이에 맞춤
+                recorder.setGopSize((int) Math.max(1, Math.round(frameRate * segmentSeconds)));
+                recorder.setVideoBitrate(rendition.getVideoBitrate());
+                if (audioChannels > 0) {
+                    recorder.setAudioCodec(avcodec.AV_CODEC_ID_AAC);
+                    recorder.setAudioBitrate(AUDIO_BITRATE);
+                    recorder.setSampleRate(grabber.getSampleRate());
+                }
+                recorder.start();
+                recorders.add(recorder);
+            }
+
+            // 한 번 디코딩한 프레임을 모든 화질 인코더에 전달
+            Frame frame;
+            while ((frame = grabber.grab()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("HLS 패키징이 중단되었습니다.");
+                }
+                if (frame.image == null && (frame.samples == null || audioChannels <= 0)) {
+                    continue;
+                }
+                for (FFmpegFrameRecorder recorder : recorders) {
+                    recorder.record(frame);
+                }
+            }
+            for (FFmpegFrameRecorder recorder : recorders) {
+                recorder.stop();
+            }
+
+            // 화질별 플레이리스트/세그먼트를 저장소로 옮기고 마스터 플레이리스트를 마지막에 기록
+            StringBuilder master = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+            for (Rendition rendition : renditions) {
+                String playlistName = baseName + "-" + rendition.getName() + ".m3u8";
+                storeRendition(workDir, rendition, baseName, playlistName);
+                long bandwidth = rendition.getVideoBitrate() + (audioChannels > 0 ? AUDIO_BITRATE : 0);
+                master.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(bandwidth)
+                        .append(",RESOLUTION=").append(rendition.getWidth()).append('x').append(rendition.getHeight())
+                        .append('\n').append(playlistName).append('\n');
+            }
+            String masterPlaylist = masterPlaylistFilename(videoFilename);
+            writeText(masterPlaylist + ".tmp", master.toString());
+            storage.move(Area.HLS, masterPlaylist + ".tmp", masterPlaylist);
+            return masterPlaylist;
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("HLS 변환 실패: " + e.getMessage(), e);
+        } finally {
+            for (FFmpegFrameRecorder recorder : recorders) {
+                try {
+                    recorder.release();
+                } catch (Exception e) {
+                    // 리소스 해제 실패는 무시
+                }
+            }
+            if (grabber != null) {
+                try {
+                    grabber.stop();
+                    grabber.release();
+                } catch (Exception e) {
+                    // 리소스 해제 실패는 무시
+                }
+            }
+            deleteDirectory(workDir);
+        }
+    }
+
+    /**
+     * 동영상의 HLS 패키지 삭제 (동영상 파일이 삭제될 때 호출)
+     */
+    public void deletePackage(String videoFilename) {
+        String masterPlaylist = masterPlaylistFilename(videoFilename);
+        try {
+            if (!storage.exists(Area.HLS, masterPlaylist)) {
+                return;
+            }
+            for (String playlist : readUris(masterPlaylist)) {
+                for (String segment : readUris(playlist)) {
+                    storage.delete(Area.HLS, segment);
+                }
+                storage.delete(Area.HLS, playlist);
+            }
+            storage.delete(Area.HLS, masterPlaylist);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("HLS 패키지 삭제 실패: " + masterPlaylist + ", 오류: " + e.getMessage());
+        }
+    }
+
+    public String masterPlaylistFilename(String videoFilename) {
+        return baseName(videoFilename) + MASTER_EXTENSION;
+    }
+
+    /**
+     * 세그먼트 파일명({동영상 이름}-{화질}-00001.ts)이 속한 마스터 플레이리스트 파일명
+     * @return 형식이 맞지 않으면 null
+     */
+    public String masterPlaylistOfSegment(String segmentFilename) {
+        int sequenceDash = segmentFilename.lastIndexOf('-');
+        int renditionDash = sequenceDash > 0 ? segmentFilename.lastIndexOf('-', sequenceDash - 1) : -1;
+        if (renditionDash <= 0) {
+            return null;
+        }
+        return segmentFilename.substring(0, renditionDash) + MASTER_EXTENSION;
+    }
+
+    /**
+     * 원본 이하의 화질만 선택 (원본이 가장 낮은 화질보다 작으면 원본 크기 그대로 한 개)
+     */
+    private List<Rendition> selectRenditions(int sourceWidth, int sourceHeight) {
+        List<Rendition> all = new ArrayList<>();
+        for (String spec : renditionSpecs) {
+            String[] parts = spec.trim().split(":");
+            all.add(new Rendition(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()) * 1000));
+        }
+        all.sort(Comparator.comparingInt(Rendition::getHeight).reversed());
+
+        List<Rendition> selected = new ArrayList<>();
+        for (Rendition rendition : all) {
+            if (rendition.getHeight() <= sourceHeight) {
+                selected.add(rendition);
+            }
+        }
+        if (selected.isEmpty()) {
+            Rendition lowest = all.get(all.size() - 1);
+            selected.add(new Rendition(even(sourceHeight), lowest.getVideoBitrate()));
+        }
+        for (Rendition rendition : selected) {
+            rendition.setWidth(even((int) Math.round((double) sourceWidth * rendition.getHeight() / sourceHeight)));
+        }
+        return selected;
+    }
+
+    private void storeRendition(Path workDir, Rendition rendition, String baseName, String playlistName) throws IOException {
+        List<String> lines = Files.readAllLines(workDir.resolve(rendition.getName() + ".m3u8"), StandardCharsets.UTF_8);
+        StringBuilder playlist = new StringBuilder();
+        for (String line : lines) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                // 세그먼트 파일을 저장소 이름으로 옮기고 플레이리스트의 주소도 바꿈
+                String segmentName = baseName + "-" + line.trim();
+                Path segment = workDir.resolve(line.trim());
+                try (InputStream in = Files.newInputStream(segment);
+                     OutputStream out = openReplacing(segmentName)) {
+                    in.transferTo(out);
+                }
+                // 저장소가 같은 볼륨에 있으면 옮기는 동안 두 벌이 쌓이므로 옮긴 세그먼트는 바로 삭제
+                Files.deleteIfExists(segment);
+                line = segmentName;
+            }
+            playlist.append(line).append('\n');
+        }
+        writeText(playlistName, playlist.toString());
+    }
+
+    private List<String> readUris(String playlistName) throws IOException {
+        List<String> uris = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Channels.newInputStream(storage.openRead(Area.HLS, playlistName)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    uris.add(line.trim());
+                }
+            }
+        }
+        return uris;
+    }
+
+    private void writeText(String name, String text) throws IOException {
+        try (OutputStream out = openReplacing(name)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // 이전에 실패한 작업이 남긴 파일이 있으면 지우고 새로 씀
+    private OutputStream openReplacing(String name) throws IOException {
+        storage.delete(Area.HLS, name);
+        return Channels.newOutputStream(storage.openWrite(Area.HLS, name, true));
+    }
+
+    private String baseName(String videoFilename) {
+        int dot = videoFilename.lastIndexOf('.');
+        return dot > 0 ? videoFilename.substring(0, dot) : videoFilename;
+    }
+
+    private int even(int value) {
+        return Math.max(2, value - (value % 2));
+    }
+
+    /**
+     * 예상 출력 크기(화질별 비트레이트 × 재생 시간, 인코더 초과분 여유 포함)만큼의 공간이 작업 디렉토리에 있는지 확인
+     * 재생 시간을 알 수 없으면 원본 크기 × 화질 수로 추정
+     */
+    private void checkFreeSpace(Path workDir, String videoFilename, List<Rendition> renditions,
+                                long lengthMicros, int audioChannels) throws IOException {
+        long required;
+        if (lengthMicros > 0) {
+            long bitsPerSecond = 0;
+            for (Rendition rendition : renditions) {
+                bitsPerSecond += rendition.getVideoBitrate() + (audioChannels > 0 ? AUDIO_BITRATE : 0);
+            }
+            required = (long) (bitsPerSecond / 8.0 * lengthMicros / 1_000_000 * SPACE_MARGIN);
+        } else {
+            required = storage.size(Area.VIDEOS, videoFilename) * renditions.size();
+        }
+        long usable = Files.getFileStore(workDir).getUsableSpace();
+        if (usable - minFreeBytes < required) {
+            throw new InsufficientSpaceException("HLS 작업 디렉토리 여유 공간이 부족합니다. 필요: "
+                    + required + " bytes, 사용 가능: " + usable + " bytes, 최소 여유: " + minFreeBytes + " bytes");
+        }
+    }
+
+    /**
+     * 이전 실행이 작업 도중 종료되며 남긴 작업 디렉토리 삭제 (기동 시 아직 실행 중인 작업이 없을 때 호출)
+     */
+    private void deleteStaleWorkDirectories() {
+        Path root = Path.of(workRoot);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> directories = Files.list(root)) {
+            directories.filter(path -> path.getFileName().toString().startsWith(WORK_DIR_PREFIX))
+                    .forEach(this::deleteDirectory);
+        } catch (IOException e) {
+            System.out.println("HLS 작업 디렉토리 정리 실패: " + e.getMessage());
+        }
+    }
+
+    private void deleteDirectory(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // 임시 파일 삭제 실패는 무시
+                }
+            });
+        } catch (IOException e) {
+            // 임시 디렉토리 삭제 실패는 무시
+        }
+    }
+
+    /**
+     * 작업 디렉토리 공간 부족 (실패로 기록하지 않고 나중에 재시도)
+     */
+    public static class InsufficientSpaceException extends IOException {
+        public InsufficientSpaceException(String message) {
+            super(message);
+        }
+    }
+
+    // DTO 클래스들
+    public static class Rendition {
+        private final int height;
+        private final int videoBitrate;
+        private int width;
+
+        public Rendition(int height, int videoBitrate) {
+            this.height = height;
+            this.videoBitrate = videoBitrate;
+        }
+
+        public String getName() { return height + "p"; }
+        public int getHeight() { return height; }
+        public int getVideoBitrate() { return videoBitrate; }
+        public int getWidth() { return width; }
+        public void setWidth(int width) { this.width = width; }
+    }
+}
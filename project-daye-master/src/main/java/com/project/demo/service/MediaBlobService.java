@@ -0,0 +1,165 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.MediaBlob;
+import com.project.demo.repository.MediaBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * 내용 해시 기준 동영상 저장소
+ * - 같은 내용의 동영상은 파일 하나만 두고 참조 수(refCount)로 공유
+ * - 게시글과 아직 게시글에 연결되지 않은 업로드가 각각 참조 1개를 가짐
+ *   (업로드의 참조는 메모리에만 있어 재시작하면 반환되지 않으므로 MediaGarbageCollectionService가 정리)
+ * - 마지막 참조가 반환되면 파일 삭제
+ * 참조 수 변경은 호출한 쪽 트랜잭션과 분리해서 바로 커밋 (파일 작업과 맞추기 위해)
+ */
+@Service
+public class MediaBlobService {
+    
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+    
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private HlsPackagingService hlsPackagingService;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public MediaBlobService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * 업로드된 파일을 저장소에 등록하고 참조 1개 획득
+     * 같은 내용이 이미 있으면 새로 올라온 파일은 지우고 기존 파일을 공유
+     * (기존 파일이 사라졌으면 올라온 파일을 기존 파일명으로 옮겨서 복원)
+     * @return 게시글에 저장할 파일명
+     */
+    public synchronized String store(String uploadedFilename, String sha256, long size) {
+        Optional<MediaBlob> existing = mediaBlobRepository.findBySha256(sha256);
+        if (existing.isPresent()) {
+            MediaBlob blob = existing.get();
+            if (fileService.getVideoFile(blob.getFilename()).exists()) {
+                if (!uploadedFilename.equals(blob.getFilename())) {
+                    fileService.deleteFile(uploadedFilename);
+                }
+                System.out.println("중복 동영상 업로드, 기존 파일 공유: " + blob.getFilename());
+            } else {
+                // 파일만 사라진 경우: 기존 참조(게시글)는 그대로 두고 올라온 파일로 기존 파일명을 다시 채움
+                fileService.moveVideoFile(uploadedFilename, blob.getFilename());
+                System.out.println("사라진 동영상 파일 복원: " + blob.getFilename());
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    mediaBlobRepository.acquire(blob.getId(), LocalDateTime.now()));
+            return blob.getFilename();
+        }
+        
+        String filename = fileService.moveToContentAddress(uploadedFilename, sha256);
+        transactionTemplate.executeWithoutResult(status -> {
+            MediaBlob blob = new MediaBlob();
+            blob.setSha256(sha256);
+            blob.setFilename(filename);
+            blob.setSize(size);
+            blob.setRefCount(1);
+            mediaBlobRepository.save(blob);
+        });
+        return filename;
+    }
+    
+    /**
+     * 업로드 전 확인: 같은 해시의 동영상이 이미 있고 호출한 쪽이 사용할 수 있는 파일이면
+     * 참조 1개를 획득하고 반환 (아니면 null)
+     * @param allowed 파일명을 받아 사용 가능 여부 판단 (참조 획득과 같은 잠금 안에서 확인)
+     */
+    public synchronized MediaBlob acquireExisting(String sha256, Predicate<String> allowed) {
+        MediaBlob blob = mediaBlobRepository.findBySha256(sha256).orElse(null);
+        if (blob == null || blob.getRefCount() <= 0 || !allowed.test(blob.getFilename())
+                || !fileService.getVideoFile(blob.getFilename()).exists()) {
+            return null;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                mediaBlobRepository.acquire(blob.getId(), LocalDateTime.now()));
+        return blob;
+    }
+    
+    /**
+     * 참조 1개 반환, 마지막 참조였으면 파일과 HLS 패키지 삭제
+     * 해시 저장소 도입 전에 올라온 파일(저장소 정보 없음)은 바로 삭제
+     */
+    public synchronized void release(String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return;
+        }
+        Optional<MediaBlob> found = mediaBlobRepository.findByFilename(filename);
+        if (found.isEmpty()) {
+            fileService.deleteFile(filename);
+            hlsPackagingService.deletePackage(filename);
+            return;
+        }
+        
+        MediaBlob blob = found.get();
+        boolean lastReference = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            mediaBlobRepository.adjustRefCount(blob.getId(), -1);
+            MediaBlob current = mediaBlobRepository.findById(blob.getId()).orElse(null);
+            if (current != null && current.getRefCount() <= 0) {
+                mediaBlobRepository.delete(current);
+                return true;
+            }
+            return false;
+        }));
+        if (lastReference) {
+            fileService.deleteFile(filename);
+            hlsPackagingService.deletePackage(filename);
+            System.out.println("더 이상 사용되지 않는 동영상 삭제: " + filename);
+        }
+    }
+    
+    /**
+     * 현재 트랜잭션이 커밋된 후 참조 반환 (롤백되면 게시글이 계속 파일을 사용하므로 반환하지 않음)
+     */
+    public void releaseAfterCommit(String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(filename);
+                }
+            });
+        } else {
+            release(filename);
+        }
+    }
+    
+    /**
+     * 현재 트랜잭션이 롤백되면 참조 반환 (게시글에 연결하려던 업로드가 저장되지 않은 경우)
+     */
+    public void releaseOnRollback(String filename) {
+        if (filename == null || filename.isEmpty()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(filename);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,329 @@
+package com.project.demo.service;
+
+import com.project.demo.repository.MediaBlobRepository;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 참조되지 않는 미디어 파일 정리
+ * - 저장소 목록을 페이지 단위로 나눠 여러 스레드에서 DB 참조(posts, media_blobs)와 비교
+ * - media_blobs 행은 게시글이 참조하거나 staged-ttl 안에 참조를 획득한 경우에만 참조로 봄
+ *   (게시글에 연결되지 않은 업로드의 참조는 메모리에만 있어 재시작하면 반환되지 않음, 격리 파일을 지울 때 행도 삭제)
+ * - 참조되지 않고 min-age보다 오래된 파일은 바로 지우지 않고 격리 영역(QUARANTINE)으로 이동
+ * - 격리 후 grace-period가 지난 파일을 삭제, 그 사이 다시 참조된 파일은 원래 위치로 복구
+ * 격리 파일명: {영역}.{격리 시각 ms}.{원래 파일명}
+ */
+@Service
+public class MediaGarbageCollectionService {
+
+    private static final List<Area> SCANNED_AREAS = List.of(Area.VIDEOS, Area.THUMBNAILS, Area.HLS);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // 썸네일 축소본({원본}-w320.jpg)과 HLS 화질별 파일({동영상}-720p.m3u8, {동영상}-720p-00001.ts)
+    private static final Pattern THUMBNAIL_VARIANT = Pattern.compile("(.+)-w\\d+(\\.jpg)");
+    private static final Pattern HLS_RENDITION = Pattern.compile("(.+)-\\d+p(?:-\\d+\\.ts|\\.m3u8)");
+    private static final Pattern QUARANTINE_NAME = Pattern.compile("([a-z]+)\\.(\\d+)\\.(.+)");
+
+    @Autowired
+    private StorageBackend storage;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private VideoUploadService videoUploadService;
+
+    @Autowired
+    private ThumbnailCacheService thumbnailCacheService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${media.gc.enabled:true}")
+    private boolean enabled;
+
+    // 이 시간보다 최근에 수정된 파일은 참조가 없어도 건드리지 않음 (업로드/패키징 중인 파일 보호)
+    @Value("${media.gc.min-age-ms:172800000}")
+    private long minAgeMillis;
+
+    // 격리 후 삭제까지 기다리는 시간
+    @Value("${media.gc.grace-period-ms:604800000}")
+    private long gracePeriodMillis;
+
+    @Value("${media.gc.page-size:500}")
+    private int pageSize;
+
+    @Value("${media.gc.scan-threads:2}")
+    private int scanThreads;
+
+    // 게시글에 연결되지 않은 업로드가 참조를 유지하는 시간 (VideoUploadService와 같은 설정)
+    @Value("${media.upload.staged-ttl-ms:3600000}")
+    private long stagedTtlMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong quarantined = new AtomicLong();
+    private final AtomicLong quarantinedBytes = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @Scheduled(fixedDelayString = "${media.gc.interval-ms:21600000}",
+               initialDelayString = "${media.gc.interval-ms:21600000}")
+    public void runScheduled() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * 정리 시작 (이미 실행 중이면 false)
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        scanned.set(0);
+        quarantined.set(0);
+        quarantinedBytes.set(0);
+        restored.set(0);
+        purged.set(0);
+        reclaimedBytes.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Thread thread = new Thread(this::run, "media-gc");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("scanned", scanned.get());
+        status.put("quarantined", quarantined.get());
+        status.put("quarantinedBytes", quarantinedBytes.get());
+        status.put("restored", restored.get());
+        status.put("purged", purged.get());
+        status.put("reclaimedBytes", reclaimedBytes.get());
+        status.put("failed", failed.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    private void run() {
+        try {
+            purgeQuarantine();
+            scanAreas();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("미사용 파일 정리 중단: " + e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            System.out.println("미사용 파일 정리 완료. 검사: " + scanned.get() + "건, 격리: " + quarantined.get()
+                    + "건 (" + quarantinedBytes.get() + " bytes), 복구: " + restored.get() + "건, 삭제: "
+                    + purged.get() + "건 (" + reclaimedBytes.get() + " bytes 확보), 실패: " + failed.get() + "건");
+        }
+    }
+
+    /**
+     * 영역별 목록을 페이지로 나눠 병렬로 검사하고 참조되지 않는 파일을 격리
+     */
+    private void scanAreas() throws IOException, InterruptedException {
+        long modifiedBefore = System.currentTimeMillis() - minAgeMillis;
+        // 목록을 읽기 전에 가져와야 검사 도중 시작된 업로드도 min-age로 보호됨
+        Set<String> activeUploads = videoUploadService.getActiveFilenames();
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ExecutorService pool = Executors.newFixedThreadPool(scanThreads, runnable -> {
+            Thread thread = new Thread(runnable, "media-gc-scan-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Area area : SCANNED_AREAS) {
+                List<String> names = storage.list(area);
+                for (int from = 0; from < names.size(); from += pageSize) {
+                    List<String> page = names.subList(from, Math.min(from + pageSize, names.size()));
+                    pool.execute(() -> scanPage(area, page, modifiedBefore, activeUploads));
+                }
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.HOURS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void scanPage(Area area, List<String> names, long modifiedBefore, Set<String> activeUploads) {
+        try {
+            Set<String> references = new HashSet<>();
+            for (String name : names) {
+                String reference = referenceName(area, name);
+                if (reference != null) {
+                    references.add(reference);
+                }
+            }
+            Set<String> referenced = findReferenced(area, references);
+
+            for (String name : names) {
+                scanned.incrementAndGet();
+                String reference = referenceName(area, name);
+                if (reference != null && (referenced.contains(reference) || activeUploads.contains(reference))) {
+                    continue;
+                }
+                try {
+                    if (storage.lastModified(area, name) > modifiedBefore) {
+                        continue;
+                    }
+                    quarantine(area, name);
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.out.println("미사용 파일 격리 실패: " + area.getDirectoryName() + "/" + name + ", 오류: " + e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            failed.addAndGet(names.size());
+            System.out.println("미사용 파일 검사 실패 (" + area.getDirectoryName() + "): " + e.getMessage());
+        }
+    }
+
+    private void quarantine(Area area, String name) throws IOException {
+        long size = storage.size(area, name);
+        String target = area.getDirectoryName() + "." + System.currentTimeMillis() + "." + name;
+        storage.move(area, name, Area.QUARANTINE, target);
+        if (area == Area.THUMBNAILS) {
+            thumbnailCacheService.invalidate(referenceName(area, name));
+            thumbnailCacheService.invalidate(name);
+        }
+        quarantined.incrementAndGet();
+        quarantinedBytes.addAndGet(size);
+        meterRegistry.counter("media.gc.quarantined.bytes", "area", area.getDirectoryName()).increment(size);
+        System.out.println("미사용 파일 격리: " + area.getDirectoryName() + "/" + name + " (" + size + " bytes)");
+    }
+
+    /**
+     * 유예 기간이 지난 격리 파일 삭제 (그 사이 다시 참조된 파일은 원래 영역으로 복구)
+     */
+    private void purgeQuarantine() throws IOException {
+        long quarantinedBefore = System.currentTimeMillis() - gracePeriodMillis;
+        for (String name : storage.list(Area.QUARANTINE)) {
+            Matcher matcher = QUARANTINE_NAME.matcher(name);
+            Area area = matcher.matches() ? findArea(matcher.group(1)) : null;
+            if (area == null || Long.parseLong(matcher.group(2)) > quarantinedBefore) {
+                continue;
+            }
+            String original = matcher.group(3);
+            try {
+                String reference = referenceName(area, original);
+                if (reference != null && !findReferenced(area, Set.of(reference)).isEmpty()) {
+                    if (!storage.exists(area, original)) {
+                        storage.move(Area.QUARANTINE, name, area, original);
+                    } else {
+                        storage.delete(Area.QUARANTINE, name);
+                    }
+                    restored.incrementAndGet();
+                    System.out.println("격리 파일 복구 (다시 참조됨): " + area.getDirectoryName() + "/" + original);
+                    continue;
+                }
+                long size = storage.size(Area.QUARANTINE, name);
+                if (storage.delete(Area.QUARANTINE, name)) {
+                    // 반환되지 못한 업로드 참조만 남은 행 정리 (그 사이 같은 내용이 다시 올라와 파일이 복원됐으면 유지)
+                    if (area == Area.VIDEOS && !storage.exists(area, original)) {
+                        mediaBlobRepository.deleteOrphan(original, stagedAcquiredAfter());
+                    }
+                    purged.incrementAndGet();
+                    reclaimedBytes.addAndGet(size);
+                    meterRegistry.counter("media.gc.reclaimed.bytes", "area", area.getDirectoryName()).increment(size);
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                System.out.println("격리 파일 삭제 실패: " + name + ", 오류: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 파일이 살아 있으려면 DB에 있어야 하는 이름 (임시 파일은 참조될 수 없으므로 null)
+     */
+    private String referenceName(Area area, String name) {
+        if (name.endsWith(TEMP_SUFFIX)) {
+            return null;
+        }
+        if (area == Area.THUMBNAILS) {
+            Matcher variant = THUMBNAIL_VARIANT.matcher(name);
+            return variant.matches() ? variant.group(1) + variant.group(2) : name;
+        }
+        if (area == Area.HLS) {
+            Matcher rendition = HLS_RENDITION.matcher(name);
+            return rendition.matches() ? rendition.group(1) + ".m3u8" : name;
+        }
+        return name;
+    }
+
+    private Set<String> findReferenced(Area area, Collection<String> names) {
+        Set<String> referenced = new HashSet<>();
+        if (names.isEmpty()) {
+            return referenced;
+        }
+        switch (area) {
+            case VIDEOS -> {
+                referenced.addAll(postRepository.findReferencedVideoFilenames(names));
+                referenced.addAll(mediaBlobRepository.findRecentlyAcquiredFilenames(names, stagedAcquiredAfter()));
+            }
+            case THUMBNAILS -> referenced.addAll(postRepository.findReferencedThumbnailFilenames(names));
+            case HLS -> referenced.addAll(postRepository.findReferencedHlsPlaylists(names));
+            default -> {
+            }
+        }
+        return referenced;
+    }
+
+    private LocalDateTime stagedAcquiredAfter() {
+        return LocalDateTime.now().minus(Duration.ofMillis(stagedTtlMillis));
+    }
+
+    private Area findArea(String directoryName) {
+        for (Area area : SCANNED_AREAS) {
+            if (area.getDirectoryName().equals(directoryName)) {
+                return area;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,308 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 미디어 작업 실행기 (FFmpeg 디코딩/인코딩 작업이 함께 사용하는 작업자 스레드)
+ * - 동시에 실행하는 미디어 작업 수를 작업자 수로 제한 (업로드가 몰려도 CPU/네이티브 메모리 사용량이 일정)
+ * - 대기 작업은 우선순위 순서로 실행하고 같은 우선순위 안에서는 등록 순서대로 실행
+ * - 우선순위별 대기열이 가득 차면 등록을 거부 (호출한 쪽이 나중에 다시 등록하거나 대기 후 재시도)
+ * - 낮은 우선순위 작업은 동시 실행 수를 따로 제한해서 새 업로드 작업이 실행될 작업자를 남겨 둠
+ */
+@Service
+public class MediaTaskExecutor {
+
+    // 우선순위 (앞에 있을수록 먼저 실행)
+    public enum Priority { UPLOAD, PACKAGING, BACKFILL }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${media.executor.workers:4}")
+    private int workerCount;
+
+    @Value("${media.executor.queue-capacity.upload:100}")
+    private int uploadQueueCapacity;
+
+    @Value("${media.executor.queue-capacity.packaging:50}")
+    private int packagingQueueCapacity;
+
+    @Value("${media.executor.queue-capacity.backfill:20}")
+    private int backfillQueueCapacity;
+
+    // 우선순위별 동시 실행 한도 (0 이하면 작업자 수)
+    @Value("${media.executor.max-running.packaging:1}")
+    private int packagingMaxRunning;
+
+    @Value("${media.executor.max-running.backfill:2}")
+    private int backfillMaxRunning;
+
+    // 등록이 거부되었을 때 다시 시도하기 전 대기 시간 (거부될 때마다 두 배, 최대값까지)
+    @Value("${media.executor.backoff-initial-ms:500}")
+    private long backoffInitialMs;
+
+    @Value("${media.executor.backoff-max-ms:30000}")
+    private long backoffMaxMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition taskAvailable = lock.newCondition();
+    private final Map<Priority, ArrayDeque<MediaTask>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Integer> queueCapacities = new EnumMap<>(Priority.class);
+    private final Map<Priority, Integer> maxRunning = new EnumMap<>(Priority.class);
+    private final Map<Priority, Integer> running = new EnumMap<>(Priority.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private boolean shuttingDown;
+
+    @PostConstruct
+    public void init() {
+        queueCapacities.put(Priority.UPLOAD, uploadQueueCapacity);
+        queueCapacities.put(Priority.PACKAGING, packagingQueueCapacity);
+        queueCapacities.put(Priority.BACKFILL, backfillQueueCapacity);
+        maxRunning.put(Priority.UPLOAD, workerCount);
+        maxRunning.put(Priority.PACKAGING, packagingMaxRunning > 0 ? packagingMaxRunning : workerCount);
+        maxRunning.put(Priority.BACKFILL, backfillMaxRunning > 0 ? backfillMaxRunning : workerCount);
+
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            running.put(priority, 0);
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("media.executor.queue.depth", this, executor -> executor.getQueueSize(priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            Gauge.builder("media.executor.running", this, executor -> executor.getRunningCount(priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+        }
+
+        for (int i = 1; i <= workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "media-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * 실행 중인 작업은 끝날 때까지 기다리고 (최대 30초) 대기 중인 작업은 버림
+     * (게시글 작업은 상태가 DB에 남아 있어 다음 기동 시 다시 등록됨)
+     */
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            shuttingDown = true;
+            queues.values().forEach(ArrayDeque::clear);
+            taskAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        try {
+            for (Thread worker : workers) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    worker.join(remaining);
+                }
+                worker.interrupt();
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 작업 등록
+     * @param kind 작업 종류 (지표 태그와 로그에 사용)
+     * @return 등록되었으면 true, 대기열이 가득 찼거나 종료 중이면 false
+     */
+    public boolean submit(String kind, Priority priority, Runnable task) {
+        lock.lock();
+        try {
+            ArrayDeque<MediaTask> queue = queues.get(priority);
+            if (shuttingDown || queue.size() >= queueCapacities.get(priority)) {
+                meterRegistry.counter("media.executor.rejected",
+                        "kind", kind, "priority", priority.name().toLowerCase()).increment();
+                return false;
+            }
+            queue.addLast(new MediaTask(kind, priority, task, System.nanoTime()));
+            taskAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 등록될 때까지 대기하며 재시도 (대기 시간은 거부될 때마다 두 배로 늘어남, 백필처럼 순서대로 많은 작업을 넣는 경우용)
+     * @return 등록되었으면 true, 종료 중이면 false
+     */
+    public boolean submitWithBackoff(String kind, Priority priority, Runnable task) throws InterruptedException {
+        long backoffMs = backoffInitialMs;
+        while (!submit(kind, priority, task)) {
+            if (isShuttingDown()) {
+                return false;
+            }
+            Thread.sleep(backoffMs);
+            backoffMs = Math.min(backoffMs * 2, backoffMaxMs);
+        }
+        return true;
+    }
+
+    public int remainingCapacity(Priority priority) {
+        lock.lock();
+        try {
+            return Math.max(0, queueCapacities.get(priority) - queues.get(priority).size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueSize(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunningCount(Priority priority) {
+        lock.lock();
+        try {
+            return running.get(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("workers", workerCount);
+        lock.lock();
+        try {
+            for (Priority priority : Priority.values()) {
+                Map<String, Object> detail = new LinkedHashMap<>();
+                detail.put("queued", queues.get(priority).size());
+                detail.put("queueCapacity", queueCapacities.get(priority));
+                detail.put("running", running.get(priority));
+                detail.put("maxRunning", maxRunning.get(priority));
+                status.put(priority.name().toLowerCase(), detail);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    private boolean isShuttingDown() {
+        lock.lock();
+        try {
+            return shuttingDown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            MediaTask task;
+            lock.lock();
+            try {
+                while ((task = nextTask()) == null) {
+                    if (shuttingDown) {
+                        return;
+                    }
+                    taskAvailable.await();
+                }
+                running.merge(task.priority, 1, Integer::sum);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                execute(task);
+            } finally {
+                lock.lock();
+                try {
+                    running.merge(task.priority, -1, Integer::sum);
+                    // 실행 한도 때문에 기다리던 같은 우선순위 작업이 있을 수 있음
+                    taskAvailable.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // 실행 한도에 여유가 있는 가장 높은 우선순위의 작업 (lock을 잡은 상태에서 호출)
+    private MediaTask nextTask() {
+        for (Priority priority : Priority.values()) {
+            ArrayDeque<MediaTask> queue = queues.get(priority);
+            if (!queue.isEmpty() && running.get(priority) < maxRunning.get(priority)) {
+                return queue.pollFirst();
+            }
+        }
+        return null;
+    }
+
+    private void execute(MediaTask task) {
+        String priorityTag = task.priority.name().toLowerCase();
+        long startNanos = System.nanoTime();
+        Timer.builder("media.executor.wait")
+                .tag("kind", task.kind)
+                .tag("priority", priorityTag)
+                .register(meterRegistry)
+                .record(startNanos - task.submittedNanos, TimeUnit.NANOSECONDS);
+
+        String outcome = "success";
+        try {
+            task.runnable.run();
+        } catch (Throwable e) {
+            // 네이티브 코드의 Error(OutOfMemoryError, UnsatisfiedLinkError 등)도 잡아서 작업자 스레드를 유지
+            outcome = "error";
+            System.out.println("미디어 작업 실패. 종류: " + task.kind + ", 오류: " + e);
+        } finally {
+            Timer.builder("media.executor.run")
+                    .tag("kind", task.kind)
+                    .tag("priority", priorityTag)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // 대기 중인 작업
+    private static class MediaTask {
+        private final String kind;
+        private final Priority priority;
+        private final Runnable runnable;
+        private final long submittedNanos;
+
+        MediaTask(String kind, Priority priority, Runnable runnable, long submittedNanos) {
+            this.kind = kind;
+            this.priority = priority;
+            this.runnable = runnable;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+}
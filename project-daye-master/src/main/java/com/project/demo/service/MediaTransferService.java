@@ -0,0 +1,261 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.StoredFile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동영상 바이트 전송 담당
+ * - SENDFILE: 컨테이너(Tomcat NIO)의 sendfile로 커널에서 소켓으로 직접 전송 (JVM 힙을 거치지 않음)
+ *   서블릿이 반환된 뒤에 전송되므로 media.transfer.bytes/duration/throughput 대신
+ *   전송을 맡긴 바이트 수만 media.transfer.sendfile.scheduled로 따로 집계 (실제 전송량과 다를 수 있음)
+ * - CHANNEL: FileChannel.transferTo로 전송, 단 대상이 서블릿 출력 스트림이라 zero-copy가 아님
+ *   (JDK가 스레드별 임시 direct 버퍼로 읽고 Channels.newChannel 래퍼의 힙 byte[]를 거쳐 스트림에 씀)
+ *   RESOURCE보다 복사가 적고 버퍼가 작을 뿐 바이트는 JVM을 거침
+ * - RESOURCE: 기존 방식 (InputStream을 힙 버퍼로 복사)
+ * 로컬 파일이 아닌 저장소(메모리 등)는 sendfile/transferTo 대신 채널 읽기로 전송
+ * 엔드포인트별로 application.properties에서 모드를 선택할 수 있음
+ */
+@Service
+public class MediaTransferService {
+
+    public enum TransferMode { RESOURCE, CHANNEL, SENDFILE }
+
+    public static final String ENDPOINT_VIDEO = "video";
+    public static final String ENDPOINT_DOWNLOAD = "download";
+    public static final String ENDPOINT_HLS = "hls";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Tomcat sendfile 요청 속성
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${media.transfer.video-mode:SENDFILE}")
+    private TransferMode videoMode;
+
+    @Value("${media.transfer.download-mode:SENDFILE}")
+    private TransferMode downloadMode;
+
+    // HLS 세그먼트는 동영상과 같은 모드로 전송
+    public TransferMode getMode(String endpoint) {
+        return ENDPOINT_DOWNLOAD.equals(endpoint) ? downloadMode : videoMode;
+    }
+
+    /**
+     * 파일의 지정된 구간들을 응답으로 전송
+     * - regions가 없으면 파일 전체를 전송
+     * - 206 단일 구간은 Content-Range, 다중 구간은 multipart/byteranges로 전송
+     * headers에는 Content-Type 등 공통 헤더가 담겨 있어야 함
+     */
+    public void transfer(HttpServletRequest request, HttpServletResponse response, String endpoint,
+                         StoredFile file, HttpStatus status, HttpHeaders headers,
+                         List<ResourceRegion> regions) throws IOException {
+        transfer(request, response, endpoint, file, status, headers, regions, null);
+    }
+
+    /**
+     * 스트림 제한(lease)을 적용해서 전송
+     * 속도 제한이나 동시 스트림 한도가 있으면 sendfile을 사용하지 않고 채널 전송으로 직접 씀
+     * (sendfile은 반환 후에 전송되어 호출자가 lease를 닫을 때 아직 바이트가 나가지 않았음)
+     */
+    public void transfer(HttpServletRequest request, HttpServletResponse response, String endpoint,
+                         StoredFile file, HttpStatus status, HttpHeaders headers,
+                         List<ResourceRegion> regions, StreamLimitService.StreamLease lease) throws IOException {
+        boolean throttled = lease != null && lease.isThrottled();
+        boolean holdsLease = lease != null && (throttled || lease.isCapped());
+        long fileLength = file.length();
+        List<long[]> spans = new ArrayList<>();
+        if (regions == null || regions.isEmpty()) {
+            spans.add(new long[]{0, fileLength});
+        } else {
+            for (ResourceRegion region : regions) {
+                spans.add(new long[]{region.getPosition(), region.getCount()});
+            }
+        }
+
+        response.setStatus(status.value());
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+
+        TransferMode mode = getMode(endpoint);
+
+        if (spans.size() == 1) {
+            long position = spans.get(0)[0];
+            long count = spans.get(0)[1];
+            if (status == HttpStatus.PARTIAL_CONTENT) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + position + "-" + (position + count - 1) + "/" + fileLength);
+            }
+            response.setContentLengthLong(count);
+
+            // sendfile은 단일 구간, 로컬 파일이며 커넥터가 지원하고 속도 제한/동시 스트림 한도가 없는 경우에만 사용
+            Optional<Path> localPath = file.localPath();
+            if (mode == TransferMode.SENDFILE && !holdsLease && localPath.isPresent() && isSendfileSupported(request)) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, localPath.get().toRealPath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, position);
+                request.setAttribute(SENDFILE_END_ATTR, position + count);
+                // 실제 전송은 서블릿 반환 후 컨테이너가 수행하므로 맡긴 바이트 수만 별도 지표로 집계
+                // (클라이언트가 중간에 끊어도 전체가 집계되므로 다른 모드의 media.transfer.bytes와 섞지 않음)
+                meterRegistry.counter("media.transfer.sendfile.scheduled", "endpoint", endpoint).increment(count);
+                return;
+            }
+
+            OutputStream out = throttled ? lease.wrap(response.getOutputStream()) : response.getOutputStream();
+            writeSpan(out, endpoint, effectiveMode(mode), file, position, count);
+            return;
+        }
+
+        // 다중 구간: multipart/byteranges 직접 작성 (각 파트는 채널/스트림으로 전송)
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        MediaType partType = headers.getContentType();
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] span : spans) {
+            StringBuilder partHeader = new StringBuilder();
+            partHeader.append("\r\n--").append(boundary).append("\r\n");
+            if (partType != null) {
+                partHeader.append("Content-Type: ").append(partType).append("\r\n");
+            }
+            partHeader.append("Content-Range: bytes ").append(span[0]).append('-')
+                    .append(span[0] + span[1] - 1).append('/').append(fileLength).append("\r\n\r\n");
+            byte[] bytes = partHeader.toString().getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(bytes);
+            contentLength += bytes.length + span[1];
+        }
+        byte[] closing = ("\r\n--" + boundary + "--").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream out = throttled ? lease.wrap(response.getOutputStream()) : response.getOutputStream();
+        TransferMode partMode = effectiveMode(mode);
+        for (int i = 0; i < spans.size(); i++) {
+            out.write(partHeaders.get(i));
+            writeSpan(out, endpoint, partMode, file, spans.get(i)[0], spans.get(i)[1]);
+        }
+        out.write(closing);
+        out.flush();
+    }
+
+    private boolean isSendfileSupported(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR));
+    }
+
+    // sendfile을 사용할 수 없는 경우 채널 전송으로 대체
+    private TransferMode effectiveMode(TransferMode mode) {
+        return mode == TransferMode.SENDFILE ? TransferMode.CHANNEL : mode;
+    }
+
+    private void writeSpan(OutputStream out, String endpoint, TransferMode mode,
+                           StoredFile file, long position, long count) throws IOException {
+        long startNanos = System.nanoTime();
+        long written = 0;
+        try {
+            if (mode == TransferMode.CHANNEL) {
+                try (SeekableByteChannel channel = file.openRead()) {
+                    WritableByteChannel target = Channels.newChannel(out);
+                    if (channel instanceof FileChannel fileChannel) {
+                        while (written < count) {
+                            long transferred = fileChannel.transferTo(position + written, count - written, target);
+                            if (transferred <= 0) {
+                                break;
+                            }
+                            written += transferred;
+                        }
+                    } else {
+                        written = copyChannel(channel, target, position, count);
+                    }
+                }
+            } else {
+                try (InputStream in = Channels.newInputStream(file.openRead())) {
+                    written = StreamUtils.copyRange(in, out, position, position + count - 1);
+                }
+            }
+        } finally {
+            recordBytes(endpoint, mode, written);
+            recordThroughput(endpoint, mode, written, System.nanoTime() - startNanos);
+        }
+    }
+
+    // FileChannel이 아닌 채널은 고정 크기 버퍼로 읽어서 전송
+    private long copyChannel(SeekableByteChannel channel, WritableByteChannel target,
+                             long position, long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, Math.max(count, 1)));
+        long written = 0;
+        channel.position(position);
+        while (written < count) {
+            buffer.clear();
+            if (count - written < buffer.capacity()) {
+                buffer.limit((int) (count - written));
+            }
+            int read = channel.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            written += read;
+        }
+        return written;
+    }
+
+    private void recordBytes(String endpoint, TransferMode mode, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        meterRegistry.counter("media.transfer.bytes",
+                "endpoint", endpoint, "mode", mode.name().toLowerCase()).increment(bytes);
+    }
+
+    private void recordThroughput(String endpoint, TransferMode mode, long bytes, long elapsedNanos) {
+        String modeTag = mode.name().toLowerCase();
+        Timer.builder("media.transfer.duration")
+                .tag("endpoint", endpoint)
+                .tag("mode", modeTag)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (bytes > 0 && elapsedNanos > 0) {
+            DistributionSummary.builder("media.transfer.throughput")
+                    .baseUnit("bytes/s")
+                    .tag("endpoint", endpoint)
+                    .tag("mode", modeTag)
+                    .register(meterRegistry)
+                    .record(bytes * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.project.demo.service;
+
+import com.project.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * MariaDB FULLTEXT 인덱스를 사용하는 게시글 검색 (search.mode=fulltext)
+ * - 제목/내용만 FULLTEXT로 검색 (전체 검색도 제목+내용), 작성자/파일명 검색은 기존 LIKE 검색을 사용
+ * - 검색어를 단어로 나눠 모든 단어를 필수 + 앞부분 일치(+단어*)로 검색 → 조사가 붙은 한글 단어도 찾음
+ *   (단어 중간의 일부만으로는 찾지 못하므로 LIKE '%검색어%'보다 결과가 적을 수 있음)
+ * - 시작할 때 DB가 MariaDB이고 V10의 FULLTEXT 인덱스가 있는지 확인, 사용할 수 없으면 null을 반환해서 호출한 쪽이 LIKE 검색 (H2 등)
+ */
+@Service
+public class PostFulltextSearchService {
+
+    // FULLTEXT 기본 파서처럼 글자/숫자/밑줄이 아닌 문자로 단어를 나눔 (boolean mode 연산자도 함께 제거됨)
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+
+    // MATCH의 컬럼 목록과 같은 FULLTEXT 인덱스가 모두 있어야 사용
+    private static final List<Set<String>> REQUIRED_INDEXES = List.of(
+            Set.of("title", "content"), Set.of("title"), Set.of("content"));
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${search.mode:index}")
+    private String searchMode;
+
+    // 이보다 짧은 단어가 있으면 LIKE 검색 (서버 설정 innodb_ft_min_token_size와 맞춤)
+    @Value("${search.fulltext.min-word-length:2}")
+    private int minWordLength;
+
+    private volatile boolean available;
+    private volatile String unavailableReason = "확인 전";
+
+    /**
+     * DB가 FULLTEXT 검색을 지원하고 인덱스가 있는지 확인 (search.mode와 관계없이 확인해서 벤치마크에도 사용)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void detect() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (!isMariaDb(product)) {
+                unavailableReason = "FULLTEXT 검색을 지원하지 않는 DB: " + product;
+            } else {
+                Set<Set<String>> indexed = findFulltextIndexes(connection);
+                List<Set<String>> missing = REQUIRED_INDEXES.stream().filter(columns -> !indexed.contains(columns)).toList();
+                if (missing.isEmpty()) {
+                    available = true;
+                    unavailableReason = null;
+                } else {
+                    unavailableReason = "posts 테이블에 FULLTEXT 인덱스가 없음: " + missing + " (V10 마이그레이션 적용 필요)";
+                }
+            }
+        } catch (SQLException e) {
+            unavailableReason = "FULLTEXT 인덱스 확인 실패: " + e.getMessage();
+        }
+        if (isEnabled() && !available) {
+            System.out.println("FULLTEXT 검색을 사용할 수 없어 LIKE 검색을 사용합니다. " + unavailableReason);
+        }
+    }
+
+    public boolean isEnabled() {
+        return "fulltext".equalsIgnoreCase(searchMode);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 설정된 검색 방식이 fulltext일 때 검색 (결과는 관련도 순서의 게시글 id)
+     * @return fulltext 방식이 아니거나 이 검색을 FULLTEXT로 처리할 수 없으면 null
+     */
+    public Page<Long> search(String searchType, String keyword, Pageable pageable) {
+        if (!isEnabled()) {
+            return null;
+        }
+        return searchFulltext(searchType, keyword, pageable);
+    }
+
+    /**
+     * FULLTEXT 인덱스로 게시글 id 검색 (관련도 순서, 요청한 정렬은 사용하지 않음)
+     * @return DB가 지원하지 않거나, 작성자/파일명 검색이거나, 검색어에 너무 짧은 단어가 있으면 null
+     */
+    public Page<Long> searchFulltext(String searchType, String keyword, Pageable pageable) {
+        if (!available) {
+            return null;
+        }
+        String query = toBooleanQuery(keyword);
+        if (query == null) {
+            return null;
+        }
+        // native 쿼리에 엔티티 속성 기준 정렬이 붙지 않도록 페이지 정보만 전달
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        switch (searchType == null ? "all" : searchType) {
+            case "title":
+                return postRepository.searchFulltextTitle(query, page);
+            case "content":
+                return postRepository.searchFulltextContent(query, page);
+            case "author":
+            case "filename":
+                return null;
+            case "all":
+            default:
+                return postRepository.searchFulltextTitleOrContent(query, page);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("mode", searchMode);
+        status.put("enabled", isEnabled());
+        status.put("available", available);
+        status.put("unavailableReason", unavailableReason);
+        status.put("minWordLength", minWordLength);
+        return status;
+    }
+
+    /**
+     * 검색어를 boolean mode 검색식으로 변환 (예: "고양이 영상" → "+고양이* +영상*")
+     * @return 단어가 없거나 min-word-length보다 짧은 단어가 있으면 null
+     */
+    String toBooleanQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : WORD_SEPARATOR.split(keyword.trim().toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (word.codePointCount(0, word.length()) < minWordLength) {
+                return null;
+            }
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append('+').append(word).append('*');
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    private boolean isMariaDb(String product) {
+        String name = product == null ? "" : product.toLowerCase(Locale.ROOT);
+        return name.contains("mariadb") || name.contains("mysql");
+    }
+
+    private Set<Set<String>> findFulltextIndexes(Connection connection) throws SQLException {
+        String sql = "SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'posts' AND INDEX_TYPE = 'FULLTEXT'";
+        Map<String, Set<String>> columnsByIndex = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                columnsByIndex.computeIfAbsent(rs.getString(1), name -> new HashSet<>())
+                        .add(rs.getString(2).toLowerCase(Locale.ROOT));
+            }
+        }
+        return new HashSet<>(columnsByIndex.values());
+    }
+}
@@ -0,0 +1,742 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 게시글 검색용 메모리 역색인
+ * - 제목/내용/작성자 이름/동영상 파일명을 필드별로 색인 (대소문자 구분 없음)
+ * - 용어는 공백으로 나눈 단어 안의 2글자 묶음(바이그램)과 단어 자체, 위치를 함께 저장
+ *   → 검색어의 바이그램이 연속된 위치에 있는 게시글만 찾으므로 LIKE '%검색어%'와 같은 결과 (공백으로 나눈 단어별 AND)
+ * - 게시글 작성/수정/삭제가 커밋된 뒤 해당 게시글만 다시 색인
+ * - 주기적으로 세그먼트 파일에 기록하고, 시작할 때 파일을 읽은 뒤 그 이후 바뀐 게시글만 DB에서 다시 색인
+ * - 색인이 준비되기 전에는 null을 반환하므로 호출한 쪽이 DB 검색을 사용
+ */
+@Service
+public class PostSearchIndexService {
+
+    private static final int MAGIC = 0x50534958; // "PSIX"
+    private static final int VERSION = 1;
+    private static final int BUILD_PAGE_SIZE = 500;
+    private static final char WORD_MARK = '\u0001'; // 단어 용어 앞에 붙여 바이그램과 구분
+    private static final double WHOLE_WORD_BOOST = 1.5; // 검색어가 단어 전체와 일치하면 가중치
+    private static final long RECONCILE_MARGIN_MILLIS = 60_000; // 파일 기록 시각과 DB 시각 차이 여유
+
+    // 검색 필드와 순위 가중치
+    public enum Field {
+        TITLE(3.0), CONTENT(1.0), AUTHOR(2.0), FILENAME(2.0);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    @Autowired
+    private PostRepository postRepository;
+
+    // 검색 방식 (index일 때만 색인을 만들고 사용)
+    @Value("${search.mode:index}")
+    private String searchMode;
+
+    @Value("${search.index.path:./search-index/posts.seg}")
+    private String indexPath;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 필드 → 용어 → 게시글 id → 위치 (오름차순)
+    private final Map<Field, Map<String, Map<Long, int[]>>> postings = new EnumMap<>(Field.class);
+    // 필드 → 글자 → 한 글자 검색어에 걸리는 용어 (그 글자로 시작하는 바이그램, 그 글자로 끝나는 단어)
+    private final Map<Field, Map<Character, Set<String>>> termsByChar = new EnumMap<>(Field.class);
+    // 게시글 id → 필드별 용어 (다시 색인하거나 삭제할 때 기존 용어를 지우기 위해)
+    private final Map<Long, Map<Field, String[]>> documents = new HashMap<>();
+
+    // 색인을 만드는 동안 들어온 변경 (만드는 쪽이 읽은 이전 내용보다 나중에 반영, 값이 null이면 삭제)
+    private final Object pendingLock = new Object();
+    private final Map<Long, IndexedText> pending = new LinkedHashMap<>();
+    private boolean building = true;
+
+    private volatile boolean ready;
+    private volatile boolean dirty;
+    private volatile LocalDateTime lastFlushedAt;
+
+    public PostSearchIndexService() {
+        for (Field field : Field.values()) {
+            postings.put(field, new HashMap<>());
+            termsByChar.put(field, new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::loadOrBuild, "post-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋된 뒤 게시글을 다시 읽어서 색인 (호출 이후 같은 트랜잭션에서 바뀐 내용도 반영)
+     * 그 사이 삭제되었으면 색인에서 제거
+     */
+    public void indexAfterCommit(Post post) {
+        Long postId = post.getId();
+        afterCommit(() -> {
+            List<Post> posts = postRepository.findForIndexingByIdIn(List.of(postId));
+            submit(postId, posts.isEmpty() ? null : IndexedText.of(posts.get(0)));
+        });
+    }
+
+    public void removeAfterCommit(Long postId) {
+        afterCommit(() -> submit(postId, null));
+    }
+
+    /**
+     * 작성자 이름이 바뀐 경우 그 사용자의 게시글을 모두 다시 색인
+     */
+    public void reindexAuthorAfterCommit(Long authorId) {
+        afterCommit(() -> {
+            List<Long> postIds = postRepository.findIdsByAuthorId(authorId);
+            for (int from = 0; from < postIds.size(); from += BUILD_PAGE_SIZE) {
+                List<Long> chunk = postIds.subList(from, Math.min(from + BUILD_PAGE_SIZE, postIds.size()));
+                for (Post post : postRepository.findForIndexingByIdIn(chunk)) {
+                    submit(post.getId(), IndexedText.of(post));
+                }
+            }
+        });
+    }
+
+    /**
+     * 색인에는 있지만 DB에 없는 게시글 제거 (사용자 삭제로 함께 지워진 게시글 등)
+     */
+    public void remove(Long postId) {
+        submit(postId, null);
+    }
+
+    /**
+     * 검색 (점수 내림차순, 같으면 최신 게시글 먼저)
+     * @return 색인이 준비되지 않았으면 null
+     */
+    public SearchResult search(String searchType, String keyword, int offset, int limit) {
+        if (!isEnabled() || !ready) {
+            return null;
+        }
+        List<String> words = splitWords(normalize(keyword));
+        if (words.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        List<Field> fields = fieldsFor(searchType);
+
+        List<Map.Entry<Long, Double>> ranked;
+        lock.readLock().lock();
+        try {
+            int documentCount = Math.max(documents.size(), 1);
+            Map<Long, Double> scores = null;
+            for (String word : words) {
+                Map<Field, Map<Long, Integer>> frequencies = new EnumMap<>(Field.class);
+                Set<Long> matched = new HashSet<>();
+                for (Field field : fields) {
+                    Map<Long, Integer> frequency = match(field, word);
+                    frequencies.put(field, frequency);
+                    matched.addAll(frequency.keySet());
+                }
+                if (matched.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+
+                double idf = Math.log(1.0 + (double) documentCount / matched.size());
+                Map<Long, Double> wordScores = new HashMap<>();
+                for (Field field : fields) {
+                    Map<Long, int[]> wholeWord = postings.get(field).get(WORD_MARK + word);
+                    for (Map.Entry<Long, Integer> entry : frequencies.get(field).entrySet()) {
+                        double score = field.weight * (1 + Math.log(entry.getValue())) * idf;
+                        if (wholeWord != null && wholeWord.containsKey(entry.getKey())) {
+                            score *= WHOLE_WORD_BOOST;
+                        }
+                        wordScores.merge(entry.getKey(), score, Double::sum);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((postId, score) -> score + wordScores.get(postId));
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(List.of(), 0);
+                }
+            }
+            ranked = new ArrayList<>(scores.entrySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()));
+        List<Long> postIds = new ArrayList<>();
+        for (int i = offset; i < ranked.size() && i < offset + limit; i++) {
+            postIds.add(ranked.get(i).getKey());
+        }
+        return new SearchResult(postIds, ranked.size());
+    }
+
+    /**
+     * DB에서 전체 색인을 다시 만듦 (만드는 동안 검색은 DB로 처리)
+     * @return 이미 만드는 중이면 false
+     */
+    public boolean rebuild() {
+        synchronized (pendingLock) {
+            if (building) {
+                return false;
+            }
+            building = true;
+        }
+        ready = false;
+        Thread thread = new Thread(() -> {
+            boolean success = false;
+            try {
+                clear();
+                buildFromDatabase();
+                success = true;
+            } catch (RuntimeException e) {
+                System.out.println("검색 색인 재구성 실패: " + e.getMessage());
+            } finally {
+                finishBuilding(success);
+            }
+            flushScheduled();
+        }, "post-search-index");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return "index".equalsIgnoreCase(searchMode);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("mode", searchMode);
+        status.put("enabled", isEnabled());
+        status.put("ready", ready);
+        lock.readLock().lock();
+        try {
+            status.put("documents", documents.size());
+            Map<String, Integer> terms = new LinkedHashMap<>();
+            postings.forEach((field, fieldPostings) -> terms.put(field.name().toLowerCase(), fieldPostings.size()));
+            status.put("terms", terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+        status.put("path", indexPath);
+        status.put("lastFlushedAt", lastFlushedAt);
+        return status;
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.flush-interval-ms:60000}",
+               initialDelayString = "${search.index.flush-interval-ms:60000}")
+    public void flushScheduled() {
+        if (ready && dirty) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduled();
+    }
+
+    private void loadOrBuild() {
+        long startTime = System.currentTimeMillis();
+        boolean success = false;
+        try {
+            Path path = Paths.get(indexPath);
+            Long snapshotMillis = null;
+            if (Files.exists(path)) {
+                try {
+                    snapshotMillis = load(path);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("검색 색인 파일을 읽을 수 없어 다시 만듭니다: " + e.getMessage());
+                    clear();
+                }
+            }
+            if (snapshotMillis != null) {
+                reconcile(snapshotMillis);
+            } else {
+                buildFromDatabase();
+            }
+            success = true;
+        } catch (RuntimeException e) {
+            System.out.println("검색 색인 준비 실패 (DB 검색 사용): " + e.getMessage());
+            return;
+        } finally {
+            finishBuilding(success);
+        }
+        System.out.println("검색 색인 준비 완료. 게시글: " + documents.size() + "건, 소요 시간: "
+                + (System.currentTimeMillis() - startTime) + "ms");
+        flushScheduled();
+    }
+
+    private void buildFromDatabase() {
+        long afterId = 0;
+        while (true) {
+            List<Post> posts = postRepository.findPageForIndexing(afterId, PageRequest.of(0, BUILD_PAGE_SIZE));
+            if (posts.isEmpty()) {
+                break;
+            }
+            for (Post post : posts) {
+                apply(post.getId(), IndexedText.of(post));
+            }
+            afterId = posts.get(posts.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 파일을 기록한 뒤 DB에서 바뀐 게시글만 반영 (추가/수정된 게시글과 이름이 바뀐 작성자의 게시글은 다시 색인, 없어진 게시글은 제거)
+     */
+    private void reconcile(long snapshotMillis) {
+        Set<Long> databaseIds = new HashSet<>(postRepository.findAllIds());
+        Set<Long> indexedIds;
+        lock.readLock().lock();
+        try {
+            indexedIds = new HashSet<>(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int removed = 0;
+        for (Long postId : indexedIds) {
+            if (!databaseIds.contains(postId)) {
+                apply(postId, null);
+                removed++;
+            }
+        }
+
+        Set<Long> changed = new HashSet<>(databaseIds);
+        changed.removeAll(indexedIds);
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(snapshotMillis - RECONCILE_MARGIN_MILLIS), ZoneId.systemDefault());
+        changed.addAll(postRepository.findIdsUpdatedAfter(since));
+        changed.addAll(postRepository.findIdsByAuthorRenamedAfter(since));
+
+        List<Long> changedIds = new ArrayList<>(changed);
+        for (int from = 0; from < changedIds.size(); from += BUILD_PAGE_SIZE) {
+            List<Long> chunk = changedIds.subList(from, Math.min(from + BUILD_PAGE_SIZE, changedIds.size()));
+            for (Post post : postRepository.findForIndexingByIdIn(chunk)) {
+                apply(post.getId(), IndexedText.of(post));
+            }
+        }
+        System.out.println("검색 색인 파일 반영 후 갱신: " + changedIds.size() + "건 다시 색인, " + removed + "건 제거");
+    }
+
+    // 만드는 동안 쌓인 변경을 반영하고 검색에 사용하기 시작 (실패했으면 계속 DB 검색 사용)
+    private void finishBuilding(boolean success) {
+        synchronized (pendingLock) {
+            pending.forEach(this::apply);
+            pending.clear();
+            building = false;
+            ready = success;
+        }
+    }
+
+    private void submit(Long postId, IndexedText text) {
+        if (!isEnabled() || postId == null) {
+            return;
+        }
+        synchronized (pendingLock) {
+            if (building) {
+                pending.put(postId, text);
+                return;
+            }
+        }
+        apply(postId, text);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 게시글 하나의 용어를 교체 (text가 null이면 삭제)
+     */
+    private void apply(Long postId, IndexedText text) {
+        Map<Field, Map<String, int[]>> tokens = new EnumMap<>(Field.class);
+        if (text != null) {
+            tokens.put(Field.TITLE, tokenize(text.title));
+            tokens.put(Field.CONTENT, tokenize(text.content));
+            tokens.put(Field.AUTHOR, tokenize(text.author));
+            tokens.put(Field.FILENAME, tokenize(text.filename));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Map<Field, String[]> previous = documents.remove(postId);
+            if (previous != null) {
+                previous.forEach((field, terms) -> {
+                    Map<String, Map<Long, int[]>> fieldPostings = postings.get(field);
+                    for (String term : terms) {
+                        Map<Long, int[]> posting = fieldPostings.get(term);
+                        if (posting != null) {
+                            posting.remove(postId);
+                            if (posting.isEmpty()) {
+                                fieldPostings.remove(term);
+                                unindexChar(field, term);
+                            }
+                        }
+                    }
+                });
+            }
+            if (text != null) {
+                Map<Field, String[]> terms = new EnumMap<>(Field.class);
+                tokens.forEach((field, fieldTokens) -> {
+                    Map<String, Map<Long, int[]>> fieldPostings = postings.get(field);
+                    fieldTokens.forEach((term, positions) ->
+                            fieldPostings.computeIfAbsent(term, key -> {
+                                indexChar(field, key);
+                                return new HashMap<>(4);
+                            }).put(postId, positions));
+                    terms.put(field, fieldTokens.keySet().toArray(new String[0]));
+                });
+                documents.put(postId, terms);
+            }
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 한 글자 검색어가 이 용어를 찾을 글자 (단어의 마지막 글자는 바이그램의 첫 글자가 아니므로 단어는 끝 글자)
+    private static char matchChar(String term) {
+        return term.charAt(0) == WORD_MARK ? term.charAt(term.length() - 1) : term.charAt(0);
+    }
+
+    private void indexChar(Field field, String term) {
+        termsByChar.get(field).computeIfAbsent(matchChar(term), key -> new HashSet<>()).add(term);
+    }
+
+    private void unindexChar(Field field, String term) {
+        Map<Character, Set<String>> fieldTerms = termsByChar.get(field);
+        char c = matchChar(term);
+        Set<String> terms = fieldTerms.get(c);
+        if (terms != null && terms.remove(term) && terms.isEmpty()) {
+            fieldTerms.remove(c);
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(Map::clear);
+            termsByChar.values().forEach(Map::clear);
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 필드에서 검색어 단어가 나오는 횟수 (게시글 id → 횟수)
+     */
+    private Map<Long, Integer> match(Field field, String word) {
+        Map<String, Map<Long, int[]>> fieldPostings = postings.get(field);
+        Map<Long, Integer> frequency = new HashMap<>();
+
+        if (word.length() == 1) {
+            // 한 글자: 글자별 용어 목록으로 해당 용어만 확인 (전체 용어를 훑으면 읽기 잠금 동안 색인 반영이 막힘)
+            Set<String> terms = termsByChar.get(field).get(word.charAt(0));
+            if (terms != null) {
+                for (String term : terms) {
+                    fieldPostings.get(term).forEach((postId, positions) ->
+                            frequency.merge(postId, positions.length, Integer::sum));
+                }
+            }
+            return frequency;
+        }
+
+        List<Map<Long, int[]>> bigramPostings = new ArrayList<>();
+        Map<Long, int[]> smallest = null;
+        for (int i = 0; i + 1 < word.length(); i++) {
+            Map<Long, int[]> posting = fieldPostings.get(word.substring(i, i + 2));
+            if (posting == null) {
+                return frequency;
+            }
+            bigramPostings.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+
+        // 첫 바이그램 위치 p마다 k번째 바이그램이 p+k에 있으면 한 번 나온 것
+        for (Long postId : smallest.keySet()) {
+            int[][] positions = new int[bigramPostings.size()][];
+            boolean all = true;
+            for (int k = 0; k < positions.length && all; k++) {
+                positions[k] = bigramPostings.get(k).get(postId);
+                all = positions[k] != null;
+            }
+            if (!all) {
+                continue;
+            }
+            int count = 0;
+            for (int start : positions[0]) {
+                boolean consecutive = true;
+                for (int k = 1; k < positions.length && consecutive; k++) {
+                    consecutive = Arrays.binarySearch(positions[k], start + k) >= 0;
+                }
+                if (consecutive) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                frequency.put(postId, count);
+            }
+        }
+        return frequency;
+    }
+
+    /**
+     * 용어 → 위치 (공백으로 나눈 단어마다 단어 자체와 2글자 바이그램, 위치는 정규화한 문자열 기준)
+     */
+    static Map<String, int[]> tokenize(String text) {
+        String normalized = normalize(text);
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        int length = normalized.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && Character.isWhitespace(normalized.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && !Character.isWhitespace(normalized.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                positions.computeIfAbsent(WORD_MARK + normalized.substring(start, end), key -> new ArrayList<>()).add(start);
+                for (int i = start; i + 1 < end; i++) {
+                    positions.computeIfAbsent(normalized.substring(i, i + 2), key -> new ArrayList<>()).add(i);
+                }
+            }
+            start = end;
+        }
+
+        Map<String, int[]> tokens = new LinkedHashMap<>();
+        positions.forEach((term, list) -> tokens.put(term, list.stream().mapToInt(Integer::intValue).toArray()));
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> splitWords(String normalized) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalized.trim().split("\\s+")) {
+            if (!word.isEmpty() && !words.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static List<Field> fieldsFor(String searchType) {
+        if (searchType == null) {
+            return List.of(Field.values());
+        }
+        switch (searchType) {
+            case "title":
+                return List.of(Field.TITLE);
+            case "content":
+                return List.of(Field.CONTENT);
+            case "author":
+                return List.of(Field.AUTHOR);
+            case "filename":
+                return List.of(Field.FILENAME);
+            case "all":
+            default:
+                return List.of(Field.values());
+        }
+    }
+
+    /**
+     * 세그먼트 파일 기록 (임시 파일에 쓴 뒤 이름을 바꾸므로 기록 도중 종료되어도 이전 파일이 남음)
+     * 형식: MAGIC, VERSION, 기록 시각, 필드 수, 필드마다 [용어 수, 용어마다 [용어, 게시글 수, 게시글마다 [id, 위치 수, 위치...]]]
+     */
+    private synchronized void flush() {
+        Path path = Paths.get(indexPath);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        dirty = false;
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            lock.readLock().lock();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 256 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(Field.values().length);
+                for (Field field : Field.values()) {
+                    Map<String, Map<Long, int[]>> fieldPostings = postings.get(field);
+                    out.writeInt(fieldPostings.size());
+                    for (Map.Entry<String, Map<Long, int[]>> term : fieldPostings.entrySet()) {
+                        byte[] bytes = term.getKey().getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                        out.writeInt(term.getValue().size());
+                        for (Map.Entry<Long, int[]> posting : term.getValue().entrySet()) {
+                            out.writeLong(posting.getKey());
+                            out.writeInt(posting.getValue().length);
+                            for (int position : posting.getValue()) {
+                                out.writeInt(position);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastFlushedAt = LocalDateTime.now();
+        } catch (IOException e) {
+            dirty = true;
+            System.out.println("검색 색인 파일 기록 실패: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 세그먼트 파일 읽기
+     * @return 파일을 기록한 시각 (형식이 다르면 null)
+     */
+    private Long load(Path path) throws IOException {
+        Map<Long, Map<Field, List<String>>> terms = new HashMap<>();
+        long snapshotMillis;
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 256 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            snapshotMillis = in.readLong();
+            if (in.readInt() != Field.values().length) {
+                return null;
+            }
+            for (Field field : Field.values()) {
+                Map<String, Map<Long, int[]>> fieldPostings = postings.get(field);
+                int termCount = in.readInt();
+                for (int t = 0; t < termCount; t++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    String term = new String(bytes, StandardCharsets.UTF_8);
+                    int postingCount = in.readInt();
+                    Map<Long, int[]> posting = new HashMap<>(Math.max(4, postingCount * 2));
+                    for (int p = 0; p < postingCount; p++) {
+                        long postId = in.readLong();
+                        int[] positions = new int[in.readInt()];
+                        for (int i = 0; i < positions.length; i++) {
+                            positions[i] = in.readInt();
+                        }
+                        posting.put(postId, positions);
+                        terms.computeIfAbsent(postId, key -> new EnumMap<>(Field.class))
+                                .computeIfAbsent(field, key -> new ArrayList<>())
+                                .add(term);
+                    }
+                    fieldPostings.put(term, posting);
+                    indexChar(field, term);
+                }
+            }
+            terms.forEach((postId, fieldTerms) -> {
+                Map<Field, String[]> document = new EnumMap<>(Field.class);
+                fieldTerms.forEach((field, list) -> document.put(field, list.toArray(new String[0])));
+                documents.put(postId, document);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return snapshotMillis;
+    }
+
+    // 색인할 게시글 내용 (트랜잭션 안에서 읽어 두고 커밋 후 색인)
+    private static class IndexedText {
+        private final String title;
+        private final String content;
+        private final String author;
+        private final String filename;
+
+        private IndexedText(String title, String content, String author, String filename) {
+            this.title = title;
+            this.content = content;
+            this.author = author;
+            this.filename = filename;
+        }
+
+        static IndexedText of(Post post) {
+            String author = post.getAuthor() != null ? post.getAuthor().getFullName() : null;
+            return new IndexedText(post.getTitle(), post.getContent(), author, post.getVideoOriginalName());
+        }
+    }
+
+    // 검색 결과 한 페이지 (postIds는 순위 순서)
+    public static class SearchResult {
+        private final List<Long> postIds;
+        private final long total;
+
+        public SearchResult(List<Long> postIds, long total) {
+            this.postIds = postIds;
+            this.total = total;
+        }
+
+        public List<Long> getPostIds() {
+            return postIds;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
@@ -3,16 +3,25 @@ package com.project.demo.service;
 import com.project.demo.entity.Post;
 import com.project.demo.entity.User;
 import com.project.demo.repository.PostRepository;
+import com.project.demo.repository.PostSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -24,13 +33,56 @@ public class PostService {
     @Autowired
     private FileService fileService;
     
-    public Page<Post> getAllPosts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return postRepository.findAllByOrderByCreatedAtDesc(pageable);
+    @Autowired
+    private ThumbnailJobService thumbnailJobService;
+    
+    @Autowired
+    private HlsPackagingService hlsPackagingService;
+    
+    @Autowired
+    private VideoUploadService videoUploadService;
+    
+    @Autowired
+    private MediaBlobService mediaBlobService;
+    
+    @Autowired
+    private PostSearchIndexService postSearchIndexService;
+
+    @Autowired
+    private PostFulltextSearchService postFulltextSearchService;
+    
+    // 목록 화면용 요약 (최신순)
+    public Page<PostSummary> getAllPosts(int page, int size) {
+        return postRepository.findSummaries(PageRequest.of(page, size));
     }
     
-    public Page<Post> getAllPosts(Pageable pageable) {
-        return postRepository.findAllByOrderByCreatedAtDesc(pageable);
+    public Page<PostSummary> getAllPosts(Pageable pageable) {
+        return postRepository.findSummaries(pageable);
+    }
+    
+    /**
+     * 피드(무한 스크롤) 조회 - 최신 게시글부터 size개
+     * OFFSET 대신 마지막으로 받은 게시글의 (작성 시각, id) 다음부터 읽고 전체 건수도 세지 않음
+     * @param cursor 이전 응답의 nextCursor (처음이면 null)
+     */
+    public FeedPage getFeed(String cursor, int size) {
+        int limit = validatePageSize(size);
+        // 다음 페이지가 있는지 확인하기 위해 하나 더 조회
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<PostSummary> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findLatestSummaries(pageable);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            posts = postRepository.findFeedAfter(position.createdAt, position.id, pageable);
+        }
+        
+        boolean hasNext = posts.size() > limit;
+        if (hasNext) {
+            posts = new ArrayList<>(posts.subList(0, limit));
+        }
+        String nextCursor = hasNext ? FeedCursor.encode(posts.get(posts.size() - 1)) : null;
+        return new FeedPage(posts, nextCursor);
     }
     
     public Post getPostById(Long id) {
@@ -42,40 +94,39 @@ public class PostService {
         }
     }
     
-    public Post createPost(Post post, User author, MultipartFile videoFile) {
+    /**
+     * 게시글 작성
+     * @param uploadToken 미리 올린 동영상의 토큰 (스트리밍 업로드 또는 컨트롤러가 저장한 multipart 동영상, 없으면 null)
+     * 동영상 저장, fast start 변환, 해시 계산은 토큰 발급 전에 끝나므로 트랜잭션 안에서는 파일을 다시 쓰지 않음
+     */
+    public Post createPost(Post post, User author, String uploadToken) {
         post.setAuthor(author);
         post.setViewCount(0);
         
-        // 동영상 파일 처리
-        if (videoFile != null && !videoFile.isEmpty()) {
-            try {
-                String videoFilename = fileService.uploadVideo(videoFile);
-                String thumbnailFilename = fileService.generateThumbnail(videoFilename);
-                
-                post.setVideoFilename(videoFilename);
-                post.setVideoOriginalName(videoFile.getOriginalFilename());
-                post.setVideoContentType(videoFile.getContentType());
-                post.setVideoSize(videoFile.getSize());
-                post.setThumbnailFilename(thumbnailFilename);
-                
-            } catch (Exception e) {
-                // 업로드된 파일이 있다면 정리
-                if (post.getVideoFilename() != null) {
-                    fileService.deleteFile(post.getVideoFilename());
-                }
-                if (post.getThumbnailFilename() != null) {
-                    fileService.deleteThumbnail(post.getThumbnailFilename());
-                }
-                
-                throw new RuntimeException("동영상 업로드 중 오류가 발생했습니다: " + e.getMessage(), e);
-            }
+        // 동영상 파일 처리 (썸네일은 저장 후 백그라운드에서 생성)
+        if (uploadToken != null && !uploadToken.isEmpty()) {
+            VideoUploadService.StagedUpload upload = videoUploadService.claim(uploadToken, author);
+            applyStagedUpload(post, upload);
+            post.setThumbnailStatus(Post.ThumbnailStatus.PENDING);
+            post.setHlsStatus(Post.HlsStatus.PENDING);
         }
         
         Post savedPost = postRepository.save(post);
+        postSearchIndexService.indexAfterCommit(savedPost);
+        if (savedPost.getThumbnailStatus() == Post.ThumbnailStatus.PENDING) {
+            thumbnailJobService.enqueueAfterCommit(savedPost.getId());
+        }
+        if (savedPost.getHlsStatus() == Post.HlsStatus.PENDING) {
+            hlsPackagingService.enqueueAfterCommit(savedPost.getId());
+        }
         return savedPost;
     }
     
-    public Post updatePost(Long id, Post updatedPost, User currentUser, MultipartFile videoFile) {
+    /**
+     * 게시글 수정
+     * @param uploadToken 새로 올린 동영상의 토큰 (동영상을 바꾸지 않으면 null)
+     */
+    public Post updatePost(Long id, Post updatedPost, User currentUser, String uploadToken) {
         Post existingPost = getPostById(id);
         
         // 작성자만 수정 가능
@@ -88,39 +139,40 @@ public class PostService {
         existingPost.setContent(updatedPost.getContent());
         
         // 새로운 동영상 파일이 업로드된 경우
-        if (videoFile != null && !videoFile.isEmpty()) {
+        boolean videoChanged = uploadToken != null && !uploadToken.isEmpty();
+        if (videoChanged) {
             System.out.println("=== 동영상 업데이트 시작 ===");
-            System.out.println("새 동영상 파일명: " + videoFile.getOriginalFilename());
-            System.out.println("새 동영상 크기: " + videoFile.getSize());
             
             // 기존 파일들 백업 (실패 시 복구용)
             String oldVideoFilename = existingPost.getVideoFilename();
             String oldThumbnailFilename = existingPost.getThumbnailFilename();
+            Post.ThumbnailStatus oldThumbnailStatus = existingPost.getThumbnailStatus();
+            Post.HlsStatus oldHlsStatus = existingPost.getHlsStatus();
+            String oldHlsPlaylist = existingPost.getHlsPlaylist();
             
             System.out.println("기존 동영상 파일명: " + oldVideoFilename);
             System.out.println("기존 썸네일 파일명: " + oldThumbnailFilename);
             
             try {
-                // 새 파일 업로드
-                String newVideoFilename = fileService.uploadVideo(videoFile);
-                System.out.println("새 동영상 업로드 완료: " + newVideoFilename);
+                // 기존 동영상 메타데이터 초기화 (새 동영상 수집 시 다시 채워짐)
+                existingPost.clearVideoMetadata();
                 
-                String newThumbnailFilename = fileService.generateThumbnail(newVideoFilename);
-                System.out.println("새 썸네일 생성 완료: " + newThumbnailFilename);
+                // 이미 저장된 새 파일을 가져옴
+                applyStagedUpload(existingPost, videoUploadService.claim(uploadToken, currentUser));
+                System.out.println("새 동영상 업로드 완료: " + existingPost.getVideoFilename()
+                        + " (" + existingPost.getVideoSize() + " bytes)");
                 
-                // DB 정보 업데이트
-                existingPost.setVideoFilename(newVideoFilename);
-                existingPost.setVideoOriginalName(videoFile.getOriginalFilename());
-                existingPost.setVideoContentType(videoFile.getContentType());
-                existingPost.setVideoSize(videoFile.getSize());
-                existingPost.setThumbnailFilename(newThumbnailFilename);
+                // DB 정보 업데이트 (새 썸네일은 저장 후 백그라운드에서 생성)
+                existingPost.setThumbnailFilename(null);
+                existingPost.setThumbnailStatus(Post.ThumbnailStatus.PENDING);
+                existingPost.setHlsPlaylist(null);
+                existingPost.setHlsStatus(Post.HlsStatus.PENDING);
                 
                 System.out.println("DB 정보 업데이트 완료");
                 
-                // 기존 파일들 삭제 (새 파일 업로드 성공 후)
+                // 기존 파일들 정리 (동영상은 다른 게시글이 공유할 수 있으므로 커밋 후 참조만 반환)
                 if (oldVideoFilename != null) {
-                    fileService.deleteFile(oldVideoFilename);
-                    System.out.println("기존 동영상 삭제 완료: " + oldVideoFilename);
+                    mediaBlobService.releaseAfterCommit(oldVideoFilename);
                 }
                 if (oldThumbnailFilename != null) {
                     fileService.deleteThumbnail(oldThumbnailFilename);
@@ -134,10 +186,7 @@ public class PostService {
                 System.out.println("오류: " + e.getMessage());
                 e.printStackTrace();
                 
-                // 실패한 새 파일들 정리
-                if (existingPost.getVideoFilename() != null && !existingPost.getVideoFilename().equals(oldVideoFilename)) {
-                    fileService.deleteFile(existingPost.getVideoFilename());
-                }
+                // 실패한 새 파일들 정리 (새 동영상은 트랜잭션 롤백 시 참조 반환으로 정리됨)
                 if (existingPost.getThumbnailFilename() != null && !existingPost.getThumbnailFilename().equals(oldThumbnailFilename)) {
                     fileService.deleteThumbnail(existingPost.getThumbnailFilename());
                 }
@@ -145,6 +194,9 @@ public class PostService {
                 // 기존 정보 복구
                 existingPost.setVideoFilename(oldVideoFilename);
                 existingPost.setThumbnailFilename(oldThumbnailFilename);
+                existingPost.setThumbnailStatus(oldThumbnailStatus);
+                existingPost.setHlsStatus(oldHlsStatus);
+                existingPost.setHlsPlaylist(oldHlsPlaylist);
                 
                 throw new RuntimeException("동영상 업데이트 중 오류가 발생했습니다: " + e.getMessage(), e);
             }
@@ -153,10 +205,25 @@ public class PostService {
         }
         
         Post savedPost = postRepository.save(existingPost);
+        postSearchIndexService.indexAfterCommit(savedPost);
+        if (videoChanged) {
+            thumbnailJobService.enqueueAfterCommit(savedPost.getId());
+            hlsPackagingService.enqueueAfterCommit(savedPost.getId());
+        }
         System.out.println("게시글 저장 완료. ID: " + savedPost.getId());
         return savedPost;
     }
     
+    private void applyStagedUpload(Post post, VideoUploadService.StagedUpload upload) {
+        mediaBlobService.releaseOnRollback(upload.getFilename());
+        post.setVideoFilename(upload.getFilename());
+        post.setVideoOriginalName(upload.getOriginalName());
+        post.setVideoContentType(upload.getContentType());
+        post.setVideoSize(upload.getSize());
+        post.setVideoSha256(upload.getSha256());
+        post.setVideoFastStart(upload.getFastStart());
+    }
+    
     public void deletePost(Long id, User currentUser) {
         Post post = getPostById(id);
         
@@ -165,9 +232,9 @@ public class PostService {
             throw new RuntimeException("게시글을 삭제할 권한이 없습니다.");
         }
         
-        // 파일들 삭제
+        // 파일들 삭제 (동영상은 다른 게시글이 공유할 수 있으므로 커밋 후 참조만 반환)
         if (post.getVideoFilename() != null) {
-            fileService.deleteFile(post.getVideoFilename());
+            mediaBlobService.releaseAfterCommit(post.getVideoFilename());
         }
         
         if (post.getThumbnailFilename() != null) {
@@ -176,16 +243,7 @@ public class PostService {
         
         // 게시글 삭제
         postRepository.delete(post);
-    }
-    
-    public void incrementViewCount(Long id) {
-        try {
-            Post post = getPostById(id);
-            post.setViewCount(post.getViewCount() + 1);
-            postRepository.save(post);
-        } catch (Exception e) {
-            // 조회수 증가 실패는 게시글 조회에 영향을 주지 않음
-        }
+        postSearchIndexService.removeAfterCommit(post.getId());
     }
     
     public Page<Post> searchPosts(String keyword, int page, int size) {
@@ -193,10 +251,19 @@ public class PostService {
         return postRepository.findByTitleContainingOrContentContaining(keyword, pageable);
     }
     
-    // 고급 검색 기능
-    public Page<Post> searchPostsByType(String searchType, String keyword, int page, int size) {
+    // 고급 검색 기능 (결과는 목록 화면용 요약)
+    // 설정된 검색 방식으로 처리할 수 있으면 그 방식으로, 아니면 DB LIKE 검색
+    public Page<PostSummary> searchPostsByType(String searchType, String keyword, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         
+        Page<PostSummary> searched = searchByConfiguredMode(searchType, keyword, pageable);
+        if (searched != null) {
+            return searched;
+        }
+        return toSummaries(findPostsByType(searchType, keyword, pageable));
+    }
+    
+    private Page<Post> findPostsByType(String searchType, String keyword, Pageable pageable) {
         Page<Post> results;
         switch (searchType) {
             case "title":
@@ -220,6 +287,73 @@ public class PostService {
         return results;
     }
     
+    /**
+     * 검색된 게시글을 같은 순서의 요약으로 바꿈 (작성자 이름을 게시글마다 따로 읽지 않도록 id로 한 번에 조회)
+     */
+    private Page<PostSummary> toSummaries(Page<Post> posts) {
+        List<Long> ids = posts.getContent().stream().map(Post::getId).toList();
+        return new PageImpl<>(findSummariesInOrder(ids), posts.getPageable(), posts.getTotalElements());
+    }
+    
+    // id 순서대로 요약 조회 (DB에 없는 id는 빠짐)
+    private List<PostSummary> findSummariesInOrder(List<Long> ids) {
+        List<PostSummary> content = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return content;
+        }
+        Map<Long, PostSummary> summariesById = new HashMap<>();
+        for (PostSummary summary : postRepository.findSummariesByIdIn(ids)) {
+            summariesById.put(summary.getId(), summary);
+        }
+        for (Long id : ids) {
+            PostSummary summary = summariesById.get(id);
+            if (summary != null) {
+                content.add(summary);
+            }
+        }
+        return content;
+    }
+    
+    /**
+     * search.mode에 따라 FULLTEXT 또는 검색 색인으로 검색 (like이거나 처리할 수 없으면 null)
+     * 두 방식 모두 게시글 id만 찾고, 화면에 필요한 값은 요약 조회 한 번으로 가져옴
+     */
+    private Page<PostSummary> searchByConfiguredMode(String searchType, String keyword, Pageable pageable) {
+        Page<Long> fulltext = postFulltextSearchService.search(searchType, keyword, pageable);
+        if (fulltext != null) {
+            return new PageImpl<>(findSummariesInOrder(fulltext.getContent()), pageable, fulltext.getTotalElements());
+        }
+        return searchFromIndex(searchType, keyword, pageable);
+    }
+    
+    /**
+     * 검색 색인으로 검색 (관련도 순서, 색인이 준비되지 않았으면 null)
+     * 색인에 남아 있지만 DB에 없는 게시글은 결과에서 빼고 색인에서도 제거
+     */
+    private Page<PostSummary> searchFromIndex(String searchType, String keyword, Pageable pageable) {
+        PostSearchIndexService.SearchResult hits = postSearchIndexService.search(
+                searchType, keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits == null) {
+            return null;
+        }
+        
+        List<PostSummary> content = findSummariesInOrder(hits.getPostIds());
+        long total = hits.getTotal();
+        if (content.size() < hits.getPostIds().size()) {
+            Set<Long> found = new HashSet<>();
+            for (PostSummary summary : content) {
+                found.add(summary.getId());
+            }
+            for (Long postId : hits.getPostIds()) {
+                if (!found.contains(postId)) {
+                    postSearchIndexService.remove(postId);
+                    total--;
+                }
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+    
     // 페이징 크기 검증
     public int validatePageSize(int size) {
         if (size <= 0) return 10;
@@ -232,9 +366,9 @@ public class PostService {
         return postRepository.count();
     }
 
-    public List<Post> getRecentPosts(int page, int size) {
-        Page<Post> postPage = postRepository.findAllByOrderByCreatedAtDesc(Pageable.ofSize(size).withPage(page));
-        return postPage.getContent();
+    public List<PostSummary> getRecentPosts(int page, int size) {
+        // 전체 건수는 필요 없으므로 count 쿼리 없이 조회
+        return postRepository.findLatestSummaries(PageRequest.of(page, size));
     }
 
     public List<Post> getAllPosts() {
@@ -247,9 +381,9 @@ public class PostService {
             throw new RuntimeException("게시글을 찾을 수 없습니다.");
         }
         
-        // 파일들 삭제
+        // 파일들 삭제 (동영상은 다른 게시글이 공유할 수 있으므로 커밋 후 참조만 반환)
         if (post.getVideoFilename() != null) {
-            fileService.deleteFile(post.getVideoFilename());
+            mediaBlobService.releaseAfterCommit(post.getVideoFilename());
         }
         
         if (post.getThumbnailFilename() != null) {
@@ -258,6 +392,7 @@ public class PostService {
         
         // 게시글 삭제
         postRepository.delete(post);
+        postSearchIndexService.removeAfterCommit(post.getId());
     }
     
     public Page<Post> getPostsByAuthor(Long authorId, int page, int size) {
@@ -296,7 +431,15 @@ public class PostService {
         );
     }
 
-    public Page<Post> searchPosts(String searchType, String keyword, Pageable pageable) {
+    public Page<PostSummary> searchPosts(String searchType, String keyword, Pageable pageable) {
+        Page<PostSummary> searched = searchByConfiguredMode(searchType, keyword, pageable);
+        if (searched != null) {
+            return searched;
+        }
+        return toSummaries(findPostsForAdmin(searchType, keyword, pageable));
+    }
+    
+    private Page<Post> findPostsForAdmin(String searchType, String keyword, Pageable pageable) {
         Page<Post> results;
         switch (searchType) {
             case "title":
@@ -326,4 +469,57 @@ public class PostService {
             }
         }
     }
+    
+    /**
+     * 피드 조회 결과 (nextCursor가 null이면 마지막 페이지)
+     */
+    public static class FeedPage {
+        private final List<PostSummary> posts;
+        private final String nextCursor;
+        
+        FeedPage(List<PostSummary> posts, String nextCursor) {
+            this.posts = posts;
+            this.nextCursor = nextCursor;
+        }
+        
+        public List<PostSummary> getPosts() {
+            return posts;
+        }
+        
+        public String getNextCursor() {
+            return nextCursor;
+        }
+        
+        public boolean isHasNext() {
+            return nextCursor != null;
+        }
+    }
+    
+    /**
+     * 피드 이어서 읽을 위치 (클라이언트에는 내용을 알 수 없는 문자열로 전달)
+     */
+    private static class FeedCursor {
+        private final LocalDateTime createdAt;
+        private final Long id;
+        
+        private FeedCursor(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        static String encode(PostSummary post) {
+            String value = post.getCreatedAt() + "," + post.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static FeedCursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int comma = value.lastIndexOf(',');
+                return new FeedCursor(LocalDateTime.parse(value.substring(0, comma)), Long.parseLong(value.substring(comma + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("잘못된 피드 위치입니다.");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 검색 방식별 응답 시간 비교 (관리자 실행, 현재 DB에서 LIKE / FULLTEXT / 검색 색인을 같은 검색어로 실행)
+ * - 검색어마다 첫 페이지(20건)와 전체 건수를 조회하는 시간을 재고, 첫 실행은 준비 단계로 빼고 평균/최소/최대를 계산
+ * - FULLTEXT는 DB가 지원하고 인덱스가 있을 때, 검색 색인은 색인이 준비되어 있을 때만 실행
+ * - LIKE 전체 검색은 FULLTEXT와 같은 범위(제목+내용)로 비교
+ * - 대량 데이터 비교는 프로젝트 루트의 db/benchmark/seed_posts.sql(jar에 포함되지 않음)로 게시글을 만든 테스트 DB에서 실행 (운영 DB에서 실행하지 말 것)
+ */
+@Service
+public class SearchBenchmarkService {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_ITERATIONS = 20;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostFulltextSearchService postFulltextSearchService;
+
+    @Autowired
+    private PostSearchIndexService postSearchIndexService;
+
+    public Map<String, Object> run(List<String> keywords, String searchType, int iterations) {
+        if (keywords == null || keywords.isEmpty()) {
+            throw new RuntimeException("검색어를 하나 이상 입력해주세요.");
+        }
+        if (!List.of("all", "title", "content").contains(searchType)) {
+            throw new RuntimeException("비교할 수 있는 검색 유형은 all, title, content입니다.");
+        }
+        int runs = Math.max(1, Math.min(iterations, MAX_ITERATIONS));
+
+        Map<String, Function<String, Long>> modes = new LinkedHashMap<>();
+        modes.put("like", keyword -> like(searchType, keyword).getTotalElements());
+        if (postFulltextSearchService.isAvailable()) {
+            modes.put("fulltext", keyword -> {
+                Page<Long> page = postFulltextSearchService.searchFulltext(searchType, keyword, firstPage());
+                return page != null ? page.getTotalElements() : -1L;
+            });
+        }
+        modes.put("index", keyword -> {
+            PostSearchIndexService.SearchResult result = postSearchIndexService.search(searchType, keyword, 0, PAGE_SIZE);
+            return result != null ? result.getTotal() : null;
+        });
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String keyword : keywords) {
+            for (Map.Entry<String, Function<String, Long>> mode : modes.entrySet()) {
+                // 준비 단계 (캐시 적재, 결과가 없으면 이 방식은 건너뜀)
+                Long hits = mode.getValue().apply(keyword);
+                if (hits == null) {
+                    continue;
+                }
+                long total = 0;
+                long min = Long.MAX_VALUE;
+                long max = 0;
+                for (int i = 0; i < runs; i++) {
+                    long start = System.nanoTime();
+                    mode.getValue().apply(keyword);
+                    long elapsed = System.nanoTime() - start;
+                    total += elapsed;
+                    min = Math.min(min, elapsed);
+                    max = Math.max(max, elapsed);
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("keyword", keyword);
+                result.put("mode", mode.getKey());
+                // FULLTEXT로 처리할 수 없는 검색어(너무 짧은 단어 등)는 -1
+                result.put("hits", hits);
+                result.put("avgMs", total / runs / 1_000_000.0);
+                result.put("minMs", min / 1_000_000.0);
+                result.put("maxMs", max / 1_000_000.0);
+                results.add(result);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("posts", postRepository.count());
+        report.put("searchType", searchType);
+        report.put("iterations", runs);
+        report.put("fulltext", postFulltextSearchService.getStatus());
+        report.put("results", results);
+        return report;
+    }
+
+    private Page<Post> like(String searchType, String keyword) {
+        Pageable pageable = firstPage();
+        switch (searchType) {
+            case "title":
+                return postRepository.findByTitleContaining(keyword, pageable);
+            case "content":
+                return postRepository.findByContentContaining(keyword, pageable);
+            default:
+                return postRepository.findByTitleContainingOrContentContaining(keyword, pageable);
+        }
+    }
+
+    private Pageable firstPage() {
+        return PageRequest.of(0, PAGE_SIZE, Sort.by("createdAt").descending());
+    }
+}
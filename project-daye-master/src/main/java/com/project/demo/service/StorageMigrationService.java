@@ -0,0 +1,147 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 기존 static/uploads 경로(한 디렉토리에 모든 파일)의 동영상/썸네일을 미디어 저장소로 이동
+ * - 파일명은 그대로 유지하므로 DB의 파일명을 바꿀 필요 없음
+ * - 저장소에 이미 같은 이름의 파일이 있으면 건너뜀 (여러 번 실행해도 안전)
+ */
+@Service
+public class StorageMigrationService {
+
+    @Autowired
+    private StorageBackend storage;
+
+    @Value("${media.storage.legacy-root:./project-daye-master/src/main/resources/static/uploads}")
+    private String legacyRoot;
+
+    @Value("${media.storage.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger moved = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * 이동 시작 (이미 실행 중이면 false)
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        moved.set(0);
+        skipped.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Thread thread = new Thread(this::run, "storage-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("moved", moved.get());
+        status.put("skipped", skipped.get());
+        status.put("failed", failed.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    private void run() {
+        try {
+            for (Area area : Area.values()) {
+                migrateArea(area);
+            }
+        } catch (Exception e) {
+            System.out.println("저장소 이동 중단: " + e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            System.out.println("저장소 이동 완료. 이동: " + moved.get() + "건, 건너뜀: " + skipped.get()
+                    + "건, 실패: " + failed.get() + "건");
+        }
+    }
+
+    private void migrateArea(Area area) throws IOException {
+        Path sourceDir = Paths.get(legacyRoot).resolve(area.getDirectoryName());
+        if (!Files.isDirectory(sourceDir)) {
+            return;
+        }
+        List<Path> sources;
+        try (Stream<Path> stream = Files.list(sourceDir)) {
+            sources = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path source : sources) {
+            migrateFile(area, source);
+        }
+    }
+
+    private void migrateFile(Area area, Path source) {
+        String name = source.getFileName().toString();
+        if (!StorageBackend.VALID_NAME.matcher(name).matches()) {
+            skipped.incrementAndGet();
+            return;
+        }
+        try {
+            // exists()는 기존 경로의 파일도 찾으므로 로컬 저장소는 분산 경로만 확인
+            Optional<Path> target = storage.storePath(area, name);
+            if (target.isPresent() ? Files.exists(target.get()) : storage.exists(area, name)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            if (target.isPresent()) {
+                Files.createDirectories(target.get().getParent());
+                Files.move(source, target.get());
+            } else {
+                try (InputStream in = Files.newInputStream(source);
+                     OutputStream out = Channels.newOutputStream(storage.openWrite(area, name, true))) {
+                    in.transferTo(out);
+                }
+                Files.delete(source);
+            }
+            moved.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            System.out.println("저장소 이동 실패: " + area.getDirectoryName() + "/" + name + ", 오류: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동영상 전송 대역폭/동시 스트림 제한
+ * - 사용자(비로그인은 IP)별, 게시글별 동시 스트림 수를 제한 (다운로드 관리자가 연결을 여러 개 여는 경우 대비)
+ * - 연결별, 사용자별 초당 바이트 수를 토큰 버킷으로 제한 (사용자의 모든 연결이 사용자 버킷 하나를 나눠 씀)
+ * - 토큰은 미리 예약하므로 잔량이 음수가 될 수 있고, 예약한 쪽은 잠금 밖에서 부족분만큼 대기
+ * 속도 제한이나 동시 스트림 한도가 걸린 전송은 sendfile 대신 채널 전송을 사용
+ * (sendfile은 서블릿이 반환된 뒤 컨테이너가 보내므로 전송이 끝날 때까지 스트림을 붙잡아 둘 수 없음)
+ */
+@Service
+public class StreamLimitService {
+
+    // 한 번에 예약하는 최대 바이트 수 (작을수록 연결 사이에 고르게 나뉨)
+    private static final int THROTTLE_CHUNK_SIZE = 16 * 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 초당 바이트 수 (0이면 제한 없음)
+    @Value("${media.transfer.rate-limit.per-connection:0}")
+    private long perConnectionRate;
+
+    @Value("${media.transfer.rate-limit.per-user:0}")
+    private long perUserRate;
+
+    // 쉬고 있던 연결이 한 번에 보낼 수 있는 최대 바이트 수
+    @Value("${media.transfer.rate-limit.burst-bytes:262144}")
+    private long burstBytes;
+
+    // 동시 스트림 수 (0이면 제한 없음)
+    @Value("${media.transfer.max-streams-per-user:0}")
+    private int maxStreamsPerUser;
+
+    @Value("${media.transfer.max-streams-per-post:0}")
+    private int maxStreamsPerPost;
+
+    @Value("${media.transfer.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    // 전송 중인 사용자/게시글 (스트림이 모두 끝나면 제거)
+    private final Map<String, ClientState> clients = new HashMap<>();
+    private final Map<Long, Integer> postStreams = new HashMap<>();
+    private int activeStreams;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("media.transfer.active.streams", this, StreamLimitService::getActiveStreams)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 스트림 시작 (전송이 끝나면 반드시 close 호출)
+     * @param postId 게시글 ID (모르면 null, 게시글별 한도에 포함하지 않음)
+     * @return 동시 스트림 한도를 넘으면 null
+     */
+    public StreamLease acquire(HttpServletRequest request, Long postId, String endpoint) {
+        String clientKey = clientKey(request);
+        synchronized (this) {
+            ClientState client = clients.get(clientKey);
+            String rejectedBy = null;
+            if (maxStreamsPerUser > 0 && client != null && client.streams >= maxStreamsPerUser) {
+                rejectedBy = "user";
+            } else if (maxStreamsPerPost > 0 && postId != null && postStreams.getOrDefault(postId, 0) >= maxStreamsPerPost) {
+                rejectedBy = "post";
+            }
+            if (rejectedBy != null) {
+                meterRegistry.counter("media.transfer.rejected", "endpoint", endpoint, "limit", rejectedBy).increment();
+                System.out.println("동시 스트림 한도 초과 (" + rejectedBy + "): " + clientKey + ", Post ID: " + postId);
+                return null;
+            }
+
+            if (client == null) {
+                client = new ClientState(perUserRate > 0 ? new TokenBucket(perUserRate, burstBytes) : null);
+                clients.put(clientKey, client);
+            }
+            client.streams++;
+            if (postId != null) {
+                postStreams.merge(postId, 1, Integer::sum);
+            }
+            activeStreams++;
+            TokenBucket connectionBucket = perConnectionRate > 0 ? new TokenBucket(perConnectionRate, burstBytes) : null;
+            return new StreamLease(clientKey, postId, endpoint, connectionBucket, client.bucket);
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // 게시글별 한도가 있을 때만 게시글 ID가 필요함 (HLS 세그먼트는 이때만 게시글을 조회)
+    public boolean isPostLimited() {
+        return maxStreamsPerPost > 0;
+    }
+
+    public synchronized int getActiveStreams() {
+        return activeStreams;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("perConnectionRate", perConnectionRate);
+        status.put("perUserRate", perUserRate);
+        status.put("maxStreamsPerUser", maxStreamsPerUser);
+        status.put("maxStreamsPerPost", maxStreamsPerPost);
+        synchronized (this) {
+            status.put("activeStreams", activeStreams);
+            status.put("activeClients", clients.size());
+        }
+        return status;
+    }
+
+    private synchronized void release(StreamLease lease) {
+        ClientState client = clients.get(lease.clientKey);
+        if (client != null && --client.streams <= 0) {
+            clients.remove(lease.clientKey);
+        }
+        if (lease.postId != null) {
+            postStreams.computeIfPresent(lease.postId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+        activeStreams--;
+    }
+
+    // 로그인 사용자는 사용자명, 비로그인은 IP 기준
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * 진행 중인 스트림 하나 (연결 버킷은 스트림 전용, 사용자 버킷은 같은 사용자의 스트림이 공유)
+     */
+    public class StreamLease implements AutoCloseable {
+        private final String clientKey;
+        private final Long postId;
+        private final String endpoint;
+        private final TokenBucket connectionBucket;
+        private final TokenBucket userBucket;
+        private long throttledBytes;
+        private long throttledNanos;
+        private boolean closed;
+
+        StreamLease(String clientKey, Long postId, String endpoint, TokenBucket connectionBucket, TokenBucket userBucket) {
+            this.clientKey = clientKey;
+            this.postId = postId;
+            this.endpoint = endpoint;
+            this.connectionBucket = connectionBucket;
+            this.userBucket = userBucket;
+        }
+
+        public boolean isThrottled() {
+            return connectionBucket != null || userBucket != null;
+        }
+
+        // 동시 스트림 한도에 포함되는 스트림 (close 전까지 바이트를 직접 써야 한도가 지켜짐)
+        public boolean isCapped() {
+            return maxStreamsPerUser > 0 || maxStreamsPerPost > 0;
+        }
+
+        /**
+         * 속도 제한이 있으면 쓰기 전에 토큰을 기다리는 스트림으로 감쌈
+         */
+        public OutputStream wrap(OutputStream out) {
+            return isThrottled() ? new ThrottledOutputStream(out, this) : out;
+        }
+
+        // 버킷 두 개에서 함께 예약하고 더 긴 쪽만큼 대기
+        void acquire(int bytes) throws IOException {
+            long waitNanos = 0;
+            if (connectionBucket != null) {
+                waitNanos = connectionBucket.reserve(bytes);
+            }
+            if (userBucket != null) {
+                waitNanos = Math.max(waitNanos, userBucket.reserve(bytes));
+            }
+            if (waitNanos <= 0) {
+                return;
+            }
+            throttledBytes += bytes;
+            throttledNanos += waitNanos;
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("전송 대기 중 중단되었습니다.");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release(this);
+            if (throttledBytes > 0) {
+                meterRegistry.counter("media.transfer.throttled.bytes", "endpoint", endpoint).increment(throttledBytes);
+                Timer.builder("media.transfer.throttle.wait")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry)
+                        .record(throttledNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 토큰 버킷 (초당 rate 바이트씩 차고 최대 capacity까지 쌓임)
+     */
+    static class TokenBucket {
+        private final long rate;
+        private final long capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(long rate, long capacity) {
+            this.rate = rate;
+            this.capacity = Math.max(capacity, THROTTLE_CHUNK_SIZE);
+            this.tokens = this.capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * bytes만큼 예약
+         * @return 예약한 바이트를 보내기 전에 기다려야 하는 시간 (ns)
+         */
+        synchronized long reserve(long bytes) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * rate / 1_000_000_000.0);
+            lastRefillNanos = now;
+            tokens -= bytes;
+            if (tokens >= 0) {
+                return 0;
+            }
+            return (long) (-tokens * 1_000_000_000.0 / rate);
+        }
+    }
+
+    // 청크 단위로 토큰을 기다린 뒤 쓰는 출력 스트림
+    private static class ThrottledOutputStream extends FilterOutputStream {
+        private final StreamLease lease;
+
+        ThrottledOutputStream(OutputStream out, StreamLease lease) {
+            super(out);
+            this.lease = lease;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            lease.acquire(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int chunk = Math.min(len, THROTTLE_CHUNK_SIZE);
+                lease.acquire(chunk);
+                out.write(b, off, chunk);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        // 응답 스트림은 컨테이너가 닫음
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    // 사용자별 진행 중인 스트림 수와 공유 버킷
+    private static class ClientState {
+        private final TokenBucket bucket;
+        private int streams;
+
+        ClientState(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
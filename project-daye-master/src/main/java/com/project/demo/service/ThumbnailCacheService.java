@@ -0,0 +1,272 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.StoredFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 자주 요청되는 썸네일 바이트 캐시
+ * - 내용은 힙 밖(direct buffer)에 보관하므로 캐시 크기가 GC 대상 힙을 늘리지 않음
+ * - 전체 크기를 max-bytes로 제한하고 가장 오래 요청되지 않은 항목부터 제거 (LRU)
+ * - 한 번만 요청되는 썸네일이 자주 쓰는 항목을 밀어내지 않도록 min-requests번째 요청부터 캐시
+ * - 썸네일 파일명은 내용이 바뀌지 않으므로 파일이 삭제/격리될 때만 무효화
+ */
+@Service
+public class ThumbnailCacheService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 캐시 전체 크기 (0이면 사용하지 않음)
+    @Value("${media.thumbnail.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    // 이보다 큰 파일은 캐시하지 않음
+    @Value("${media.thumbnail.cache.max-entry-bytes:524288}")
+    private long maxEntryBytes;
+
+    // 캐시에 넣기 전까지 필요한 요청 수 (1이면 첫 요청부터 캐시)
+    @Value("${media.thumbnail.cache.min-requests:2}")
+    private int minRequests;
+
+    // 캐시 항목 (접근 순서, 가장 오래된 항목이 앞)
+    private final LinkedHashMap<String, CachedThumbnail> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // 아직 캐시하지 않은 썸네일의 요청 수 (항목 수를 제한해서 오래된 것부터 잊음)
+    private final LinkedHashMap<String, Integer> pendingRequests = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+    // 무효화될 때마다 증가 (읽는 도중 삭제된 파일을 캐시에 넣지 않도록)
+    private long generation;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("media.thumbnail.cache.bytes", this, ThumbnailCacheService::getCurrentBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("media.thumbnail.cache.entries", this, ThumbnailCacheService::getEntryCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 캐시된 썸네일 (없으면 null)
+     * @param width 실제로 응답할 너비 (FileService.resolveThumbnailWidth 결과)
+     */
+    public CachedThumbnail get(String thumbnailFilename, int width) {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        CachedThumbnail cached;
+        synchronized (this) {
+            cached = entries.get(key(thumbnailFilename, width));
+        }
+        meterRegistry.counter("media.thumbnail.cache.requests", "result", cached != null ? "hit" : "miss").increment();
+        return cached;
+    }
+
+    /**
+     * 저장소의 썸네일을 읽어 캐시에 넣음
+     * @return 캐시한 항목, 아직 캐시할 만큼 요청되지 않았거나 너무 크면 null (호출한 쪽이 파일로 응답)
+     */
+    public CachedThumbnail put(String thumbnailFilename, int width, StoredFile file, String etag) throws IOException {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        String key = key(thumbnailFilename, width);
+        long startGeneration;
+        synchronized (this) {
+            if (entries.containsKey(key)) {
+                return entries.get(key);
+            }
+            int requests = pendingRequests.merge(key, 1, Integer::sum);
+            if (requests < minRequests) {
+                trimPendingRequests();
+                return null;
+            }
+            pendingRequests.remove(key);
+            startGeneration = generation;
+        }
+
+        long length = file.length();
+        if (length <= 0 || length > maxEntryBytes || length > maxBytes) {
+            return null;
+        }
+        long lastModified = file.lastModified();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) length);
+        try (SeekableByteChannel channel = file.openRead()) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null; // 읽는 도중 파일이 바뀐 경우
+                }
+            }
+        }
+        buffer.flip();
+        CachedThumbnail cached = new CachedThumbnail(buffer.asReadOnlyBuffer(), lastModified, etag);
+
+        synchronized (this) {
+            if (generation != startGeneration) {
+                return null;
+            }
+            CachedThumbnail previous = entries.put(key, cached);
+            if (previous != null) {
+                currentBytes -= previous.length();
+            }
+            currentBytes += cached.length();
+            evictOverflow();
+        }
+        return cached;
+    }
+
+    /**
+     * 원본 썸네일과 모든 축소본을 캐시에서 제거 (썸네일 삭제/격리 시)
+     */
+    public synchronized void invalidate(String thumbnailFilename) {
+        if (thumbnailFilename == null) {
+            return;
+        }
+        generation++;
+        String prefix = thumbnailFilename + "@";
+        Iterator<Map.Entry<String, CachedThumbnail>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedThumbnail> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentBytes -= entry.getValue().length();
+                iterator.remove();
+            }
+        }
+        pendingRequests.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    // lock을 잡은 상태에서 호출
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CachedThumbnail>> iterator = entries.entrySet().iterator();
+        long evicted = 0;
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().getValue().length();
+            iterator.remove();
+            evicted++;
+        }
+        if (evicted > 0) {
+            meterRegistry.counter("media.thumbnail.cache.evictions").increment(evicted);
+        }
+    }
+
+    // 요청 수 기록은 캐시 항목 수만큼만 유지 (lock을 잡은 상태에서 호출)
+    private void trimPendingRequests() {
+        int limit = Math.max(1024, entries.size());
+        Iterator<String> iterator = pendingRequests.keySet().iterator();
+        while (pendingRequests.size() > limit && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private String key(String thumbnailFilename, int width) {
+        return thumbnailFilename + "@" + width;
+    }
+
+    /**
+     * 캐시된 썸네일 (내용은 읽기 전용 direct buffer)
+     */
+    public static class CachedThumbnail {
+        private final ByteBuffer content;
+        private final long lastModified;
+        private final String etag;
+
+        CachedThumbnail(ByteBuffer content, long lastModified, String etag) {
+            this.content = content;
+            this.lastModified = lastModified;
+            this.etag = etag;
+        }
+
+        public int length() {
+            return content.capacity();
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * HTTP 응답 본문용 Resource (요청마다 버퍼의 독립된 읽기 위치를 사용)
+         */
+        public Resource toResource() {
+            return new AbstractResource() {
+                @Override
+                public String getDescription() {
+                    return "cached thumbnail";
+                }
+
+                @Override
+                public long contentLength() {
+                    return length();
+                }
+
+                @Override
+                public long lastModified() {
+                    return lastModified;
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteBufferInputStream(content.duplicate());
+                }
+            };
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
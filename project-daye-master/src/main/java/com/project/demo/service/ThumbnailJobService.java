@@ -0,0 +1,185 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.entity.Post.ThumbnailStatus;
+import com.project.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 썸네일 생성 백그라운드 작업
+ * - 게시글 저장(커밋) 후 미디어 작업 실행기에 가장 높은 우선순위(UPLOAD)로 등록하여 요청 스레드와 분리
+ * - fast start 상태가 없는 동영상(기존 파일을 공유한 업로드 등)은 파일을 확인해서 Post.videoFastStart에 저장
+ * - 작업 상태는 Post.thumbnailStatus에 저장 (PENDING → RUNNING → DONE / FAILED)
+ * - 대기열이 가득 차서 등록하지 못한 작업은 PENDING으로 남고 주기적으로 다시 등록
+ */
+@Service
+public class ThumbnailJobService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FastStartService fastStartService;
+
+    @Autowired
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    // 큐에 등록되었거나 실행 중인 게시글 (중복 등록 방지)
+    private final Set<Long> queuedPostIds = ConcurrentHashMap.newKeySet();
+
+    // 실행 중에 다시 요청된 게시글 (작업 중 동영상이 교체된 경우 끝난 뒤 한 번 더 실행)
+    private final Set<Long> rerunPostIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 서버가 작업 도중 종료된 경우 RUNNING 상태를 PENDING으로 되돌림
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        int recovered = postRepository.updateThumbnailStatusFrom(ThumbnailStatus.RUNNING, ThumbnailStatus.PENDING);
+        if (recovered > 0) {
+            System.out.println("중단된 썸네일 작업 복구: " + recovered + "건");
+        }
+        requeuePendingJobs();
+    }
+
+    /**
+     * 현재 트랜잭션이 커밋된 후 썸네일 작업 등록
+     * (커밋 전에 작업이 실행되면 게시글을 찾지 못할 수 있음)
+     */
+    public void enqueueAfterCommit(Long postId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(postId);
+                }
+            });
+        } else {
+            enqueue(postId);
+        }
+    }
+
+    /**
+     * 썸네일 작업 등록
+     * @return 대기열에 등록되었으면 true, 대기열이 가득 찬 경우 false (PENDING 상태로 남아 나중에 재시도)
+     */
+    public boolean enqueue(Long postId) {
+        if (!queuedPostIds.add(postId)) {
+            rerunPostIds.add(postId);
+            return true;
+        }
+        if (!mediaTaskExecutor.submit("thumbnail", MediaTaskExecutor.Priority.UPLOAD, () -> process(postId))) {
+            queuedPostIds.remove(postId);
+            System.out.println("썸네일 작업 대기열이 가득 찼습니다. 나중에 다시 시도합니다. Post ID: " + postId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * PENDING 상태로 남은 작업들을 주기적으로 다시 등록
+     */
+    @Scheduled(fixedDelayString = "${media.thumbnail.sweep-interval-ms:60000}",
+               initialDelayString = "${media.thumbnail.sweep-interval-ms:60000}")
+    public void requeuePendingJobs() {
+        int capacity = mediaTaskExecutor.remainingCapacity(MediaTaskExecutor.Priority.UPLOAD);
+        if (capacity <= 0) {
+            return;
+        }
+        List<Long> pendingIds = postRepository.findIdsByThumbnailStatus(
+                ThumbnailStatus.PENDING, PageRequest.of(0, capacity));
+        for (Long postId : pendingIds) {
+            if (!enqueue(postId)) {
+                break;
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return mediaTaskExecutor.getQueueSize(MediaTaskExecutor.Priority.UPLOAD);
+    }
+
+    /**
+     * 등록된 파일의 fast start 상태 기록 (변환은 업로드할 때 해시 계산 전에 하므로 여기서는 파일을 다시 쓰지 않음)
+     */
+    private void inspectFastStart(Long postId, String videoFilename) {
+        FastStartStatus status;
+        try {
+            status = fastStartService.inspect(videoFilename);
+        } catch (Exception e) {
+            status = FastStartStatus.FAILED;
+            System.out.println("fast start 확인 실패. Post ID: " + postId + ", 오류: " + e.getMessage());
+        }
+        postRepository.updateVideoFastStart(postId, videoFilename, status);
+    }
+
+    private void process(Long postId) {
+        String videoFilename = null;
+        try {
+            Post post = postRepository.findById(postId).orElse(null);
+            if (post == null || post.getVideoFilename() == null || post.getVideoFilename().isEmpty()) {
+                return;
+            }
+            videoFilename = post.getVideoFilename();
+
+            if (postRepository.transitionThumbnailStatus(postId, videoFilename,
+                    ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING) == 0) {
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            if (post.getVideoFastStart() == null) {
+                inspectFastStart(postId, videoFilename);
+            }
+            FileService.IngestResult result = fileService.ingestVideo(videoFilename);
+            String thumbnailFilename = result.getThumbnailFilename();
+
+            int updated = postRepository.completeThumbnail(postId, videoFilename, thumbnailFilename, ThumbnailStatus.DONE);
+            if (updated == 0) {
+                // 작업 중 게시글이 삭제되었거나 동영상이 교체됨
+                fileService.deleteThumbnail(thumbnailFilename);
+                return;
+            }
+            
+            // 같은 수집 과정에서 읽은 동영상 메타데이터 저장
+            FileService.VideoMetadata metadata = result.getMetadata();
+            if (metadata != null) {
+                postRepository.updateVideoMetadata(postId, videoFilename,
+                        metadata.getDurationMillis(), metadata.getWidth(), metadata.getHeight(),
+                        metadata.getFrameRate(), metadata.getCodec());
+            }
+            System.out.println("썸네일 생성 완료. Post ID: " + postId + ", 소요 시간: "
+                    + (System.currentTimeMillis() - startTime) + "ms");
+
+        } catch (Exception e) {
+            System.out.println("썸네일 생성 실패. Post ID: " + postId + ", 오류: " + e.getMessage());
+            try {
+                if (videoFilename != null) {
+                    postRepository.updateThumbnailStatus(postId, videoFilename, ThumbnailStatus.FAILED);
+                }
+            } catch (Exception ex) {
+                // 상태 저장 실패는 무시 (다음 기동 시 복구)
+            }
+        } finally {
+            queuedPostIds.remove(postId);
+            if (rerunPostIds.remove(postId)) {
+                enqueue(postId);
+            }
+        }
+    }
+}
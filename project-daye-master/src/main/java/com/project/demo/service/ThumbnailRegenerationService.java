@@ -0,0 +1,234 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.MediaJobCheckpoint;
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.ThumbnailStatus;
+import com.project.demo.repository.MediaJobCheckpointRepository;
+import com.project.demo.repository.PostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 기존 게시글의 썸네일 재생성 (FileService.THUMBNAIL_WIDTH/HEIGHT나 writeThumbnailImage를 바꾼 뒤 관리자가 실행)
+ * - 썸네일 작업이 끝난(DONE) 동영상 게시글을 id 순서로 페이지 단위 조회 (keyset)
+ *   (작업 상태가 없던 시절의 게시글은 상태가 NULL이므로 썸네일 파일명이 있으면 함께 대상)
+ * - 미디어 작업 실행기에 가장 낮은 우선순위(BACKFILL)로 등록하고 동시에 media.thumbnail.regenerate.parallelism개까지 처리
+ *   (실행기의 media.executor.max-running.backfill을 넘지는 않으므로 새 업로드 작업이 먼저 실행됨)
+ * - 페이지가 모두 끝날 때마다 마지막 id를 DB에 기록하므로 중단되어도 다음 실행에서 이어서 처리
+ * - 새 썸네일은 새 파일명으로 만들고 게시글을 바꾼 뒤 이전 파일을 삭제 (브라우저 캐시도 새 URL로 갱신됨)
+ */
+@Service
+public class ThumbnailRegenerationService {
+
+    private static final String JOB_NAME = "thumbnail-regeneration";
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MediaJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${media.thumbnail.regenerate.page-size:100}")
+    private int pageSize;
+
+    // 동시에 재생성하는 게시글 수
+    @Value("${media.thumbnail.regenerate.parallelism:2}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final AtomicInteger regenerated = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile long total;
+    private volatile long startPostId;
+    private volatile long checkpointPostId;
+    private volatile boolean completed;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * 재생성 시작 (이미 실행 중이면 false)
+     * @param restart true면 기록된 위치를 무시하고 처음부터
+     */
+    public boolean start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested.set(false);
+        regenerated.set(0);
+        skipped.set(0);
+        failed.set(0);
+        completed = false;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        long afterId = restart ? 0 : checkpointRepository.findById(JOB_NAME).map(MediaJobCheckpoint::getLastPostId).orElse(0L);
+        startPostId = afterId;
+        checkpointPostId = afterId;
+        total = postRepository.countWithThumbnailStatusAfter(afterId, ThumbnailStatus.DONE);
+
+        Thread thread = new Thread(() -> run(afterId), "thumbnail-regeneration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * 현재 페이지까지 처리하고 멈춤 (다음 실행은 기록된 위치부터)
+     */
+    public boolean stop() {
+        if (!running.get()) {
+            return false;
+        }
+        stopRequested.set(true);
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        int done = regenerated.get() + skipped.get() + failed.get();
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        double elapsedSeconds = startedAt != null ? Duration.between(startedAt, end).toMillis() / 1000.0 : 0;
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("stopRequested", stopRequested.get());
+        status.put("completed", completed);
+        status.put("total", total);
+        status.put("done", done);
+        status.put("regenerated", regenerated.get());
+        status.put("skipped", skipped.get());
+        status.put("failed", failed.get());
+        status.put("progressPercent", total > 0 ? Math.min(100.0, done * 100.0 / total) : 0);
+        status.put("postsPerSecond", elapsedSeconds > 0 ? done / elapsedSeconds : 0);
+        status.put("parallelism", parallelism);
+        status.put("startPostId", startPostId);
+        status.put("checkpointPostId", checkpointPostId);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    private void run(long afterId) {
+        // 실행 중이거나 대기열에 있는 이 작업의 게시글 수 제한
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        try {
+            while (!stopRequested.get()) {
+                List<Long> postIds = postRepository.findIdsWithThumbnailStatusAfter(
+                        afterId, ThumbnailStatus.DONE, PageRequest.of(0, pageSize));
+                if (postIds.isEmpty()) {
+                    completed = true;
+                    break;
+                }
+                // 페이지 안의 작업은 순서 없이 끝나므로 페이지가 모두 끝난 뒤에 위치를 기록
+                Phaser pending = new Phaser(1);
+                for (Long postId : postIds) {
+                    slots.acquire();
+                    pending.register();
+                    boolean submitted = mediaTaskExecutor.submitWithBackoff("thumbnail-regeneration",
+                            MediaTaskExecutor.Priority.BACKFILL, () -> {
+                                try {
+                                    regenerate(postId);
+                                } finally {
+                                    slots.release();
+                                    pending.arriveAndDeregister();
+                                }
+                            });
+                    if (!submitted) {
+                        slots.release();
+                        pending.arriveAndDeregister();
+                        throw new IllegalStateException("미디어 작업 실행기가 종료되었습니다.");
+                    }
+                }
+                pending.awaitAdvanceInterruptibly(pending.arrive(), 1, TimeUnit.HOURS);
+                afterId = postIds.get(postIds.size() - 1);
+                saveCheckpoint(afterId);
+            }
+            // 끝까지 처리했으면 다음 실행은 처음부터
+            if (completed) {
+                saveCheckpoint(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("썸네일 재생성 중단: " + e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            System.out.println("썸네일 재생성 " + (completed ? "완료" : "중지") + ". 재생성: " + regenerated.get()
+                    + "건, 건너뜀: " + skipped.get() + "건, 실패: " + failed.get() + "건, 기록된 위치: " + checkpointPostId);
+        }
+    }
+
+    private void regenerate(Long postId) {
+        String outcome = "skipped";
+        try {
+            Post post = postRepository.findById(postId).orElse(null);
+            if (post == null || post.getVideoFilename() == null || post.getThumbnailFilename() == null
+                    || (post.getThumbnailStatus() != null && post.getThumbnailStatus() != ThumbnailStatus.DONE)) {
+                return;
+            }
+            String videoFilename = post.getVideoFilename();
+            String oldThumbnail = post.getThumbnailFilename();
+
+            String newThumbnail = fileService.generateThumbnail(videoFilename);
+            // 프레임을 추출하지 못하면 기존 썸네일을 유지
+            if (fileService.isDefaultThumbnail(newThumbnail)) {
+                return;
+            }
+            int updated = postRepository.replaceThumbnail(postId, videoFilename, oldThumbnail, newThumbnail,
+                    ThumbnailStatus.DONE);
+            if (updated == 0) {
+                // 작업 중 게시글의 동영상이나 썸네일이 바뀜
+                fileService.deleteThumbnail(newThumbnail);
+                return;
+            }
+            fileService.deleteThumbnail(oldThumbnail);
+            outcome = "regenerated";
+        } catch (Exception e) {
+            outcome = "failed";
+            System.out.println("썸네일 재생성 실패. Post ID: " + postId + ", 오류: " + e.getMessage());
+        } finally {
+            switch (outcome) {
+                case "regenerated" -> regenerated.incrementAndGet();
+                case "failed" -> failed.incrementAndGet();
+                default -> skipped.incrementAndGet();
+            }
+            meterRegistry.counter("media.thumbnail.regeneration.posts", "outcome", outcome).increment();
+        }
+    }
+
+    private void saveCheckpoint(long lastPostId) {
+        MediaJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseGet(() -> {
+            MediaJobCheckpoint created = new MediaJobCheckpoint();
+            created.setJobName(JOB_NAME);
+            return created;
+        });
+        checkpoint.setLastPostId(lastPostId);
+        checkpointRepository.save(checkpoint);
+        checkpointPostId = lastPostId;
+    }
+}
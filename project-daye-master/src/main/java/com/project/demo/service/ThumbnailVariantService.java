@@ -0,0 +1,92 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.StoredFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * 썸네일 축소본 제공
+ * - 축소본은 처음 요청될 때 만들어 저장소에 보관 (이후 요청은 저장된 파일 사용)
+ * - 같은 축소본을 동시에 요청하면 한 번만 만들고 나머지 요청은 그 결과를 기다림 (최대 wait-ms)
+ */
+@Service
+public class ThumbnailVariantService {
+
+    // 축소본 파일명 ({uuid}-w320.jpg), 축소본의 축소본은 만들지 않음
+    private static final Pattern VARIANT_FILENAME = Pattern.compile(".+-w\\d+\\.jpg");
+
+    @Autowired
+    private FileService fileService;
+
+    // 다른 요청이 만드는 축소본을 기다리는 최대 시간 (넘으면 요청 실패, 요청 스레드가 무한히 묶이지 않도록)
+    @Value("${media.thumbnail.variant-wait-ms:10000}")
+    private long waitMillis;
+
+    // 만드는 중인 축소본 (파일명 → 작업 결과)
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 요청 너비에 맞는 썸네일 파일 (원본이 없으면 null)
+     */
+    public StoredFile getThumbnail(String thumbnailFilename, Integer requestedWidth) throws IOException {
+        StoredFile original = fileService.getThumbnailFile(thumbnailFilename);
+        if (!original.exists()) {
+            return null;
+        }
+
+        int width = fileService.resolveThumbnailWidth(requestedWidth);
+        if (width >= FileService.THUMBNAIL_WIDTH || VARIANT_FILENAME.matcher(thumbnailFilename).matches()) {
+            return original;
+        }
+
+        String variantFilename = fileService.thumbnailVariantFilename(thumbnailFilename, width);
+        StoredFile variant = fileService.getThumbnailFile(variantFilename);
+        if (variant.exists()) {
+            return variant;
+        }
+
+        CompletableFuture<Void> render = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(variantFilename, render);
+        if (existing != null) {
+            await(existing);
+            return variant;
+        }
+
+        try {
+            // 다른 요청이 방금 만들고 끝낸 경우
+            if (!variant.exists()) {
+                fileService.renderThumbnailVariant(thumbnailFilename, width);
+            }
+            render.complete(null);
+        } catch (Throwable e) {
+            // Error(큰 이미지 디코딩 중 OutOfMemoryError 등)도 기다리는 요청에 전달
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(variantFilename, render);
+        }
+        return variant;
+    }
+
+    private void await(CompletableFuture<Void> render) throws IOException {
+        try {
+            render.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("썸네일 축소본 생성 대기 시간이 초과되었습니다.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("썸네일 축소본 생성 대기가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("썸네일 축소본 생성에 실패했습니다.", e.getCause());
+        }
+    }
+}
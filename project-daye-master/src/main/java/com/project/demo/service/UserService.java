@@ -11,7 +11,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.ArrayList;
 
@@ -24,6 +26,9 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PostSearchIndexService postSearchIndexService;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -136,7 +141,11 @@ public class UserService implements UserDetailsService {
             throw new RuntimeException("관리자는 수정할 수 없습니다.");
         }
         
+        boolean fullNameChanged = !Objects.equals(user.getFullName(), request.getFullName());
         user.setFullName(request.getFullName());
+        if (fullNameChanged) {
+            user.setFullNameChangedAt(LocalDateTime.now());
+        }
         user.setEmail(request.getEmail());
         user.setPhoneNumber(request.getPhoneNumber());
         user.setEnabled(request.isEnabled());
@@ -155,6 +164,11 @@ public class UserService implements UserDetailsService {
         }
         
         userRepository.save(user);
+        
+        // 작성자 이름으로도 검색되므로 게시글 색인 갱신
+        if (fullNameChanged) {
+            postSearchIndexService.reindexAuthorAfterCommit(userId);
+        }
     }
 
     // DTO 클래스
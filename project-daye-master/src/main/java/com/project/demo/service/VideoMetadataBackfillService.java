@@ -0,0 +1,141 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 기존 게시글의 동영상 메타데이터 백필
+ * - 메타데이터가 없는 게시글을 id 순서로 페이지 단위 조회
+ * - 미디어 작업 실행기에 가장 낮은 우선순위(BACKFILL)로 등록하고 동시에 media.metadata.backfill-concurrency개까지 처리
+ *   (실행기의 media.executor.max-running.backfill을 넘지는 않음)
+ * - 대기열이 가득 차면 기다렸다가 다시 등록하므로 새 업로드 작업을 밀어내지 않음
+ */
+@Service
+public class VideoMetadataBackfillService {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    // 동시에 메타데이터를 읽는 게시글 수
+    @Value("${media.metadata.backfill-concurrency:2}")
+    private int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * 백필 시작 (이미 실행 중이면 false)
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        processed.set(0);
+        failed.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+
+        Thread thread = new Thread(this::run, "metadata-backfill");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("processed", processed.get());
+        status.put("failed", failed.get());
+        status.put("concurrency", concurrency);
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        return status;
+    }
+
+    private void run() {
+        // 등록한 작업이 모두 끝날 때까지 기다리기 위한 동기화 (작업마다 등록하고 끝나면 해제)
+        Phaser pending = new Phaser(1);
+        // 실행 중이거나 대기열에 있는 이 작업의 게시글 수 제한
+        Semaphore slots = new Semaphore(Math.max(1, concurrency));
+
+        try {
+            long afterId = 0;
+            while (true) {
+                List<Long> postIds = postRepository.findIdsMissingVideoMetadata(afterId, PageRequest.of(0, PAGE_SIZE));
+                if (postIds.isEmpty()) {
+                    break;
+                }
+                for (Long postId : postIds) {
+                    slots.acquire();
+                    pending.register();
+                    boolean submitted = mediaTaskExecutor.submitWithBackoff("metadata-backfill",
+                            MediaTaskExecutor.Priority.BACKFILL, () -> {
+                                try {
+                                    backfill(postId);
+                                } finally {
+                                    slots.release();
+                                    pending.arriveAndDeregister();
+                                }
+                            });
+                    if (!submitted) {
+                        slots.release();
+                        pending.arriveAndDeregister();
+                        throw new IllegalStateException("미디어 작업 실행기가 종료되었습니다.");
+                    }
+                }
+                afterId = postIds.get(postIds.size() - 1);
+            }
+            pending.awaitAdvanceInterruptibly(pending.arrive(), 1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("메타데이터 백필 중단: " + e.getMessage());
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+            System.out.println("메타데이터 백필 완료. 처리: " + processed.get() + "건, 실패: " + failed.get() + "건");
+        }
+    }
+
+    private void backfill(Long postId) {
+        try {
+            Post post = postRepository.findById(postId).orElse(null);
+            if (post == null || post.getVideoFilename() == null) {
+                return;
+            }
+            FileService.VideoMetadata metadata = fileService.probeVideo(post.getVideoFilename());
+            postRepository.updateVideoMetadata(postId, post.getVideoFilename(),
+                    metadata.getDurationMillis(), metadata.getWidth(), metadata.getHeight(),
+                    metadata.getFrameRate(), metadata.getCodec());
+            processed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            System.out.println("메타데이터 백필 실패. Post ID: " + postId + ", 오류: " + e.getMessage());
+        }
+    }
+}
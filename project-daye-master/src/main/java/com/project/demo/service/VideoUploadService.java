@@ -0,0 +1,458 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.MediaBlob;
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.entity.User;
+import com.project.demo.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 게시글 저장 전에 먼저 올라온 동영상 관리
+ * - 업로드된 파일은 최종 경로에 바로 저장되고, 게시글 작성/수정 시 토큰으로 가져감
+ *   (게시글 폼의 multipart 동영상도 컨트롤러가 트랜잭션 전에 같은 방식으로 저장)
+ * - 이어받기 업로드: 세션 생성 → 번호가 붙은 청크 업로드 (첫 청크를 받은 뒤에는 순서 무관, 병렬 가능) → 완료 시 토큰 발급
+ * - 업로드가 끝난 파일은 fast start 변환 후 내용 해시 저장소에 등록되어, 같은 동영상이 이미 있으면 기존 파일을 공유
+ * - 일정 시간 안에 게시글에 연결되지 않은 업로드는 참조를 반환하고, 중단된 세션은 파일을 삭제
+ */
+@Service
+public class VideoUploadService {
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private MediaBlobService mediaBlobService;
+
+    @Autowired
+    private FastStartService fastStartService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${media.upload.staged-ttl-ms:3600000}")
+    private long stagedTtlMillis;
+
+    @Value("${media.upload.chunk-size:8388608}")
+    private long chunkSize;
+
+    @Value("${media.upload.session-ttl-ms:86400000}")
+    private long sessionTtlMillis;
+
+    private final Map<String, StagedUpload> stagedUploads = new ConcurrentHashMap<>();
+
+    private final Map<String, UploadSession> uploadSessions = new ConcurrentHashMap<>();
+
+    /**
+     * 요청 본문을 저장하고 게시글 작성 시 사용할 업로드 토큰 발급
+     */
+    public StagedUpload stage(User owner, InputStream in, String originalFilename,
+                              String contentType, long contentLength) {
+        FileService.StoredVideo stored = fileService.storeVideoStream(in, originalFilename, contentLength);
+        try {
+            // 변환했으면 기록하면서 계산한 해시는 원본 내용이므로 변환하면서 계산한 해시를 사용
+            FastStartService.PreparedUpload prepared = fastStartService.prepareUpload(stored.getFilename());
+            String sha256 = prepared.getSha256() != null ? prepared.getSha256() : stored.getSha256();
+            String filename = mediaBlobService.store(stored.getFilename(), sha256, stored.getSize());
+            return register(owner.getId(), filename, originalFilename, contentType,
+                    stored.getSize(), sha256, prepared.getStatus());
+        } catch (RuntimeException e) {
+            fileService.deleteFile(stored.getFilename());
+            throw e;
+        }
+    }
+
+    /**
+     * 게시글 폼에서 multipart로 받은 동영상을 같은 방식으로 저장하고 업로드 토큰 발급
+     * 게시글 트랜잭션 전에 호출해서 fast start 변환과 해시 계산 중에 DB 연결을 잡지 않음
+     */
+    public StagedUpload stage(User owner, MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return stage(owner, in, file.getOriginalFilename(), file.getContentType(), file.getSize());
+        } catch (IOException e) {
+            throw new RuntimeException("파일 업로드에 실패했습니다.", e);
+        }
+    }
+
+    /**
+     * 업로드 전 확인: 본인이 이미 올린 동영상과 같은 해시면 전송 없이 업로드 토큰 발급 (아니면 null)
+     * 해시는 누구나 알 수 있으므로 파일을 가졌다는 증거가 되지 않음
+     * → 본인 게시글이나 아직 연결하지 않은 본인 업로드가 사용하는 파일만 공유
+     */
+    public StagedUpload stageExisting(User owner, String sha256, String originalFilename, String contentType) {
+        MediaBlob blob = mediaBlobService.acquireExisting(sha256.toLowerCase(),
+                filename -> ownsVideo(owner.getId(), filename));
+        if (blob == null) {
+            return null;
+        }
+        // fast start 상태는 썸네일 작업에서 파일을 보고 기록
+        return register(owner.getId(), blob.getFilename(), originalFilename, contentType,
+                blob.getSize(), blob.getSha256(), null);
+    }
+
+    private boolean ownsVideo(Long ownerId, String filename) {
+        for (StagedUpload upload : stagedUploads.values()) {
+            if (upload.getOwnerId().equals(ownerId) && upload.getFilename().equals(filename)) {
+                return true;
+            }
+        }
+        return postRepository.existsByAuthorIdAndVideoFilename(ownerId, filename);
+    }
+
+    private StagedUpload register(Long ownerId, String filename, String originalName, String contentType,
+                                  long size, String sha256, FastStartStatus fastStart) {
+        StagedUpload upload = new StagedUpload();
+        upload.setToken(UUID.randomUUID().toString());
+        upload.setOwnerId(ownerId);
+        upload.setFilename(filename);
+        upload.setOriginalName(originalName);
+        upload.setContentType(contentType);
+        upload.setSize(size);
+        upload.setSha256(sha256);
+        upload.setFastStart(fastStart);
+        upload.setCreatedAt(System.currentTimeMillis());
+        stagedUploads.put(upload.getToken(), upload);
+
+        System.out.println("동영상 업로드 완료: " + filename + " (" + size + " bytes)");
+        return upload;
+    }
+
+    /**
+     * 이어받기 업로드 세션 생성 (최종 경로에 빈 파일을 만들어 둠)
+     */
+    public UploadSession createSession(User owner, String originalFilename, String contentType, long size) {
+        String filename = fileService.createVideoFile(originalFilename, size);
+
+        UploadSession session = new UploadSession();
+        session.setUploadId(UUID.randomUUID().toString());
+        session.setOwnerId(owner.getId());
+        session.setFilename(filename);
+        session.setOriginalName(originalFilename);
+        session.setContentType(contentType);
+        session.setSize(size);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) ((size + chunkSize - 1) / chunkSize));
+        session.touch();
+        uploadSessions.put(session.getUploadId(), session);
+        return session;
+    }
+
+    public UploadSession getSession(String uploadId, User owner) {
+        UploadSession session = uploadSessions.get(uploadId);
+        if (session == null) {
+            throw new RuntimeException("업로드 세션을 찾을 수 없습니다. 처음부터 다시 업로드해주세요.");
+        }
+        if (!session.getOwnerId().equals(owner.getId())) {
+            throw new RuntimeException("업로드한 사용자만 접근할 수 있습니다.");
+        }
+        return session;
+    }
+
+    /**
+     * 청크 기록 (이미 받은 청크를 다시 보내면 덮어씀)
+     * @param contentLength 요청의 Content-Length (알 수 없으면 -1)
+     */
+    public UploadSession writeChunk(String uploadId, User owner, int index, InputStream in, long contentLength) {
+        UploadSession session = getSession(uploadId, owner);
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new RuntimeException("청크 번호가 올바르지 않습니다.");
+        }
+        long position = index * session.getChunkSize();
+        long length = Math.min(session.getChunkSize(), session.getSize() - position);
+        if (contentLength >= 0 && contentLength != length) {
+            throw new RuntimeException("청크 크기가 올바르지 않습니다.");
+        }
+
+        // 첫 청크로 컨테이너 형식을 확인하고, 동영상이 아니면 세션을 취소해서 나머지 청크를 받지 않음
+        // (나머지 청크는 첫 청크가 확인되고 기록된 뒤에만 받음, beginWrite에서 검사)
+        if (index == 0) {
+            try {
+                in = fileService.checkVideoContainer(in, session.getOriginalName());
+            } catch (IOException e) {
+                throw new RuntimeException("청크 저장에 실패했습니다.", e);
+            } catch (RuntimeException e) {
+                discardSession(session);
+                throw e;
+            }
+        }
+
+        session.beginWrite(index);
+        boolean written = false;
+        try {
+            fileService.writeVideoChunk(session.getFilename(), in, position, length);
+            written = true;
+        } finally {
+            session.endWrite(index, written);
+        }
+        return session;
+    }
+
+    /**
+     * 모든 청크를 받은 세션을 완료하고 게시글 작성에 사용할 업로드 토큰 발급
+     */
+    public StagedUpload completeSession(String uploadId, User owner) {
+        UploadSession session = getSession(uploadId, owner);
+        session.complete();
+        uploadSessions.remove(uploadId, session);
+
+        try {
+            // 청크는 순서 없이 기록되므로 변환하지 않은 파일만 다시 읽어서 해시 계산
+            FastStartService.PreparedUpload prepared = fastStartService.prepareUpload(session.getFilename());
+            String sha256 = prepared.getSha256() != null
+                    ? prepared.getSha256() : fileService.computeSha256(session.getFilename());
+            String filename = mediaBlobService.store(session.getFilename(), sha256, session.getSize());
+            return register(session.getOwnerId(), filename, session.getOriginalName(),
+                    session.getContentType(), session.getSize(), sha256, prepared.getStatus());
+        } catch (RuntimeException e) {
+            fileService.deleteFile(session.getFilename());
+            throw e;
+        }
+    }
+
+    /**
+     * 업로드 세션 취소 (기록 중이던 파일 삭제)
+     */
+    public void abortSession(String uploadId, User owner) {
+        UploadSession session = getSession(uploadId, owner);
+        if (!discardSession(session)) {
+            throw new RuntimeException("청크를 기록하는 중에는 취소할 수 없습니다.");
+        }
+    }
+
+    // 세션을 닫고 기록 중이던 파일 삭제 (기록 중인 청크가 있으면 false)
+    private boolean discardSession(UploadSession session) {
+        if (!session.expire()) {
+            return false;
+        }
+        if (uploadSessions.remove(session.getUploadId(), session)) {
+            fileService.deleteFile(session.getFilename());
+        }
+        return true;
+    }
+
+    /**
+     * 업로드 토큰으로 파일을 가져감 (한 번만 사용 가능)
+     * 업로드가 가진 저장소 참조는 게시글로 넘어감
+     */
+    public StagedUpload claim(String token, User owner) {
+        StagedUpload upload = stagedUploads.get(token);
+        if (upload == null) {
+            throw new RuntimeException("업로드된 동영상을 찾을 수 없습니다. 다시 업로드해주세요.");
+        }
+        if (!upload.getOwnerId().equals(owner.getId())) {
+            throw new RuntimeException("업로드한 사용자만 동영상을 사용할 수 있습니다.");
+        }
+        if (!stagedUploads.remove(token, upload)) {
+            throw new RuntimeException("이미 사용된 업로드입니다.");
+        }
+        return upload;
+    }
+
+    /**
+     * 게시글에 연결하지 못한 업로드의 참조 반환 (이미 가져간 토큰이면 무시)
+     */
+    public void discard(String token, User owner) {
+        StagedUpload upload = stagedUploads.get(token);
+        if (upload != null && upload.getOwnerId().equals(owner.getId()) && stagedUploads.remove(token, upload)) {
+            mediaBlobService.release(upload.getFilename());
+        }
+    }
+
+    /**
+     * 아직 게시글에 연결되지 않은 업로드 파일 (이어받기 중인 세션 포함, 미사용 파일 정리에서 제외)
+     */
+    public Set<String> getActiveFilenames() {
+        Set<String> filenames = new HashSet<>();
+        stagedUploads.values().forEach(upload -> filenames.add(upload.getFilename()));
+        uploadSessions.values().forEach(session -> filenames.add(session.getFilename()));
+        return filenames;
+    }
+
+    /**
+     * 게시글에 연결되지 않고 만료된 업로드 파일과 오래 멈춘 업로드 세션 삭제
+     */
+    @Scheduled(fixedDelayString = "${media.upload.cleanup-interval-ms:600000}")
+    public void cleanupExpiredUploads() {
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - stagedTtlMillis;
+        stagedUploads.values().removeIf(upload -> {
+            if (upload.getCreatedAt() >= expiredBefore) {
+                return false;
+            }
+            mediaBlobService.release(upload.getFilename());
+            System.out.println("만료된 업로드 정리: " + upload.getFilename());
+            return true;
+        });
+
+        long inactiveBefore = now - sessionTtlMillis;
+        uploadSessions.values().removeIf(session -> {
+            if (session.getLastActivityAt() >= inactiveBefore || !session.expire()) {
+                return false;
+            }
+            fileService.deleteFile(session.getFilename());
+            System.out.println("중단된 업로드 세션 삭제: " + session.getUploadId());
+            return true;
+        });
+    }
+
+    // DTO 클래스들
+    public static class StagedUpload {
+        private String token;
+        private Long ownerId;
+        private String filename;
+        private String originalName;
+        private String contentType;
+        private long size;
+        private String sha256;
+        private FastStartStatus fastStart;
+        private long createdAt;
+
+        public String getToken() { return token; }
+        public void setToken(String token) { this.token = token; }
+
+        public Long getOwnerId() { return ownerId; }
+        public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+
+        public String getOriginalName() { return originalName; }
+        public void setOriginalName(String originalName) { this.originalName = originalName; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
+
+        public FastStartStatus getFastStart() { return fastStart; }
+        public void setFastStart(FastStartStatus fastStart) { this.fastStart = fastStart; }
+
+        public long getCreatedAt() { return createdAt; }
+        public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+    }
+
+    /**
+     * 이어받기 업로드 세션
+     * 받은 청크는 BitSet으로 관리하며, 앞에서부터 연속으로 받은 구간까지를 확정된 위치로 봄
+     */
+    public static class UploadSession {
+        private String uploadId;
+        private Long ownerId;
+        private String filename;
+        private String originalName;
+        private String contentType;
+        private long size;
+        private long chunkSize;
+        private int totalChunks;
+        private volatile long lastActivityAt;
+
+        private final BitSet receivedChunks = new BitSet();
+        private int activeWrites;
+        private boolean closed;
+
+        public String getUploadId() { return uploadId; }
+        public void setUploadId(String uploadId) { this.uploadId = uploadId; }
+
+        public Long getOwnerId() { return ownerId; }
+        public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+        public String getFilename() { return filename; }
+        public void setFilename(String filename) { this.filename = filename; }
+
+        public String getOriginalName() { return originalName; }
+        public void setOriginalName(String originalName) { this.originalName = originalName; }
+
+        public String getContentType() { return contentType; }
+        public void setContentType(String contentType) { this.contentType = contentType; }
+
+        public long getSize() { return size; }
+        public void setSize(long size) { this.size = size; }
+
+        public long getChunkSize() { return chunkSize; }
+        public void setChunkSize(long chunkSize) { this.chunkSize = chunkSize; }
+
+        public int getTotalChunks() { return totalChunks; }
+        public void setTotalChunks(int totalChunks) { this.totalChunks = totalChunks; }
+
+        public long getLastActivityAt() { return lastActivityAt; }
+
+        void touch() {
+            lastActivityAt = System.currentTimeMillis();
+        }
+
+        synchronized void beginWrite(int index) {
+            if (closed) {
+                throw new RuntimeException("이미 완료되었거나 취소된 업로드입니다.");
+            }
+            if (index > 0 && !receivedChunks.get(0)) {
+                throw new RuntimeException("첫 번째 청크를 먼저 올려야 합니다.");
+            }
+            activeWrites++;
+            touch();
+        }
+
+        synchronized void endWrite(int index, boolean written) {
+            activeWrites--;
+            if (written) {
+                receivedChunks.set(index);
+            }
+            touch();
+        }
+
+        synchronized void complete() {
+            if (closed) {
+                throw new RuntimeException("이미 완료되었거나 취소된 업로드입니다.");
+            }
+            if (activeWrites > 0 || receivedChunks.cardinality() < totalChunks) {
+                throw new RuntimeException("아직 받지 못한 청크가 있습니다.");
+            }
+            closed = true;
+        }
+
+        // 기록 중인 청크가 없을 때만 만료 처리
+        synchronized boolean expire() {
+            if (activeWrites > 0) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        /**
+         * 앞에서부터 연속으로 받은 바이트 수 (클라이언트는 이 위치부터 이어서 올리면 됨)
+         */
+        public synchronized long getCommittedOffset() {
+            return Math.min(size, receivedChunks.nextClearBit(0) * chunkSize);
+        }
+
+        public synchronized int getReceivedChunkCount() {
+            return receivedChunks.cardinality();
+        }
+
+        public synchronized List<Integer> getMissingChunks() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = receivedChunks.nextClearBit(0); i < totalChunks; i = receivedChunks.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return missing;
+        }
+    }
+}
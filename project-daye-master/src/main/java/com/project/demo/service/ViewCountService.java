@@ -0,0 +1,138 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 게시글 조회수 (메모리에 모았다가 주기적으로 DB에 반영)
+ * - 조회할 때마다 게시글을 읽고 저장하지 않고 게시글별 LongAdder에 더하기만 함 (같은 게시글 동시 조회도 잠금 없음)
+ * - flush-interval-ms마다 모인 증가분을 UPDATE posts SET view_count = view_count + ? 배치로 한 번에 반영
+ * - 반영에 실패하면 증가분을 다시 더해 두고 다음 주기에 재시도, 종료할 때도 남은 증가분을 반영
+ * - 목록의 조회수는 최대 flush-interval-ms만큼 늦게 보임 (게시글 화면은 반영 전 증가분을 더해서 표시)
+ */
+@Service
+public class ViewCountService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // 게시글 id → 아직 반영하지 않은 증가분
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // 지난 반영 때 증가분이 없어 제거한 카운터 (제거 직전에 가져간 스레드가 더한 값을 다음 반영 때 모음, 반영 스레드만 사용)
+    private List<Map.Entry<Long, LongAdder>> retired = new ArrayList<>();
+
+    public ViewCountService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 반영 대기 중인 조회수 증가분 합계와 게시글 수
+        Gauge.builder("posts.views.pending", this, ViewCountService::getPendingTotal)
+                .register(meterRegistry);
+        Gauge.builder("posts.views.pending.posts", pending, Map::size)
+                .register(meterRegistry);
+    }
+
+    public void increment(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        LongAdder adder = pending.get(postId);
+        if (adder == null) {
+            adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * 아직 DB에 반영하지 않은 증가분 (게시글 화면 표시용)
+     */
+    public long getPending(Long postId) {
+        LongAdder adder = pending.get(postId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public long getPendingTotal() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${posts.view-count.flush-interval-ms:5000}",
+               initialDelayString = "${posts.view-count.flush-interval-ms:5000}")
+    public void flushScheduled() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 모인 증가분을 DB에 반영 (id 순서로 갱신해서 동시에 실행되는 다른 갱신과 잠금 순서를 맞춤)
+     * @return 반영한 게시글 수
+     */
+    public synchronized int flush() {
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Long, LongAdder> entry : retired) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            }
+        }
+        retired = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta > 0) {
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                retired.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((postId, delta) -> batch.add(new Object[]{delta, postId}));
+        long startTime = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE posts SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?", batch));
+        } catch (RuntimeException e) {
+            // 반영하지 못한 증가분은 다음 주기에 다시 시도
+            deltas.forEach((postId, delta) -> pending.computeIfAbsent(postId, id -> new LongAdder()).add(delta));
+            meterRegistry.counter("posts.views.flush.failures").increment();
+            System.out.println("조회수 반영 실패 (" + deltas.size() + "개 게시글, 다음 주기에 재시도): " + e.getMessage());
+            return 0;
+        }
+        meterRegistry.timer("posts.views.flush").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("posts.views.flushed").increment(deltas.values().stream().mapToLong(Long::longValue).sum());
+        return deltas.size();
+    }
+}
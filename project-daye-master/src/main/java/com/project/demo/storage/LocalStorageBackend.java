@@ -0,0 +1,146 @@
+package com.project.demo.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 로컬 파일 시스템 저장소
+ * 경로: {media.storage.root}/{영역}/{ab}/{cd}/{파일명} (ab/cd는 파일명 해시 앞자리)
+ * 아직 옮기지 않은 기존 파일({media.storage.legacy-root}/{영역}/{파일명})은 읽기/삭제 시 대신 사용
+ * (StorageMigrationService가 옮기기 전에도 기존 게시글의 동영상/썸네일이 보이도록)
+ */
+@Component
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+
+    private final Path legacyRoot;
+
+    public LocalStorageBackend(String root) {
+        this(root, "");
+    }
+
+    @Autowired
+    public LocalStorageBackend(@Value("${media.storage.root:./media-storage}") String root,
+                               @Value("${media.storage.legacy-root:}") String legacyRoot) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.legacyRoot = legacyRoot == null || legacyRoot.isBlank()
+                ? null : Paths.get(legacyRoot).toAbsolutePath().normalize();
+        try {
+            for (Area area : Area.values()) {
+                Files.createDirectories(this.root.resolve(area.getDirectoryName()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("디렉토리 생성에 실패했습니다.", e);
+        }
+        System.out.println("미디어 저장소 경로: " + this.root);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    private Path resolve(Area area, String name) {
+        StorageBackend.validateName(name);
+        return root.resolve(area.getDirectoryName())
+                .resolve(StorageBackend.fanOutPrefix(name))
+                .resolve(name);
+    }
+
+    /**
+     * 읽기용 경로: 분산 경로에 없고 기존 경로에 있으면 기존 경로
+     */
+    private Path resolveExisting(Area area, String name) {
+        Path path = resolve(area, name);
+        if (legacyRoot == null || Files.exists(path)) {
+            return path;
+        }
+        Path legacy = legacyRoot.resolve(area.getDirectoryName()).resolve(name);
+        return Files.isRegularFile(legacy) ? legacy : path;
+    }
+
+    @Override
+    public boolean exists(Area area, String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            return false;
+        }
+        return Files.isRegularFile(resolveExisting(area, name));
+    }
+
+    @Override
+    public long size(Area area, String name) throws IOException {
+        return Files.size(resolveExisting(area, name));
+    }
+
+    @Override
+    public long lastModified(Area area, String name) throws IOException {
+        return Files.getLastModifiedTime(resolveExisting(area, name)).toMillis();
+    }
+
+    @Override
+    public SeekableByteChannel openRead(Area area, String name) throws IOException {
+        return FileChannel.open(resolveExisting(area, name), StandardOpenOption.READ);
+    }
+
+    @Override
+    public SeekableByteChannel openWrite(Area area, String name, boolean createNew) throws IOException {
+        Path path = resolve(area, name);
+        if (createNew) {
+            Files.createDirectories(path.getParent());
+            return FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+        return FileChannel.open(path, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public boolean delete(Area area, String name) throws IOException {
+        return Files.deleteIfExists(resolveExisting(area, name));
+    }
+
+    @Override
+    public void move(Area sourceArea, String source, Area targetArea, String target) throws IOException {
+        Path targetPath = resolve(targetArea, target);
+        Files.createDirectories(targetPath.getParent());
+        Files.move(resolveExisting(sourceArea, source), targetPath,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public List<String> list(Area area) throws IOException {
+        Path areaDir = root.resolve(area.getDirectoryName());
+        // {영역}/{ab}/{cd}/{파일명} 깊이의 파일만 대상
+        try (Stream<Path> paths = Files.find(areaDir, 3,
+                (path, attributes) -> attributes.isRegularFile() && areaDir.relativize(path).getNameCount() == 3)) {
+            return paths.map(path -> path.getFileName().toString()).collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(Area area, String name) {
+        return Optional.of(resolveExisting(area, name));
+    }
+
+    @Override
+    public Optional<Path> storePath(Area area, String name) {
+        return Optional.of(resolve(area, name));
+    }
+}
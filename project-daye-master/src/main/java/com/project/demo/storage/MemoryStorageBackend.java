@@ -0,0 +1,233 @@
+package com.project.demo.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메모리 저장소 (테스트용, media.storage.type=memory)
+ * 로컬 파일 경로가 없으므로 sendfile 대신 채널 전송을, FFmpeg은 스트림 입력을 사용하게 됨
+ */
+@Component
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "memory")
+public class MemoryStorageBackend implements StorageBackend {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static String key(Area area, String name) {
+        StorageBackend.validateName(name);
+        return area.getDirectoryName() + "/" + name;
+    }
+
+    private Entry entry(Area area, String name) throws IOException {
+        Entry entry = entries.get(key(area, name));
+        if (entry == null) {
+            throw new NoSuchFileException(area.getDirectoryName() + "/" + name);
+        }
+        return entry;
+    }
+
+    @Override
+    public boolean exists(Area area, String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            return false;
+        }
+        return entries.containsKey(key(area, name));
+    }
+
+    @Override
+    public long size(Area area, String name) throws IOException {
+        return entry(area, name).size();
+    }
+
+    @Override
+    public long lastModified(Area area, String name) throws IOException {
+        return entry(area, name).lastModified;
+    }
+
+    @Override
+    public SeekableByteChannel openRead(Area area, String name) throws IOException {
+        return new EntryChannel(entry(area, name), false);
+    }
+
+    @Override
+    public SeekableByteChannel openWrite(Area area, String name, boolean createNew) throws IOException {
+        if (createNew) {
+            Entry entry = new Entry();
+            if (entries.putIfAbsent(key(area, name), entry) != null) {
+                throw new FileAlreadyExistsException(area.getDirectoryName() + "/" + name);
+            }
+            return new EntryChannel(entry, true);
+        }
+        return new EntryChannel(entry(area, name), true);
+    }
+
+    @Override
+    public boolean delete(Area area, String name) {
+        return entries.remove(key(area, name)) != null;
+    }
+
+    @Override
+    public void move(Area sourceArea, String source, Area targetArea, String target) throws IOException {
+        Entry entry = entries.remove(key(sourceArea, source));
+        if (entry == null) {
+            throw new NoSuchFileException(sourceArea.getDirectoryName() + "/" + source);
+        }
+        entries.put(key(targetArea, target), entry);
+    }
+
+    @Override
+    public List<String> list(Area area) {
+        String prefix = area.getDirectoryName() + "/";
+        List<String> names = new ArrayList<>();
+        for (String key : entries.keySet()) {
+            if (key.startsWith(prefix)) {
+                names.add(key.substring(prefix.length()));
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public Optional<Path> localPath(Area area, String name) {
+        return Optional.empty();
+    }
+
+    // 파일 내용 (여러 채널이 동시에 접근하므로 동기화)
+    private static class Entry {
+        private byte[] data = new byte[0];
+        private int length;
+        private volatile long lastModified = System.currentTimeMillis();
+
+        synchronized long size() {
+            return length;
+        }
+
+        synchronized int read(long position, ByteBuffer target) {
+            if (position >= length) {
+                return -1;
+            }
+            int count = (int) Math.min(target.remaining(), length - position);
+            target.put(data, (int) position, count);
+            return count;
+        }
+
+        synchronized int write(long position, ByteBuffer source) {
+            int count = source.remaining();
+            long end = position + count;
+            if (end > Integer.MAX_VALUE) {
+                throw new IllegalStateException("메모리 저장소는 2GB를 넘는 파일을 저장할 수 없습니다.");
+            }
+            if (end > data.length) {
+                data = Arrays.copyOf(data, (int) Math.max(end, Math.min(Integer.MAX_VALUE, data.length * 2L)));
+            }
+            source.get(data, (int) position, count);
+            length = (int) Math.max(length, end);
+            lastModified = System.currentTimeMillis();
+            return count;
+        }
+
+        synchronized void truncate(long size) {
+            if (size < length) {
+                length = (int) size;
+                lastModified = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private static class EntryChannel implements SeekableByteChannel {
+        private final Entry entry;
+        private final boolean writable;
+        private long position;
+        private boolean open = true;
+
+        EntryChannel(Entry entry, boolean writable) {
+            this.entry = entry;
+            this.writable = writable;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            int read = entry.read(position, dst);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            ensureOpen();
+            if (!writable) {
+                throw new NonWritableChannelException();
+            }
+            int written = entry.write(position, src);
+            position += written;
+            return written;
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException();
+            }
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return entry.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            ensureOpen();
+            if (!writable) {
+                throw new NonWritableChannelException();
+            }
+            entry.truncate(size);
+            position = Math.min(position, size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
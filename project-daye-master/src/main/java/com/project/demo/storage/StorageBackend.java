@@ -0,0 +1,108 @@
+package com.project.demo.storage;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 동영상/썸네일 파일 저장소
+ * - 파일은 영역(Area)과 이름으로만 구분하며, 실제 위치는 구현체가 결정
+ * - local: 파일 시스템 (이름 해시 앞자리로 하위 디렉토리를 나눠 한 디렉토리에 파일이 몰리지 않게 함)
+ * - memory: 메모리 (테스트용)
+ */
+public interface StorageBackend {
+
+    enum Area {
+        VIDEOS("videos"),
+        THUMBNAILS("thumbnails"),
+        HLS("hls"),
+        // 참조되지 않는 파일을 삭제하기 전에 보관하는 영역 (MediaGarbageCollectionService)
+        QUARANTINE("quarantine");
+
+        private final String directoryName;
+
+        Area(String directoryName) {
+            this.directoryName = directoryName;
+        }
+
+        public String getDirectoryName() {
+            return directoryName;
+        }
+    }
+
+    // 파일명에는 경로 구분자나 상위 경로가 들어갈 수 없음
+    Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    boolean exists(Area area, String name);
+
+    long size(Area area, String name) throws IOException;
+
+    long lastModified(Area area, String name) throws IOException;
+
+    SeekableByteChannel openRead(Area area, String name) throws IOException;
+
+    /**
+     * 쓰기용 채널 (createNew면 새 파일을 만들고 이미 있으면 실패, 아니면 기존 파일에 기록)
+     * 위치를 지정해서 쓸 수 있으므로 여러 채널로 같은 파일의 다른 구간을 동시에 기록할 수 있음
+     */
+    SeekableByteChannel openWrite(Area area, String name, boolean createNew) throws IOException;
+
+    boolean delete(Area area, String name) throws IOException;
+
+    /**
+     * 같은 영역 안에서 이름 변경 (대상이 있으면 덮어씀)
+     */
+    default void move(Area area, String source, String target) throws IOException {
+        move(area, source, area, target);
+    }
+
+    /**
+     * 다른 영역으로 이동 (대상이 있으면 덮어씀, 내용은 복사하지 않음)
+     */
+    void move(Area sourceArea, String source, Area targetArea, String target) throws IOException;
+
+    List<String> list(Area area) throws IOException;
+
+    /**
+     * 로컬 파일 경로 (sendfile, FFmpeg처럼 파일 경로가 필요한 곳에서 사용, 없으면 채널로 처리)
+     */
+    Optional<Path> localPath(Area area, String name);
+
+    /**
+     * 저장소 안의 로컬 파일 경로 (기존 경로로 대체하지 않고 파일이 없어도 반환, StorageMigrationService의 이동 대상)
+     * 로컬 파일이 없는 저장소는 빈 값
+     */
+    default Optional<Path> storePath(Area area, String name) {
+        return Optional.empty();
+    }
+
+    default StoredFile file(Area area, String name) {
+        return new StoredFile(this, area, name);
+    }
+
+    static void validateName(String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("잘못된 파일명입니다: " + name);
+        }
+    }
+
+    /**
+     * 하위 디렉토리 분산용 접두어 (파일명 SHA-256 앞 4자리 → "ab/cd")
+     */
+    static String fanOutPrefix(String name) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+            String hex = HexFormat.of().formatHex(hash, 0, 2);
+            return hex.substring(0, 2) + "/" + hex.substring(2, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
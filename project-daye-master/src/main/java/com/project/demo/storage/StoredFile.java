@@ -0,0 +1,106 @@
+package com.project.demo.storage;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 저장소의 파일 하나를 가리키는 참조 (java.io.File 대신 사용)
+ */
+public class StoredFile {
+
+    private final StorageBackend backend;
+    private final StorageBackend.Area area;
+    private final String name;
+
+    public StoredFile(StorageBackend backend, StorageBackend.Area area, String name) {
+        this.backend = backend;
+        this.area = area;
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StorageBackend.Area getArea() {
+        return area;
+    }
+
+    public boolean exists() {
+        return backend.exists(area, name);
+    }
+
+    public long length() {
+        try {
+            return backend.size(area, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long lastModified() {
+        try {
+            return backend.lastModified(area, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public SeekableByteChannel openRead() throws IOException {
+        return backend.openRead(area, name);
+    }
+
+    public Optional<Path> localPath() {
+        return backend.localPath(area, name);
+    }
+
+    /**
+     * HTTP 응답 본문용 Resource (로컬 파일이면 FileSystemResource)
+     */
+    public Resource toResource() {
+        Optional<Path> path = localPath();
+        if (path.isPresent()) {
+            return new FileSystemResource(path.get());
+        }
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "stored file [" + area.getDirectoryName() + "/" + name + "]";
+            }
+
+            @Override
+            public String getFilename() {
+                return name;
+            }
+
+            @Override
+            public boolean exists() {
+                return StoredFile.this.exists();
+            }
+
+            @Override
+            public long contentLength() throws IOException {
+                return backend.size(area, name);
+            }
+
+            @Override
+            public long lastModified() throws IOException {
+                return backend.lastModified(area, name);
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return Channels.newInputStream(openRead());
+            }
+        };
+    }
+}
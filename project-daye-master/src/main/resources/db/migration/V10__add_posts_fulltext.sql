@@ -0,0 +1,7 @@
+-- 게시글 제목/내용 FULLTEXT 인덱스 (search.mode=fulltext에서 사용, MariaDB 전용)
+-- 전체 검색은 (title, content), 제목/내용 검색은 각 컬럼 인덱스를 사용 (MATCH의 컬럼 목록과 인덱스가 같아야 함)
+-- MariaDB에는 MySQL의 ngram 파서가 없으므로 기본 파서(공백/문장부호로 단어 구분)를 사용
+-- 한글 두 글자 단어가 색인되도록 서버 설정 innodb_ft_min_token_size=2 가 필요 (기본값 3, 변경 후 인덱스 재생성)
+ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title_content (title, content);
+ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_title (title);
+ALTER TABLE posts ADD FULLTEXT INDEX ft_posts_content (content);
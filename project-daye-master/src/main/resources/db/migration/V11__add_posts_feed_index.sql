@@ -0,0 +1,2 @@
+-- 피드(무한 스크롤) 커서 조회용 인덱스 (created_at DESC, id DESC 순서로 이어서 읽음)
+CREATE INDEX idx_posts_created_at_id ON posts (created_at, id);
@@ -0,0 +1,6 @@
+-- 게시글 테이블에 썸네일 생성 작업 상태 컬럼 추가 (PENDING, RUNNING, DONE, FAILED)
+ALTER TABLE posts ADD COLUMN thumbnail_status VARCHAR(20) NULL;
+
+-- 기존 게시글은 썸네일이 이미 생성된 상태로 간주
+UPDATE posts SET thumbnail_status = 'DONE' WHERE video_filename IS NOT NULL AND thumbnail_filename IS NOT NULL;
+CREATE INDEX idx_posts_thumbnail_status ON posts(thumbnail_status);
@@ -0,0 +1,6 @@
+-- 게시글 테이블에 동영상 메타데이터 컬럼 추가 (기존 게시글은 관리자 백필 작업으로 채움)
+ALTER TABLE posts ADD COLUMN video_duration_ms BIGINT NULL;
+ALTER TABLE posts ADD COLUMN video_width INT NULL;
+ALTER TABLE posts ADD COLUMN video_height INT NULL;
+ALTER TABLE posts ADD COLUMN video_frame_rate DOUBLE NULL;
+ALTER TABLE posts ADD COLUMN video_codec VARCHAR(50) NULL;
@@ -0,0 +1,2 @@
+-- 게시글 테이블에 업로드 시 계산한 동영상 SHA-256 컬럼 추가
+ALTER TABLE posts ADD COLUMN video_sha256 VARCHAR(64) NULL;
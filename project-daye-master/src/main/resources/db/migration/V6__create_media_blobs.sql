@@ -0,0 +1,11 @@
+-- 내용 해시 기준 동영상 저장소 (같은 동영상은 파일 하나를 여러 게시글이 참조)
+CREATE TABLE media_blobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_media_blobs_sha256 UNIQUE (sha256),
+    CONSTRAINT uk_media_blobs_filename UNIQUE (filename)
+);
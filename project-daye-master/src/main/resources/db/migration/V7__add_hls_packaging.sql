@@ -0,0 +1,7 @@
+-- 게시글 테이블에 HLS 패키징 작업 상태와 마스터 플레이리스트 컬럼 추가 (PENDING, RUNNING, DONE, FAILED)
+ALTER TABLE posts ADD COLUMN hls_status VARCHAR(20) NULL;
+ALTER TABLE posts ADD COLUMN hls_playlist VARCHAR(255) NULL;
+CREATE INDEX idx_posts_hls_status ON posts(hls_status);
+
+-- 기존 게시글은 원본 재생을 유지 (패키징하려면 PENDING으로 바꾸면 주기 작업이 처리함)
+-- UPDATE posts SET hls_status = 'PENDING' WHERE video_filename IS NOT NULL;
@@ -0,0 +1,3 @@
+-- 게시글 테이블에 fast start 변환 결과 컬럼 추가 (REMUXED, ALREADY, UNSUPPORTED, FAILED)
+-- 기존 게시글의 동영상은 변환하지 않음 (새로 올리거나 교체한 동영상부터 적용)
+ALTER TABLE posts ADD COLUMN video_fast_start VARCHAR(20) NULL;
@@ -0,0 +1,6 @@
+-- 일괄 작업(썸네일 재생성 등)의 진행 위치 (중단 후 이어서 처리)
+CREATE TABLE media_job_checkpoints (
+    job_name VARCHAR(50) NOT NULL PRIMARY KEY,
+    last_post_id BIGINT NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL
+);
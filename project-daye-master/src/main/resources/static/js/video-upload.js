@@ -0,0 +1,208 @@
+/*
+ * 동영상 이어받기 업로드 (게시글 작성/수정 화면 공용)
+ * - bindVideoUpload(form, fileInput): 폼 제출 시 동영상을 청크 단위로 먼저 올리고 받은 토큰만 폼으로 전송
+ * - 청크 단위로 올리고, 연결이 끊기면 받지 못한 청크만 다시 전송
+ * - 폼에는 name="uploadToken" hidden 입력이, 화면에는 id="uploadProgress" 진행 표시줄이 있어야 함
+ */
+const CHUNK_PARALLELISM = 3;
+const CHUNK_RETRIES = 3;
+// 브라우저에서 해시를 계산할 최대 파일 크기 (파일 전체를 메모리로 읽으므로 작게 유지)
+// 서버는 본인이 이미 올린 동영상일 때만 토큰을 주므로 대부분의 업로드에서는 계산이 헛수고가 됨
+const HASH_CHECK_MAX_SIZE = 32 * 1024 * 1024;
+
+// 같은 동영상이 서버에 이미 있으면 전송하지 않고 토큰만 받음 (없거나 확인할 수 없으면 null)
+async function findExistingVideo(file) {
+    if (file.size > HASH_CHECK_MAX_SIZE || !window.crypto || !window.crypto.subtle) {
+        return null;
+    }
+    try {
+        const digest = await window.crypto.subtle.digest('SHA-256', await file.arrayBuffer());
+        const sha256 = Array.from(new Uint8Array(digest))
+                .map(b => b.toString(16).padStart(2, '0')).join('');
+        const response = await fetch('/api/uploads/by-hash', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ sha256: sha256, filename: file.name, contentType: file.type })
+        });
+        if (!response.ok) {
+            return null;
+        }
+        const result = await response.json();
+        return result.uploadToken ? result : null;
+    } catch (error) {
+        return null;
+    }
+}
+
+// 해시 확인은 업로드를 막지 않고 함께 진행하고, 이미 있는 동영상이면 남은 청크 전송을 멈추고 세션을 취소
+async function uploadVideoResumable(file, progressBar) {
+    let existing = null;
+    const existingCheck = findExistingVideo(file).then(function(result) {
+        existing = result;
+        return result;
+    });
+    
+    let result;
+    let session = null;
+    try {
+        session = await openUploadSession(file);
+        result = await uploadChunks(file, session, progressBar, () => existing !== null);
+    } catch (error) {
+        // 전송에 실패해도 이미 있는 동영상이면 그 토큰을 사용
+        if (!(await existingCheck)) {
+            throw error;
+        }
+    }
+    
+    const found = await existingCheck;
+    localStorage.removeItem(resumeKeyOf(file));
+    if (result) {
+        // 전송이 먼저 끝났으면 해시 확인으로 받은 토큰은 사용하지 않으므로 반환
+        if (found) {
+            fetch('/api/uploads/' + found.uploadToken, { method: 'DELETE' }).catch(() => {});
+        }
+        return result;
+    }
+    if (session) {
+        fetch('/api/uploads/sessions/' + session.uploadId, { method: 'DELETE' }).catch(() => {});
+    }
+    updateUploadProgress(progressBar, file.size, file.size);
+    return found;
+}
+
+function resumeKeyOf(file) {
+    return 'videoUpload:' + file.name + ':' + file.size + ':' + file.lastModified;
+}
+
+async function openUploadSession(file) {
+    // 같은 파일을 다시 올리면 이전 세션을 이어서 사용
+    const resumeKey = resumeKeyOf(file);
+    let session = null;
+    const savedUploadId = localStorage.getItem(resumeKey);
+    if (savedUploadId) {
+        const response = await fetch('/api/uploads/sessions/' + savedUploadId);
+        if (response.ok) {
+            session = await response.json();
+        }
+    }
+    if (!session) {
+        const response = await fetch('/api/uploads/sessions', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ filename: file.name, contentType: file.type, size: file.size })
+        });
+        const result = await response.json().catch(() => ({}));
+        if (!response.ok) {
+            throw new Error(result.error || '동영상 업로드에 실패했습니다.');
+        }
+        session = result;
+        localStorage.setItem(resumeKey, session.uploadId);
+    }
+    return session;
+}
+
+// 받지 못한 청크를 올리고 세션을 완료 (stopped()가 true가 되면 남은 청크를 보내지 않고 null 반환)
+async function uploadChunks(file, session, progressBar, stopped) {
+    const pending = session.missingChunks.slice();
+    let uploadedBytes = file.size;
+    pending.forEach(function(index) {
+        uploadedBytes -= chunkBlob(file, session, index).size;
+    });
+    updateUploadProgress(progressBar, uploadedBytes, file.size);
+    
+    async function upload(index) {
+        const blob = chunkBlob(file, session, index);
+        await putChunk(session.uploadId, index, blob);
+        uploadedBytes += blob.size;
+        updateUploadProgress(progressBar, uploadedBytes, file.size);
+    }
+    async function worker() {
+        while (pending.length > 0 && !stopped()) {
+            await upload(pending.shift());
+        }
+    }
+    // 서버는 첫 청크로 동영상 형식을 확인한 뒤에 나머지 청크를 받으므로 첫 청크를 먼저 전송
+    if (pending[0] === 0) {
+        await upload(pending.shift());
+    }
+    const workers = [];
+    for (let i = 0; i < CHUNK_PARALLELISM; i++) {
+        workers.push(worker());
+    }
+    await Promise.all(workers);
+    if (stopped()) {
+        return null;
+    }
+    
+    const response = await fetch('/api/uploads/sessions/' + session.uploadId + '/complete', { method: 'POST' });
+    const result = await response.json().catch(() => ({}));
+    if (!response.ok || !result.uploadToken) {
+        throw new Error(result.error || '동영상 업로드에 실패했습니다.');
+    }
+    return result;
+}
+
+function chunkBlob(file, session, index) {
+    const start = index * session.chunkSize;
+    return file.slice(start, Math.min(start + session.chunkSize, file.size));
+}
+
+// 실패한 청크는 잠시 기다렸다가 다시 전송
+async function putChunk(uploadId, index, blob) {
+    for (let attempt = 1; ; attempt++) {
+        try {
+            const response = await fetch('/api/uploads/sessions/' + uploadId + '/chunks/' + index, {
+                method: 'PUT',
+                headers: { 'Content-Type': 'application/octet-stream' },
+                body: blob
+            });
+            if (response.ok) {
+                return;
+            }
+            const result = await response.json().catch(() => ({}));
+            if (attempt >= CHUNK_RETRIES) {
+                throw new Error(result.error || '동영상 업로드에 실패했습니다.');
+            }
+        } catch (error) {
+            if (attempt >= CHUNK_RETRIES) {
+                throw error;
+            }
+        }
+        await new Promise(resolve => setTimeout(resolve, 1000 * attempt));
+    }
+}
+
+function updateUploadProgress(progressBar, loaded, total) {
+    const percent = Math.round(loaded / total * 100);
+    progressBar.style.width = percent + '%';
+    progressBar.textContent = percent + '%';
+}
+
+// 폼 제출 시 동영상을 먼저 업로드하고 토큰만 폼으로 전송
+function bindVideoUpload(form, fileInput) {
+    form.addEventListener('submit', function(e) {
+        const file = fileInput.files[0];
+        if (!file) {
+            return;
+        }
+        e.preventDefault();
+        
+        const submitButton = form.querySelector('button[type="submit"]');
+        const progress = document.getElementById('uploadProgress');
+        const progressBar = progress.querySelector('.progress-bar');
+        submitButton.disabled = true;
+        progress.style.display = 'flex';
+        
+        uploadVideoResumable(file, progressBar).then(function(result) {
+            form.querySelector('input[name="uploadToken"]').value = result.uploadToken;
+            // 파일은 이미 업로드했으므로 폼에서는 보내지 않음
+            fileInput.removeAttribute('name');
+            fileInput.required = false;
+            form.submit();
+        }).catch(function(error) {
+            alert(error.message + ' 다시 업로드하면 이어서 전송합니다.');
+            submitButton.disabled = false;
+            progress.style.display = 'none';
+        });
+    });
+}
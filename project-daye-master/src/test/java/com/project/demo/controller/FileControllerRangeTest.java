@@ -0,0 +1,206 @@
+package com.project.demo.controller;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.User;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.repository.UserRepository;
+import com.project.demo.storage.StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 동영상 스트리밍의 Range / If-Range 처리 테스트 (메모리 저장소 사용)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileControllerRangeTest {
+
+    private static final int FILE_SIZE = 3 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageBackend storage;
+
+    private byte[] data;
+    private Long postId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        data = new byte[FILE_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        String filename = "range-" + UUID.randomUUID() + ".mp4";
+        try (SeekableByteChannel channel = storage.openWrite(StorageBackend.Area.VIDEOS, filename, true)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        User author = new User();
+        author.setUsername("range-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setPassword("password");
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setFullName("범위 테스트");
+        userRepository.save(author);
+
+        Post post = new Post();
+        post.setTitle("범위 요청 테스트");
+        post.setContent("동영상");
+        post.setAuthor(author);
+        post.setVideoFilename(filename);
+        post.setVideoContentType("video/mp4");
+        postId = postRepository.save(post).getId();
+    }
+
+    @Test
+    void returnsWholeFileWithoutRange() throws Exception {
+        MockHttpServletResponse response = perform(null, null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotBlank();
+        assertThat(response.getContentAsByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    void returnsSingleRange() throws Exception {
+        MockHttpServletResponse response = perform("bytes=100-199", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/" + FILE_SIZE);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(data, 100, 200));
+    }
+
+    @Test
+    void returnsSuffixRange() throws Exception {
+        MockHttpServletResponse response = perform("bytes=-10", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE))
+                .isEqualTo("bytes " + (FILE_SIZE - 10) + "-" + (FILE_SIZE - 1) + "/" + FILE_SIZE);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(data, FILE_SIZE - 10, FILE_SIZE));
+    }
+
+    @Test
+    void capsOpenEndedRangeToChunkSize() throws Exception {
+        MockHttpServletResponse response = perform("bytes=0-", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-" + (CHUNK_SIZE - 1) + "/" + FILE_SIZE);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(data, 0, CHUNK_SIZE));
+    }
+
+    @Test
+    void returnsMultipartForMultipleRanges() throws Exception {
+        // 0-9와 5-20은 겹치므로 0-20 하나로 병합됨
+        MockHttpServletResponse response = perform("bytes=0-9,5-20,100-109", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges");
+        String body = new String(response.getContentAsByteArray(), StandardCharsets.ISO_8859_1);
+        assertThat(body).contains("Content-Range: bytes 0-20/" + FILE_SIZE);
+        assertThat(body).contains("Content-Range: bytes 100-109/" + FILE_SIZE);
+        assertThat(body).doesNotContain("Content-Range: bytes 5-20/");
+        assertThat(body).contains(new String(Arrays.copyOfRange(data, 100, 110), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        MockHttpServletResponse response = perform("bytes=" + FILE_SIZE + "-", null);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + FILE_SIZE);
+    }
+
+    @Test
+    void ignoresMalformedRange() throws Exception {
+        // 해석할 수 없는 Range 헤더는 무시하고 전체 파일 응답 (RFC 9110 14.2)
+        for (String range : new String[]{"garbage", "bytes=abc-def", "items=0-10"}) {
+            MockHttpServletResponse response = perform(range, null);
+
+            assertThat(response.getStatus()).as(range).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isNull();
+            assertThat(response.getContentAsByteArray()).as(range).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void honorsIfRangeWithMatchingEtag() throws Exception {
+        String etag = perform(null, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = perform("bytes=100-199", etag);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(data, 100, 200));
+    }
+
+    @Test
+    void sendsWholeFileWhenIfRangeEtagDiffers() throws Exception {
+        MockHttpServletResponse response = perform("bytes=100-199", "\"other\"");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    void sendsWholeFileWhenIfRangeEtagIsWeak() throws Exception {
+        String etag = perform(null, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = perform("bytes=100-199", "W/" + etag);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    void comparesIfRangeDateWithLastModified() throws Exception {
+        String lastModified = perform(null, null).getHeader(HttpHeaders.LAST_MODIFIED);
+        String older = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.EPOCH.atZone(ZoneOffset.UTC));
+
+        assertThat(perform("bytes=100-199", lastModified).getStatus()).isEqualTo(206);
+        assertThat(perform("bytes=100-199", older).getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse perform(String range, String ifRange) throws Exception {
+        MockHttpServletRequestBuilder request = get("/files/video/" + postId);
+        if (range != null) {
+            request.header(HttpHeaders.RANGE, range);
+        }
+        if (ifRange != null) {
+            request.header(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,213 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * fast start 변환 테스트 (moov 이동과 stco/co64 청크 위치 보정, 변환하면서 계산한 해시)
+ */
+class FastStartServiceTest {
+
+    private static final byte[] FTYP = box("ftyp", "isom".getBytes(StandardCharsets.ISO_8859_1), new byte[]{0, 0, 2, 0});
+    private static final int MDAT_OFFSET = FTYP.length;
+    private static final int MDAT_PAYLOAD_SIZE = 1000;
+
+    // ftyp 안(8), mdat 안(24~1023) 위치를 섞어서 가리킴
+    private static final long[] STCO_OFFSETS = {8, 24, 500, 1023};
+    private static final long[] CO64_OFFSETS = {30, 900};
+
+    private StorageBackend storage;
+    private FastStartService fastStartService;
+
+    @BeforeEach
+    void setUp() {
+        storage = new MemoryStorageBackend();
+        fastStartService = new FastStartService();
+        ReflectionTestUtils.setField(fastStartService, "storage", storage);
+    }
+
+    @Test
+    void movesMoovInFrontOfMdatAndShiftsChunkOffsets() throws IOException {
+        byte[] mdat = mdat();
+        byte[] original = concat(FTYP, mdat, moov(0));
+        write("moov-at-end.mp4", original);
+
+        assertThat(fastStartService.ensureFastStart("moov-at-end.mp4")).isEqualTo(FastStartStatus.REMUXED);
+
+        // mdat 안을 가리키던 위치만 moov 크기만큼 뒤로 밀림 (ftyp 안을 가리키는 위치는 그대로)
+        int moovSize = moov(0).length;
+        byte[] remuxed = read("moov-at-end.mp4");
+        assertThat(remuxed).hasSize(original.length);
+        assertThat(remuxed).isEqualTo(concat(FTYP, moov(moovSize), mdat));
+
+        for (long offset : STCO_OFFSETS) {
+            long shifted = offset >= MDAT_OFFSET ? offset + moovSize : offset;
+            assertThat(remuxed[(int) shifted]).isEqualTo(original[(int) offset]);
+        }
+        for (long offset : CO64_OFFSETS) {
+            assertThat(remuxed[(int) offset + moovSize]).isEqualTo(original[(int) offset]);
+        }
+    }
+
+    @Test
+    void leavesFastStartFileUntouched() throws IOException {
+        byte[] original = concat(FTYP, moov(0), mdat());
+        write("fast-start.mp4", original);
+
+        assertThat(fastStartService.ensureFastStart("fast-start.mp4")).isEqualTo(FastStartStatus.ALREADY);
+        assertThat(read("fast-start.mp4")).isEqualTo(original);
+    }
+
+    @Test
+    void remuxedFileIsAlreadyFastStartOnSecondPass() throws IOException {
+        write("twice.mp4", concat(FTYP, mdat(), moov(0)));
+
+        assertThat(fastStartService.ensureFastStart("twice.mp4")).isEqualTo(FastStartStatus.REMUXED);
+        byte[] remuxed = read("twice.mp4");
+
+        assertThat(fastStartService.ensureFastStart("twice.mp4")).isEqualTo(FastStartStatus.ALREADY);
+        assertThat(read("twice.mp4")).isEqualTo(remuxed);
+    }
+
+    @Test
+    void skipsCompressedMoov() throws IOException {
+        byte[] original = concat(FTYP, mdat(), box("moov", box("cmov", new byte[16])));
+        write("compressed.mov", original);
+
+        assertThat(fastStartService.ensureFastStart("compressed.mov")).isEqualTo(FastStartStatus.UNSUPPORTED);
+        assertThat(read("compressed.mov")).isEqualTo(original);
+    }
+
+    @Test
+    void rejectsNonMp4Content() throws IOException {
+        byte[] original = "this is not a video file at all".getBytes(StandardCharsets.ISO_8859_1);
+        write("junk.mp4", original);
+
+        assertThat(fastStartService.ensureFastStart("junk.mp4")).isEqualTo(FastStartStatus.UNSUPPORTED);
+        assertThat(read("junk.mp4")).isEqualTo(original);
+    }
+
+    @Test
+    void inspectReportsMoovAtEndWithoutRewriting() throws IOException {
+        byte[] original = concat(FTYP, mdat(), moov(0));
+        write("registered.mp4", original);
+
+        assertThat(fastStartService.inspect("registered.mp4")).isEqualTo(FastStartStatus.SKIPPED);
+        assertThat(read("registered.mp4")).isEqualTo(original);
+    }
+
+    @Test
+    void prepareUploadReportsFailureForMissingFile() {
+        FastStartService.PreparedUpload prepared = fastStartService.prepareUpload("missing.mp4");
+
+        assertThat(prepared.getStatus()).isEqualTo(FastStartStatus.FAILED);
+        assertThat(prepared.getSha256()).isNull();
+    }
+
+    @Test
+    void prepareUploadHashesRemuxedFileWhileWriting() throws Exception {
+        write("hash.mp4", concat(FTYP, mdat(), moov(0)));
+
+        FastStartService.PreparedUpload prepared = fastStartService.prepareUpload("hash.mp4");
+
+        assertThat(prepared.getStatus()).isEqualTo(FastStartStatus.REMUXED);
+        assertThat(prepared.getSha256()).isEqualTo(
+                HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(read("hash.mp4"))));
+    }
+
+    @Test
+    void prepareUploadLeavesHashToCallerWhenNotRemuxed() throws IOException {
+        write("fast.mp4", concat(FTYP, moov(0), mdat()));
+
+        FastStartService.PreparedUpload prepared = fastStartService.prepareUpload("fast.mp4");
+
+        assertThat(prepared.getStatus()).isEqualTo(FastStartStatus.ALREADY);
+        assertThat(prepared.getSha256()).isNull();
+    }
+
+    /**
+     * moov > (mvhd, trak > mdia > minf > stbl > stco, trak > mdia > minf > stbl > co64)
+     * mdat 안을 가리키는 위치에 shift를 더한 moov (shift와 관계없이 크기는 같음)
+     */
+    private static byte[] moov(long shift) {
+        ByteBuffer stco = ByteBuffer.allocate(8 + STCO_OFFSETS.length * 4);
+        stco.putInt(0).putInt(STCO_OFFSETS.length);
+        for (long offset : STCO_OFFSETS) {
+            stco.putInt((int) (offset >= MDAT_OFFSET ? offset + shift : offset));
+        }
+        ByteBuffer co64 = ByteBuffer.allocate(8 + CO64_OFFSETS.length * 8);
+        co64.putInt(0).putInt(CO64_OFFSETS.length);
+        for (long offset : CO64_OFFSETS) {
+            co64.putLong(offset + shift);
+        }
+        return box("moov",
+                box("mvhd", new byte[100]),
+                track(box("stco", stco.array())),
+                track(box("co64", co64.array())));
+    }
+
+    private static byte[] track(byte[] chunkOffsets) {
+        return box("trak", box("mdia", box("minf", box("stbl", box("stsd", new byte[8]), chunkOffsets))));
+    }
+
+    private static byte[] mdat() {
+        byte[] payload = new byte[MDAT_PAYLOAD_SIZE];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 7 + 3);
+        }
+        return box("mdat", payload);
+    }
+
+    private static byte[] box(String type, byte[]... contents) {
+        byte[] body = concat(contents);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + body.length);
+        buffer.putInt(8 + body.length);
+        buffer.put(type.getBytes(StandardCharsets.ISO_8859_1));
+        buffer.put(body);
+        return buffer.array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private void write(String name, byte[] data) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, name, true)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private byte[] read(String name) throws IOException {
+        try (SeekableByteChannel channel = storage.openRead(Area.VIDEOS, name)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("파일이 예상보다 짧습니다: " + name);
+                }
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.HlsStatus;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * HLS 패키징 테스트 (원본 이하 화질 선택과 저장소 기록, 기존 패키지 재사용, 실패 상태, 패키지 삭제)
+ */
+class HlsPackagingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PostRepository postRepository;
+    private FileService fileService;
+    private MediaTaskExecutor mediaTaskExecutor;
+    private MemoryStorageBackend storage;
+    private HlsPackagingService hlsPackagingService;
+
+    // 실행기에 등록된 작업 (테스트가 직접 실행)
+    private final ArrayDeque<Runnable> submitted = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        fileService = mock(FileService.class);
+        mediaTaskExecutor = mock(MediaTaskExecutor.class);
+        when(mediaTaskExecutor.submit(eq("hls"), eq(MediaTaskExecutor.Priority.PACKAGING), any()))
+                .thenAnswer(invocation -> submitted.add(invocation.getArgument(2)));
+        when(mediaTaskExecutor.remainingCapacity(MediaTaskExecutor.Priority.PACKAGING)).thenReturn(10);
+        storage = new MemoryStorageBackend();
+
+        hlsPackagingService = new HlsPackagingService();
+        ReflectionTestUtils.setField(hlsPackagingService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(hlsPackagingService, "fileService", fileService);
+        ReflectionTestUtils.setField(hlsPackagingService, "mediaTaskExecutor", mediaTaskExecutor);
+        ReflectionTestUtils.setField(hlsPackagingService, "storage", storage);
+        ReflectionTestUtils.setField(hlsPackagingService, "enabled", true);
+        ReflectionTestUtils.setField(hlsPackagingService, "renditionSpecs", new String[]{"360:800", "240:400", "144:200"});
+        ReflectionTestUtils.setField(hlsPackagingService, "segmentSeconds", 1);
+        ReflectionTestUtils.setField(hlsPackagingService, "workRoot", tempDir.resolve("hls-work").toString());
+        ReflectionTestUtils.setField(hlsPackagingService, "minFreeBytes", 0L);
+    }
+
+    @Test
+    void packagesRenditionsUpToSourceHeight() throws Exception {
+        Path video = tempDir.resolve("source.mp4");
+        makeVideo(video, 320, 240, 3);
+        when(fileService.openGrabber("abc.mp4")).thenAnswer(invocation -> new FFmpegFrameGrabber(video.toFile()));
+
+        assertThat(hlsPackagingService.packageVideo("abc.mp4")).isEqualTo("abc.m3u8");
+
+        // 원본(240p)보다 큰 360p는 만들지 않음
+        String master = readText("abc.m3u8");
+        assertThat(master).contains("RESOLUTION=320x240", "RESOLUTION=192x144").doesNotContain("360");
+        assertThat(uris(master)).containsExactly("abc-240p.m3u8", "abc-144p.m3u8");
+        for (String playlist : uris(master)) {
+            List<String> segments = uris(readText(playlist));
+            assertThat(segments).isNotEmpty().allMatch(segment -> segment.startsWith(playlist.replace(".m3u8", "-")));
+            for (String segment : segments) {
+                assertThat(storage.size(Area.HLS, segment)).isPositive();
+                assertThat(hlsPackagingService.masterPlaylistOfSegment(segment)).isEqualTo("abc.m3u8");
+            }
+        }
+        assertThat(storage.list(Area.HLS)).noneMatch(name -> name.endsWith(".tmp"));
+        assertThat(tempDir.resolve("hls-work")).isEmptyDirectory();
+
+        hlsPackagingService.deletePackage("abc.mp4");
+
+        assertThat(storage.list(Area.HLS)).isEmpty();
+    }
+
+    @Test
+    void reusesPackageOfSharedVideo() throws Exception {
+        givenPost(1L, "abc.mp4");
+        writeText("abc.m3u8", "#EXTM3U\n");
+        when(postRepository.transitionHlsStatus(1L, "abc.mp4", HlsStatus.PENDING, HlsStatus.RUNNING)).thenReturn(1);
+
+        hlsPackagingService.enqueue(1L);
+        runAll();
+
+        verify(fileService, never()).openGrabber(anyString());
+        verify(postRepository).completeHls(1L, "abc.mp4", "abc.m3u8", HlsStatus.DONE);
+    }
+
+    @Test
+    void marksFailedWhenPackagingThrows() throws Exception {
+        givenPost(1L, "abc.mp4");
+        when(postRepository.transitionHlsStatus(1L, "abc.mp4", HlsStatus.PENDING, HlsStatus.RUNNING)).thenReturn(1);
+        when(fileService.openGrabber("abc.mp4")).thenThrow(new IOException("파일 없음"));
+
+        hlsPackagingService.enqueue(1L);
+        runAll();
+
+        verify(postRepository).updateHlsStatus(1L, "abc.mp4", HlsStatus.FAILED);
+        verify(postRepository, never()).completeHls(any(), any(), any(), any());
+        assertThat(storage.list(Area.HLS)).isEmpty();
+    }
+
+    @Test
+    void leavesPendingWhenWorkDirectoryIsFull() throws Exception {
+        Path video = tempDir.resolve("source.mp4");
+        makeVideo(video, 320, 240, 1);
+        givenPost(1L, "abc.mp4");
+        when(postRepository.transitionHlsStatus(1L, "abc.mp4", HlsStatus.PENDING, HlsStatus.RUNNING)).thenReturn(1);
+        when(fileService.openGrabber("abc.mp4")).thenAnswer(invocation -> new FFmpegFrameGrabber(video.toFile()));
+        ReflectionTestUtils.setField(hlsPackagingService, "minFreeBytes", Long.MAX_VALUE);
+
+        hlsPackagingService.enqueue(1L);
+        runAll();
+
+        // 실패로 기록하지 않고 PENDING으로 되돌려 나중에 다시 시도
+        verify(postRepository).transitionHlsStatus(1L, "abc.mp4", HlsStatus.RUNNING, HlsStatus.PENDING);
+        verify(postRepository, never()).updateHlsStatus(any(), any(), eq(HlsStatus.FAILED));
+        assertThat(storage.list(Area.HLS)).isEmpty();
+        assertThat(tempDir.resolve("hls-work")).isEmptyDirectory();
+    }
+
+    @Test
+    void recoversRunningJobsAndRequeuesPending() throws Exception {
+        Path stale = Files.createDirectories(tempDir.resolve("hls-work").resolve("hls-123"));
+        Files.writeString(stale.resolve("720p-00001.ts"), "segment");
+        when(postRepository.updateHlsStatusFrom(HlsStatus.RUNNING, HlsStatus.PENDING)).thenReturn(1);
+        when(postRepository.findIdsByHlsStatus(HlsStatus.PENDING, PageRequest.of(0, 10))).thenReturn(List.of(1L, 2L));
+
+        hlsPackagingService.recoverInterruptedJobs();
+
+        verify(postRepository).updateHlsStatusFrom(HlsStatus.RUNNING, HlsStatus.PENDING);
+        assertThat(submitted).hasSize(2);
+        assertThat(stale).doesNotExist();
+    }
+
+    @Test
+    void ignoresMalformedSegmentNames() {
+        assertThat(hlsPackagingService.masterPlaylistOfSegment("abc-720p-00003.ts")).isEqualTo("abc.m3u8");
+        assertThat(hlsPackagingService.masterPlaylistOfSegment("abc.ts")).isNull();
+        assertThat(hlsPackagingService.masterPlaylistOfSegment("-00001.ts")).isNull();
+    }
+
+    private void givenPost(Long id, String videoFilename) {
+        Post post = new Post();
+        post.setId(id);
+        post.setVideoFilename(videoFilename);
+        when(postRepository.findById(id)).thenReturn(Optional.of(post));
+    }
+
+    private void runAll() {
+        while (!submitted.isEmpty()) {
+            submitted.poll().run();
+        }
+    }
+
+    private List<String> uris(String playlist) {
+        return playlist.lines().filter(line -> !line.isBlank() && !line.startsWith("#")).toList();
+    }
+
+    private String readText(String name) throws IOException {
+        try (InputStream in = Channels.newInputStream(storage.openRead(Area.HLS, name))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void writeText(String name, String text) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.HLS, name, true)) {
+            channel.write(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    // 움직이는 원과 사인파 소리가 들어간 짧은 MP4
+    private void makeVideo(Path out, int width, int height, int seconds) throws Exception {
+        int frameRate = 25;
+        int sampleRate = 44100;
+        FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(out.toFile(), width, height, 1);
+        recorder.setFormat("mp4");
+        recorder.setFrameRate(frameRate);
+        recorder.setVideoCodec(avcodec.AV_CODEC_ID_MPEG4);
+        recorder.setAudioCodec(avcodec.AV_CODEC_ID_AAC);
+        recorder.setSampleRate(sampleRate);
+        recorder.start();
+        try {
+            Java2DFrameConverter converter = new Java2DFrameConverter();
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+            short[] samples = new short[sampleRate / frameRate];
+            for (int i = 0; i < seconds * frameRate; i++) {
+                Graphics2D g = image.createGraphics();
+                g.setColor(Color.DARK_GRAY);
+                g.fillRect(0, 0, width, height);
+                g.setColor(Color.WHITE);
+                g.fillOval((i * 8) % width, height / 3, height / 4, height / 4);
+                g.dispose();
+                recorder.record(converter.convert(image));
+                for (int k = 0; k < samples.length; k++) {
+                    samples[k] = (short) (Math.sin((i * samples.length + k) * 2 * Math.PI * 440 / sampleRate) * 8000);
+                }
+                recorder.recordSamples(sampleRate, 1, ShortBuffer.wrap(samples));
+            }
+            recorder.stop();
+        } finally {
+            recorder.release();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.MediaBlob;
+import com.project.demo.entity.Post;
+import com.project.demo.entity.User;
+import com.project.demo.repository.MediaBlobRepository;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.repository.UserRepository;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 내용 해시 저장소 테스트 (중복 공유와 참조 수, 마지막 참조 반환 시 삭제, 해시로 업로드 생략 시 소유 확인, 게시글 없는 오래된 참조)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MediaBlobServiceTest {
+
+    @Autowired
+    private MediaBlobService mediaBlobService;
+
+    @Autowired
+    private VideoUploadService videoUploadService;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageBackend storage;
+
+    @Test
+    void sharesDuplicateUploadAndCountsReferences() throws IOException {
+        String sha256 = randomSha256();
+        String first = mediaBlobService.store(upload(), sha256, 4);
+        String duplicate = upload();
+        String second = mediaBlobService.store(duplicate, sha256, 4);
+
+        assertThat(second).isEqualTo(first).isEqualTo(sha256 + ".mp4");
+        assertThat(storage.exists(Area.VIDEOS, first)).isTrue();
+        assertThat(storage.exists(Area.VIDEOS, duplicate)).isFalse();
+        assertThat(refCount(sha256)).isEqualTo(2);
+    }
+
+    @Test
+    void deletesFileAndHlsPackageOnlyOnLastRelease() throws IOException {
+        String sha256 = randomSha256();
+        String filename = mediaBlobService.store(upload(), sha256, 4);
+        mediaBlobService.store(upload(), sha256, 4);
+        writeHlsPackage(sha256);
+
+        mediaBlobService.release(filename);
+
+        assertThat(refCount(sha256)).isEqualTo(1);
+        assertThat(storage.exists(Area.VIDEOS, filename)).isTrue();
+        assertThat(storage.exists(Area.HLS, sha256 + ".m3u8")).isTrue();
+
+        mediaBlobService.release(filename);
+
+        assertThat(mediaBlobRepository.findBySha256(sha256)).isEmpty();
+        assertThat(storage.exists(Area.VIDEOS, filename)).isFalse();
+        assertThat(storage.exists(Area.HLS, sha256 + ".m3u8")).isFalse();
+        assertThat(storage.exists(Area.HLS, sha256 + "-360p.m3u8")).isFalse();
+        assertThat(storage.exists(Area.HLS, sha256 + "-360p-00001.ts")).isFalse();
+    }
+
+    @Test
+    void restoresMissingFileFromNewUpload() throws IOException {
+        String sha256 = randomSha256();
+        String filename = mediaBlobService.store(upload(), sha256, 4);
+        storage.delete(Area.VIDEOS, filename);
+
+        assertThat(mediaBlobService.store(upload(), sha256, 4)).isEqualTo(filename);
+
+        assertThat(storage.exists(Area.VIDEOS, filename)).isTrue();
+        assertThat(refCount(sha256)).isEqualTo(2);
+    }
+
+    @Test
+    void deletesUntrackedFileOnRelease() throws IOException {
+        String filename = upload();
+
+        mediaBlobService.release(filename);
+
+        assertThat(storage.exists(Area.VIDEOS, filename)).isFalse();
+    }
+
+    @Test
+    void skipsUploadOnlyForVideoTheCallerAlreadyUses() throws IOException {
+        String sha256 = randomSha256();
+        String filename = mediaBlobService.store(upload(), sha256, 4);
+        User owner = createUser();
+        User other = createUser();
+        createPost(owner, filename);
+
+        // 다른 사용자는 해시를 알아도 없는 경우와 똑같이 거절되고 참조도 늘지 않음
+        assertThat(videoUploadService.stageExisting(other, sha256, "copy.mp4", "video/mp4")).isNull();
+        assertThat(videoUploadService.stageExisting(other, randomSha256(), "copy.mp4", "video/mp4")).isNull();
+        assertThat(refCount(sha256)).isEqualTo(1);
+
+        VideoUploadService.StagedUpload staged =
+                videoUploadService.stageExisting(owner, sha256.toUpperCase(), "again.mp4", "video/mp4");
+
+        assertThat(staged).isNotNull();
+        assertThat(staged.getFilename()).isEqualTo(filename);
+        assertThat(staged.getOwnerId()).isEqualTo(owner.getId());
+        assertThat(refCount(sha256)).isEqualTo(2);
+    }
+
+    @Test
+    void skipsUploadForCallersOwnUnclaimedUpload() throws IOException {
+        User owner = createUser();
+        byte[] data = ("unclaimed-" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        VideoUploadService.StagedUpload first = videoUploadService.stage(owner,
+                new ByteArrayInputStream(mp4(data)), "first.mp4", "video/mp4", -1);
+
+        assertThat(videoUploadService.stageExisting(createUser(), first.getSha256(), "x.mp4", "video/mp4")).isNull();
+
+        VideoUploadService.StagedUpload second =
+                videoUploadService.stageExisting(owner, first.getSha256(), "second.mp4", "video/mp4");
+
+        assertThat(second).isNotNull();
+        assertThat(second.getFilename()).isEqualTo(first.getFilename());
+        assertThat(refCount(first.getSha256())).isEqualTo(2);
+    }
+
+    @Test
+    void releasesMultipartUploadDiscardedBeforePostWasSaved() {
+        User owner = createUser();
+        byte[] data = mp4(("multipart-" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        VideoUploadService.StagedUpload staged = videoUploadService.stage(owner,
+                new MockMultipartFile("videoFile", "form.mp4", "video/mp4", data));
+
+        assertThat(staged.getSize()).isEqualTo(data.length);
+        assertThat(storage.exists(Area.VIDEOS, staged.getFilename())).isTrue();
+        assertThat(refCount(staged.getSha256())).isEqualTo(1);
+
+        // 다른 사용자의 취소는 무시
+        videoUploadService.discard(staged.getToken(), createUser());
+        assertThat(refCount(staged.getSha256())).isEqualTo(1);
+
+        videoUploadService.discard(staged.getToken(), owner);
+
+        assertThat(mediaBlobRepository.findBySha256(staged.getSha256())).isEmpty();
+        assertThat(storage.exists(Area.VIDEOS, staged.getFilename())).isFalse();
+    }
+
+    @Test
+    void treatsOldUnpostedReferenceAsOrphan() throws IOException {
+        String orphan = mediaBlobService.store(upload(), randomSha256(), 4);
+        String posted = mediaBlobService.store(upload(), randomSha256(), 4);
+        createPost(createUser(), posted);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(mediaBlobRepository.findRecentlyAcquiredFilenames(List.of(orphan, posted), now.minusHours(1)))
+                .containsExactlyInAnyOrder(orphan, posted);
+        assertThat(mediaBlobRepository.findRecentlyAcquiredFilenames(List.of(orphan, posted), now.plusMinutes(1)))
+                .isEmpty();
+        assertThat(mediaBlobRepository.deleteOrphan(orphan, now.minusHours(1))).isZero();
+
+        assertThat(mediaBlobRepository.deleteOrphan(posted, now.plusMinutes(1))).isZero();
+        assertThat(mediaBlobRepository.deleteOrphan(orphan, now.plusMinutes(1))).isEqualTo(1);
+        assertThat(mediaBlobRepository.findByFilename(orphan)).isEmpty();
+        assertThat(mediaBlobRepository.findByFilename(posted)).isPresent();
+    }
+
+    private String upload() throws IOException {
+        String filename = "blob-" + UUID.randomUUID() + ".mp4";
+        write(Area.VIDEOS, filename, "data");
+        return filename;
+    }
+
+    private void writeHlsPackage(String baseName) throws IOException {
+        write(Area.HLS, baseName + ".m3u8", "#EXTM3U\n" + baseName + "-360p.m3u8\n");
+        write(Area.HLS, baseName + "-360p.m3u8", "#EXTM3U\n" + baseName + "-360p-00001.ts\n");
+        write(Area.HLS, baseName + "-360p-00001.ts", "segment");
+    }
+
+    private void write(Area area, String name, String content) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(area, name, true)) {
+            channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    // ftyp 박스로 시작하는 최소 MP4 (컨테이너 확인 통과용)
+    private byte[] mp4(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(24 + 8 + payload.length);
+        buffer.putInt(24).put("ftypisom".getBytes(StandardCharsets.US_ASCII)).putInt(0x200)
+                .put("isommp41".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(8 + payload.length).put("free".getBytes(StandardCharsets.US_ASCII)).put(payload);
+        return buffer.array();
+    }
+
+    private int refCount(String sha256) {
+        return mediaBlobRepository.findBySha256(sha256).map(MediaBlob::getRefCount).orElse(0);
+    }
+
+    private String randomSha256() {
+        return (UUID.randomUUID().toString() + UUID.randomUUID()).replace("-", "");
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("blob-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setPassword("password");
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setFullName("저장소 테스트");
+        return userRepository.save(user);
+    }
+
+    private void createPost(User author, String videoFilename) {
+        Post post = new Post();
+        post.setTitle("해시 업로드 테스트");
+        post.setContent("동영상");
+        post.setAuthor(author);
+        post.setVideoFilename(videoFilename);
+        post.setVideoContentType("video/mp4");
+        postRepository.save(post);
+    }
+}
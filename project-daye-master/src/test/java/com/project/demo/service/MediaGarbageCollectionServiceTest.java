@@ -0,0 +1,127 @@
+package com.project.demo.service;
+
+import com.project.demo.repository.MediaBlobRepository;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 미사용 파일 정리 테스트 (게시글 없이 오래된 업로드 참조만 남은 동영상 격리 후 저장소 행과 함께 삭제)
+ */
+class MediaGarbageCollectionServiceTest {
+
+    private static final long STAGED_TTL_MS = 3600000;
+
+    private PostRepository postRepository;
+    private MediaBlobRepository mediaBlobRepository;
+    private MemoryStorageBackend storage;
+    private MediaGarbageCollectionService mediaGarbageCollectionService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        mediaBlobRepository = mock(MediaBlobRepository.class);
+        VideoUploadService videoUploadService = mock(VideoUploadService.class);
+        when(videoUploadService.getActiveFilenames()).thenReturn(Set.of("uploading.mp4"));
+        when(postRepository.findReferencedVideoFilenames(anyCollection()))
+                .thenAnswer(invocation -> only(invocation.getArgument(0), "posted.mp4"));
+        // 재시작 전에 올라와 반환되지 못한 업로드(orphan.mp4)는 행이 있어도 획득 시각이 오래되어 제외됨
+        when(mediaBlobRepository.findRecentlyAcquiredFilenames(anyCollection(), any()))
+                .thenAnswer(invocation -> only(invocation.getArgument(0), "recent.mp4"));
+        storage = new MemoryStorageBackend();
+
+        mediaGarbageCollectionService = new MediaGarbageCollectionService();
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "storage", storage);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "mediaBlobRepository", mediaBlobRepository);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "videoUploadService", videoUploadService);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "thumbnailCacheService", mock(ThumbnailCacheService.class));
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "minAgeMillis", 0L);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "gracePeriodMillis", 0L);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "pageSize", 500);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "scanThreads", 1);
+        ReflectionTestUtils.setField(mediaGarbageCollectionService, "stagedTtlMillis", STAGED_TTL_MS);
+    }
+
+    @Test
+    void reclaimsBlobHeldOnlyByExpiredUploadReference() throws Exception {
+        for (String name : List.of("orphan.mp4", "posted.mp4", "recent.mp4", "uploading.mp4")) {
+            write(name);
+        }
+
+        runCollection();
+
+        assertThat(storage.list(Area.VIDEOS)).containsExactlyInAnyOrder("posted.mp4", "recent.mp4", "uploading.mp4");
+        assertThat(storage.list(Area.QUARANTINE)).singleElement().asString().endsWith(".orphan.mp4");
+        verify(mediaBlobRepository).findRecentlyAcquiredFilenames(anyCollection(), argThat(cutoff ->
+                cutoff.isBefore(LocalDateTime.now().minusSeconds(STAGED_TTL_MS / 1000 - 60))));
+        verify(mediaBlobRepository, never()).deleteOrphan(any(), any());
+
+        Thread.sleep(5);
+        runCollection();
+
+        assertThat(storage.list(Area.QUARANTINE)).isEmpty();
+        verify(mediaBlobRepository).deleteOrphan(eq("orphan.mp4"), any());
+    }
+
+    @Test
+    void keepsBlobRowWhenSameContentWasUploadedAgain() throws Exception {
+        write("orphan.mp4");
+        runCollection();
+        // 격리된 동안 같은 내용이 다시 올라와 MediaBlobService.store가 파일을 복원하고 참조를 획득한 경우
+        write("orphan.mp4");
+        when(mediaBlobRepository.findRecentlyAcquiredFilenames(anyCollection(), any()))
+                .thenAnswer(invocation -> only(invocation.getArgument(0), "orphan.mp4"));
+
+        Thread.sleep(5);
+        runCollection();
+
+        assertThat(storage.list(Area.VIDEOS)).containsExactly("orphan.mp4");
+        assertThat(storage.list(Area.QUARANTINE)).isEmpty();
+        assertThat(mediaGarbageCollectionService.getStatus()).containsEntry("restored", 1L);
+        verify(mediaBlobRepository, never()).deleteOrphan(any(), any());
+    }
+
+    private void runCollection() throws InterruptedException {
+        assertThat(mediaGarbageCollectionService.start()).isTrue();
+        for (int i = 0; i < 200 && Boolean.TRUE.equals(mediaGarbageCollectionService.getStatus().get("running")); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(mediaGarbageCollectionService.getStatus())
+                .containsEntry("running", false).containsEntry("failed", 0L);
+    }
+
+    private static List<String> only(Collection<String> names, String kept) {
+        return names.stream().filter(kept::equals).toList();
+    }
+
+    private void write(String name) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, name, true)) {
+            channel.write(ByteBuffer.wrap("data".getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 미디어 작업 실행기 테스트 (작업이 Error를 던져도 작업자 스레드가 계속 다음 작업을 실행)
+ */
+class MediaTaskExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MediaTaskExecutor mediaTaskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mediaTaskExecutor = new MediaTaskExecutor();
+        ReflectionTestUtils.setField(mediaTaskExecutor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(mediaTaskExecutor, "workerCount", 1);
+        ReflectionTestUtils.setField(mediaTaskExecutor, "uploadQueueCapacity", 10);
+        ReflectionTestUtils.setField(mediaTaskExecutor, "packagingQueueCapacity", 10);
+        ReflectionTestUtils.setField(mediaTaskExecutor, "backfillQueueCapacity", 10);
+        mediaTaskExecutor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaTaskExecutor.shutdown();
+    }
+
+    @Test
+    void keepsWorkerAliveAfterError() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertThat(mediaTaskExecutor.submit("thumbnail", MediaTaskExecutor.Priority.UPLOAD, () -> {
+            throw new OutOfMemoryError("Cannot reserve direct buffer memory");
+        })).isTrue();
+        assertThat(mediaTaskExecutor.submit("thumbnail", MediaTaskExecutor.Priority.UPLOAD, () -> {
+            throw new UnsatisfiedLinkError("no jniavcodec");
+        })).isTrue();
+        assertThat(mediaTaskExecutor.submit("thumbnail", MediaTaskExecutor.Priority.UPLOAD, done::countDown)).isTrue();
+
+        // 작업자가 하나뿐이므로 앞의 두 작업 뒤에도 살아 있어야 세 번째 작업이 실행됨
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("media.executor.run").tag("outcome", "error").timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,180 @@
+package com.project.demo.service;
+
+import com.project.demo.service.MediaTransferService.TransferMode;
+import com.project.demo.storage.LocalStorageBackend;
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import com.project.demo.storage.StoredFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 전송 방식 선택 테스트 (sendfile 요청 속성, 채널/리소스 전송, 지표)
+ */
+class MediaTransferServiceTest {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @TempDir
+    Path tempDir;
+
+    private MeterRegistry meterRegistry;
+    private MediaTransferService mediaTransferService;
+    private LocalStorageBackend localStorage;
+    private byte[] data;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        mediaTransferService = new MediaTransferService();
+        ReflectionTestUtils.setField(mediaTransferService, "meterRegistry", meterRegistry);
+        setModes(TransferMode.SENDFILE);
+
+        data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 253);
+        }
+        localStorage = new LocalStorageBackend(tempDir.toString());
+        write(localStorage, "video.mp4");
+    }
+
+    @Test
+    void handsSingleRangeToSendfileWhenSupported() throws IOException {
+        MockHttpServletRequest request = sendfileRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_VIDEO,
+                localFile(), HttpStatus.PARTIAL_CONTENT, headers(), List.of(region(100, 200)));
+
+        Path expectedPath = localStorage.localPath(Area.VIDEOS, "video.mp4").orElseThrow().toRealPath();
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTR)).isEqualTo(expectedPath.toString());
+        assertThat(request.getAttribute(SENDFILE_START_ATTR)).isEqualTo(100L);
+        assertThat(request.getAttribute(SENDFILE_END_ATTR)).isEqualTo(300L);
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-299/" + data.length);
+        assertThat(response.getContentLengthLong()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+
+        // 맡긴 바이트는 별도 지표로만 집계
+        assertThat(meterRegistry.get("media.transfer.sendfile.scheduled").tag("endpoint", "video").counter().count())
+                .isEqualTo(200.0);
+        assertThat(meterRegistry.find("media.transfer.bytes").counter()).isNull();
+    }
+
+    @Test
+    void fallsBackToChannelWithoutConnectorSupport() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_VIDEO,
+                localFile(), HttpStatus.OK, headers(), null);
+
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTR)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(data);
+        assertThat(bytes("video", "channel")).isEqualTo(data.length);
+        assertThat(meterRegistry.find("media.transfer.sendfile.scheduled").counter()).isNull();
+    }
+
+    @Test
+    void writesMultipleRangesWithoutSendfile() throws IOException {
+        MockHttpServletRequest request = sendfileRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_VIDEO,
+                localFile(), HttpStatus.PARTIAL_CONTENT, headers(), List.of(region(0, 10), region(500, 10)));
+
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTR)).isNull();
+        assertThat(response.getContentType()).startsWith("multipart/byteranges");
+        assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+        assertThat(bytes("video", "channel")).isEqualTo(20.0);
+    }
+
+    @Test
+    void usesChannelForStorageWithoutLocalPath() throws IOException {
+        MemoryStorageBackend memoryStorage = new MemoryStorageBackend();
+        write(memoryStorage, "video.mp4");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaTransferService.transfer(sendfileRequest(), response, MediaTransferService.ENDPOINT_VIDEO,
+                new StoredFile(memoryStorage, Area.VIDEOS, "video.mp4"), HttpStatus.OK, headers(), null);
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(data);
+        assertThat(bytes("video", "channel")).isEqualTo(data.length);
+    }
+
+    @Test
+    void usesConfiguredModePerEndpoint() throws IOException {
+        ReflectionTestUtils.setField(mediaTransferService, "downloadMode", TransferMode.RESOURCE);
+        MockHttpServletRequest request = sendfileRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        mediaTransferService.transfer(request, response, MediaTransferService.ENDPOINT_DOWNLOAD,
+                localFile(), HttpStatus.PARTIAL_CONTENT, headers(), List.of(region(9_000, 1_000)));
+
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTR)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(data, 9_000, 10_000));
+        assertThat(bytes("download", "resource")).isEqualTo(1_000.0);
+        assertThat(mediaTransferService.getMode(MediaTransferService.ENDPOINT_HLS)).isEqualTo(TransferMode.SENDFILE);
+    }
+
+    private void setModes(TransferMode mode) {
+        ReflectionTestUtils.setField(mediaTransferService, "videoMode", mode);
+        ReflectionTestUtils.setField(mediaTransferService, "downloadMode", mode);
+    }
+
+    private MockHttpServletRequest sendfileRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        return request;
+    }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("video/mp4"));
+        return headers;
+    }
+
+    private StoredFile localFile() {
+        return new StoredFile(localStorage, Area.VIDEOS, "video.mp4");
+    }
+
+    private ResourceRegion region(long position, long count) {
+        return new ResourceRegion(localFile().toResource(), position, count);
+    }
+
+    private double bytes(String endpoint, String mode) {
+        return meterRegistry.get("media.transfer.bytes").tag("endpoint", endpoint).tag("mode", mode).counter().count();
+    }
+
+    private void write(StorageBackend storage, String name) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, name, true)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
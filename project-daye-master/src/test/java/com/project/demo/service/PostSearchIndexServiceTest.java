@@ -0,0 +1,206 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.User;
+import com.project.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 색인(바이그램) 결과가 DB의 LIKE '%검색어%' 결과와 같은지 확인
+ * 한 단어 검색어 기준 (여러 단어는 색인이 단어별 AND로 처리하므로 LIKE와 다름)
+ * LIKE의 와일드카드(_, %)가 들어간 검색어는 비교하지 않음
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostSearchIndexServiceTest {
+
+    private static final String[] WORDS = {"고양이", "강아지", "동영상", "여행", "서울", "부산", "Cat", "VIDEO", "요리", "맛집", "캠핑", "바다"};
+    private static final String[] AUTHORS = {"홍길동", "김철수", "Lee Young"};
+
+    // 검색 방식 → LIKE로 비교할 컬럼
+    private static final String[][] COLUMNS = {
+            {"all", "LOWER(p.title) LIKE ? OR LOWER(p.content) LIKE ? OR LOWER(u.full_name) LIKE ? OR LOWER(p.video_original_name) LIKE ?"},
+            {"title", "LOWER(p.title) LIKE ?"},
+            {"content", "LOWER(p.content) LIKE ?"},
+            {"author", "LOWER(u.full_name) LIKE ?"},
+            {"filename", "LOWER(p.video_original_name) LIKE ?"}
+    };
+
+    private static final String[] KEYWORDS = {
+            "고양이", "양", "지", "c", "4", "이강", "아지여", "cat", "Video", "clip", "p.mp", "길동", "young", "목1", "목12", "없는단어"
+    };
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostSearchIndexService postSearchIndexService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User firstAuthor;
+
+    @BeforeAll
+    void setUp() throws InterruptedException {
+        // 이전 실행에서 남은 색인 파일과 섞이지 않도록 현재 DB로 다시 만듦
+        while (!postSearchIndexService.rebuild()) {
+            Thread.sleep(50);
+        }
+        awaitReady();
+
+        Random random = new Random(1);
+        for (int a = 0; a < AUTHORS.length; a++) {
+            User author = new User();
+            author.setUsername("search" + a);
+            author.setPassword("password");
+            author.setEmail("search" + a + "@example.com");
+            author.setFullName(AUTHORS[a]);
+            userRepository.save(author);
+            if (firstAuthor == null) {
+                firstAuthor = author;
+            }
+
+            // 색인이 준비된 뒤 작성하므로 커밋 후 색인 경로로 반영됨
+            for (int i = 0; i < 40; i++) {
+                Post post = new Post();
+                post.setTitle(word(random) + " " + word(random) + " 제목" + (a * 40 + i));
+                post.setContent("내용 " + word(random) + word(random) + " 그리고 " + word(random));
+                post.setVideoOriginalName(word(random) + "_clip.mp4");
+                postService.createPost(post, author, null);
+            }
+        }
+
+        Post joined = new Post();
+        joined.setTitle("붙여 쓴 내용");
+        joined.setContent("고양이강아지");
+        postService.createPost(joined, firstAuthor, null);
+    }
+
+    @Test
+    void matchesLikeForEverySearchType() {
+        for (String[] column : COLUMNS) {
+            for (String keyword : KEYWORDS) {
+                assertThat(indexIds(column[0], keyword))
+                        .as("%s / %s", column[0], keyword)
+                        .isEqualTo(likeIds(column[1], keyword));
+            }
+        }
+    }
+
+    @Test
+    void findsSubstringsAcrossWordBoundariesInsideToken() {
+        // "고양이강아지"처럼 붙어 있는 단어 사이의 "이강"도 LIKE처럼 찾아야 함
+        Set<Long> ids = indexIds("content", "이강");
+
+        assertThat(ids).isNotEmpty();
+        assertThat(ids).isEqualTo(likeIds("LOWER(p.content) LIKE ?", "이강"));
+    }
+
+    @Test
+    void reflectsEditsAfterCommit() {
+        Post post = new Post();
+        post.setTitle("수정 전 제목");
+        post.setContent("내용");
+        Long postId = postService.createPost(post, firstAuthor, null).getId();
+
+        Post updated = new Post();
+        updated.setTitle("수정된제목 펭귄");
+        updated.setContent("내용");
+        postService.updatePost(postId, updated, firstAuthor, null);
+
+        assertThat(indexIds("title", "펭귄")).containsExactly(postId);
+        assertThat(indexIds("title", "수정 전")).doesNotContain(postId);
+        assertThat(indexIds("title", "펭귄")).isEqualTo(likeIds("LOWER(p.title) LIKE ?", "펭귄"));
+        // 한 글자 검색은 글자별 용어 목록을 쓰므로 수정으로 사라진 용어가 남아 있지 않아야 함
+        assertThat(indexIds("title", "펭")).containsExactly(postId);
+        assertThat(indexIds("title", "전")).doesNotContain(postId);
+        assertThat(indexIds("title", "전")).isEqualTo(likeIds("LOWER(p.title) LIKE ?", "전"));
+    }
+
+    @Test
+    void reconcilesAuthorRenamedAfterSnapshot() {
+        User author = new User();
+        author.setUsername("rename");
+        author.setPassword("password");
+        author.setEmail("rename@example.com");
+        author.setFullName("개명전작가");
+        userRepository.save(author);
+        Post post = new Post();
+        post.setTitle("이름 변경 확인");
+        post.setContent("내용");
+        Long postId = postService.createPost(post, author, null).getId();
+        // 색인 파일보다 오래전에 작성된 게시글 (updatedAt으로는 다시 색인되지 않음)
+        jdbcTemplate.update("UPDATE posts SET updated_at = ? WHERE id = ?", LocalDateTime.now().minusDays(1), postId);
+
+        // 이름을 바꾸기 전에 색인 파일을 기록하고, 바꾼 뒤 다음 기록 전에 종료된 경우
+        ReflectionTestUtils.invokeMethod(postSearchIndexService, "flush");
+        UserService.UpdateUserRequest request = new UserService.UpdateUserRequest();
+        request.setFullName("개명후작가");
+        request.setEmail(author.getEmail());
+        request.setEnabled(true);
+        userService.updateUser(author.getId(), request);
+
+        PostSearchIndexService restarted = new PostSearchIndexService();
+        ReflectionTestUtils.setField(restarted, "postRepository",
+                ReflectionTestUtils.getField(postSearchIndexService, "postRepository"));
+        ReflectionTestUtils.setField(restarted, "searchMode", "index");
+        ReflectionTestUtils.setField(restarted, "indexPath",
+                ReflectionTestUtils.getField(postSearchIndexService, "indexPath"));
+        ReflectionTestUtils.invokeMethod(restarted, "loadOrBuild");
+
+        // 게시글의 updatedAt은 그대로지만 작성자 이름 변경 시각으로 다시 색인됨
+        assertThat(restarted.search("author", "개명후", 0, Integer.MAX_VALUE).getPostIds()).containsExactly(postId);
+        assertThat(restarted.search("author", "개명전", 0, Integer.MAX_VALUE).getPostIds()).isEmpty();
+    }
+
+    private Set<Long> indexIds(String searchType, String keyword) {
+        PostSearchIndexService.SearchResult result = postSearchIndexService.search(searchType, keyword, 0, Integer.MAX_VALUE);
+        assertThat(result).as("색인이 준비되지 않았습니다.").isNotNull();
+        assertThat(result.getTotal()).isEqualTo(result.getPostIds().size());
+        return new HashSet<>(result.getPostIds());
+    }
+
+    private Set<Long> likeIds(String condition, String keyword) {
+        String pattern = "%" + keyword.toLowerCase() + "%";
+        Object[] args = new Object[condition.split("\\?", -1).length - 1];
+        Arrays.fill(args, pattern);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT p.id FROM posts p JOIN users u ON u.id = p.author_id WHERE " + condition, Long.class, args);
+        return new HashSet<>(ids);
+    }
+
+    private void awaitReady() throws InterruptedException {
+        for (int i = 0; i < 200 && !Boolean.TRUE.equals(postSearchIndexService.getStatus().get("ready")); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(postSearchIndexService.getStatus().get("ready")).isEqualTo(true);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.User;
+import com.project.demo.repository.PostRepository;
+import com.project.demo.repository.PostSummary;
+import com.project.demo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 피드 커서 페이지 테스트 (작성 시각이 같은 게시글이 페이지 경계에 걸친 경우)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PostServiceFeedTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagesThroughEqualCreatedAtWithoutGapsOrDuplicates() {
+        List<Long> sameSecond = createPosts(15);
+        List<Long> sameFraction = createPosts(7);
+        setCreatedAt(sameSecond, "2099-01-01 00:00:00");
+        setCreatedAt(sameFraction, "2098-12-31 23:59:59.123456");
+
+        List<Long> feed = new ArrayList<>();
+        String cursor = null;
+        do {
+            PostService.FeedPage page = postService.getFeed(cursor, 4);
+            assertThat(page.getPosts()).hasSizeLessThanOrEqualTo(4);
+            page.getPosts().stream().map(PostSummary::getId).forEach(feed::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // 작성 시각 내림차순, 같으면 id 내림차순으로 모든 게시글이 한 번씩
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM posts ORDER BY created_at DESC, id DESC", Long.class);
+        assertThat(new HashSet<>(feed)).hasSize(feed.size());
+        assertThat(feed).isEqualTo(expected);
+
+        List<Long> expectedHead = new ArrayList<>(sameSecond);
+        expectedHead.sort(Comparator.reverseOrder());
+        List<Long> expectedNext = new ArrayList<>(sameFraction);
+        expectedNext.sort(Comparator.reverseOrder());
+        expectedHead.addAll(expectedNext);
+        assertThat(feed.subList(0, expectedHead.size())).isEqualTo(expectedHead);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        String withoutId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2099-01-01T00:00".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("yesterday,12".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> postService.getFeed("not a cursor!", 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> postService.getFeed(withoutId, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> postService.getFeed(badDate, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Long> createPosts(int count) {
+        User author = new User();
+        author.setUsername("feed-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setPassword("password");
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setFullName("피드 테스트");
+        userRepository.save(author);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Post post = new Post();
+            post.setTitle("피드 " + i);
+            post.setContent("내용");
+            post.setAuthor(author);
+            ids.add(postRepository.save(post).getId());
+        }
+        return ids;
+    }
+
+    private void setCreatedAt(List<Long> ids, String timestamp) {
+        for (Long id : ids) {
+            jdbcTemplate.update("UPDATE posts SET created_at = CAST(? AS TIMESTAMP) WHERE id = ?", timestamp, id);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.LocalStorageBackend;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기존 경로 → 분산 경로 이동 테스트 (저장소가 기존 경로를 대신 읽도록 설정된 상태에서도 실제로 옮기는지)
+ */
+class StorageMigrationServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private Path legacyRoot;
+    private StorageMigrationService storageMigrationService;
+
+    @BeforeEach
+    void setUp() {
+        root = tempDir.resolve("media");
+        legacyRoot = tempDir.resolve("uploads");
+        LocalStorageBackend storage = new LocalStorageBackend(root.toString(), legacyRoot.toString());
+
+        storageMigrationService = new StorageMigrationService();
+        ReflectionTestUtils.setField(storageMigrationService, "storage", storage);
+        ReflectionTestUtils.setField(storageMigrationService, "legacyRoot", legacyRoot.toString());
+    }
+
+    @Test
+    void movesLegacyFilesIntoShardedLayout() throws Exception {
+        Path legacyVideo = writeLegacy("videos", "old.mp4", "video");
+        Path legacyThumbnail = writeLegacy("thumbnails", "old.jpg", "thumb");
+
+        runMigration();
+
+        assertThat(storageMigrationService.getStatus())
+                .containsEntry("moved", 2).containsEntry("skipped", 0).containsEntry("failed", 0);
+        assertThat(legacyVideo).doesNotExist();
+        assertThat(legacyThumbnail).doesNotExist();
+        assertThat(sharded("videos", "old.mp4")).hasContent("video");
+        assertThat(sharded("thumbnails", "old.jpg")).hasContent("thumb");
+    }
+
+    @Test
+    void skipsFilesAlreadyInShardedLayout() throws Exception {
+        Path legacyVideo = writeLegacy("videos", "old.mp4", "legacy");
+        Files.createDirectories(sharded("videos", "old.mp4").getParent());
+        Files.writeString(sharded("videos", "old.mp4"), "moved");
+
+        runMigration();
+
+        assertThat(storageMigrationService.getStatus())
+                .containsEntry("moved", 0).containsEntry("skipped", 1).containsEntry("failed", 0);
+        assertThat(legacyVideo).hasContent("legacy");
+        assertThat(sharded("videos", "old.mp4")).hasContent("moved");
+    }
+
+    private void runMigration() throws InterruptedException {
+        assertThat(storageMigrationService.start()).isTrue();
+        for (int i = 0; i < 200 && Boolean.TRUE.equals(storageMigrationService.getStatus().get("running")); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(storageMigrationService.getStatus().get("running")).isEqualTo(false);
+    }
+
+    private Path writeLegacy(String directory, String name, String content) throws IOException {
+        Path path = legacyRoot.resolve(directory).resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private Path sharded(String directory, String name) {
+        return root.resolve(directory).resolve(StorageBackend.fanOutPrefix(name)).resolve(name);
+    }
+}
@@ -0,0 +1,163 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 동영상 전송 제한 테스트 (사용자별/게시글별 동시 스트림 한도, 종료 시 반환, 토큰 버킷 대기 시간, 속도 제한 출력)
+ */
+class StreamLimitServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StreamLimitService streamLimitService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        streamLimitService = new StreamLimitService();
+        ReflectionTestUtils.setField(streamLimitService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(streamLimitService, "burstBytes", 262144L);
+        streamLimitService.init();
+    }
+
+    @Test
+    void rejectsStreamsOverPerUserLimit() {
+        ReflectionTestUtils.setField(streamLimitService, "maxStreamsPerUser", 2);
+
+        StreamLimitService.StreamLease first = streamLimitService.acquire(request("alice"), 1L, "video");
+        StreamLimitService.StreamLease second = streamLimitService.acquire(request("alice"), 2L, "video");
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(first.isCapped()).isTrue();
+        assertThat(streamLimitService.acquire(request("alice"), 3L, "video")).isNull();
+        // 다른 사용자는 따로 셈
+        assertThat(streamLimitService.acquire(request("bob"), 1L, "video")).isNotNull();
+        assertThat(meterRegistry.counter("media.transfer.rejected", "endpoint", "video", "limit", "user").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rejectsStreamsOverPerPostLimit() {
+        ReflectionTestUtils.setField(streamLimitService, "maxStreamsPerPost", 1);
+
+        assertThat(streamLimitService.acquire(request("alice"), 1L, "video")).isNotNull();
+
+        assertThat(streamLimitService.acquire(request("bob"), 1L, "video")).isNull();
+        assertThat(streamLimitService.acquire(request("bob"), 2L, "video")).isNotNull();
+        assertThat(meterRegistry.counter("media.transfer.rejected", "endpoint", "video", "limit", "post").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void releasesSlotOnCloseOnlyOnce() {
+        ReflectionTestUtils.setField(streamLimitService, "maxStreamsPerUser", 1);
+        StreamLimitService.StreamLease first = streamLimitService.acquire(request("alice"), 1L, "video");
+        StreamLimitService.StreamLease other = streamLimitService.acquire(request("bob"), 1L, "video");
+        assertThat(streamLimitService.acquire(request("alice"), 1L, "video")).isNull();
+
+        first.close();
+        StreamLimitService.StreamLease second = streamLimitService.acquire(request("alice"), 1L, "video");
+        assertThat(second).isNotNull();
+
+        // 이미 닫은 스트림을 다시 닫아도 다른 스트림의 자리를 반환하지 않음
+        first.close();
+        assertThat(streamLimitService.getActiveStreams()).isEqualTo(2);
+        assertThat(streamLimitService.acquire(request("alice"), 1L, "video")).isNull();
+
+        second.close();
+        other.close();
+        assertThat(streamLimitService.getActiveStreams()).isZero();
+        assertThat(streamLimitService.getStatus()).containsEntry("activeClients", 0);
+        assertThat(postStreams()).isEmpty();
+    }
+
+    @Test
+    void ignoresUnknownPostInPerPostCount() {
+        // 게시글별 한도가 없으면 HLS 세그먼트는 게시글을 조회하지 않고 null을 넘김
+        StreamLimitService.StreamLease segment = streamLimitService.acquire(request("alice"), null, "hls");
+        StreamLimitService.StreamLease video = streamLimitService.acquire(request("alice"), 1L, "video");
+        assertThat(postStreams()).containsExactly(Map.entry(1L, 1));
+
+        segment.close();
+        assertThat(postStreams()).containsExactly(Map.entry(1L, 1));
+
+        // 한도를 켠 뒤에도 게시글을 모르는 스트림은 서로를 막지 않음
+        ReflectionTestUtils.setField(streamLimitService, "maxStreamsPerPost", 1);
+        StreamLimitService.StreamLease a = streamLimitService.acquire(request("bob"), null, "hls");
+        StreamLimitService.StreamLease b = streamLimitService.acquire(request("carol"), null, "hls");
+        assertThat(a).isNotNull();
+        assertThat(b).isNotNull();
+
+        video.close();
+        a.close();
+        b.close();
+        assertThat(postStreams()).isEmpty();
+        assertThat(streamLimitService.getActiveStreams()).isZero();
+    }
+
+    @Test
+    void waitsForTokenDebt() {
+        long rate = 1_000_000;
+        StreamLimitService.TokenBucket bucket = new StreamLimitService.TokenBucket(rate, 16 * 1024);
+
+        // 처음에는 가득 차 있으므로 용량만큼은 기다리지 않음
+        assertThat(bucket.reserve(16 * 1024)).isZero();
+
+        // 부족분(빚)만큼 기다림: 500,000바이트 = 0.5초
+        long wait = bucket.reserve(500_000);
+        assertThat(wait).isBetween(TimeUnit.MILLISECONDS.toNanos(480), TimeUnit.MILLISECONDS.toNanos(500));
+
+        // 빚이 쌓이면 이어서 예약한 쪽은 앞선 빚까지 기다림
+        long next = bucket.reserve(100_000);
+        assertThat(next).isBetween(TimeUnit.MILLISECONDS.toNanos(580), TimeUnit.MILLISECONDS.toNanos(600));
+    }
+
+    @Test
+    void throttlesWrappedOutputAndRecordsWait() throws Exception {
+        ReflectionTestUtils.setField(streamLimitService, "perConnectionRate", 1_000_000L);
+        ReflectionTestUtils.setField(streamLimitService, "burstBytes", 16384L);
+        StreamLimitService.StreamLease lease = streamLimitService.acquire(request("alice"), 1L, "video");
+        assertThat(lease.isThrottled()).isTrue();
+        assertThat(lease.isCapped()).isFalse();
+
+        byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+        try (OutputStream out = lease.wrap(target)) {
+            out.write(data);
+        }
+        long elapsed = System.nanoTime() - start;
+        lease.close();
+
+        // 버스트(16KB) 이후 48KB는 초당 1MB로 보내므로 약 48ms
+        assertThat(target.toByteArray()).isEqualTo(data);
+        assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+        assertThat(meterRegistry.counter("media.transfer.throttled.bytes", "endpoint", "video").count()).isPositive();
+        assertThat(meterRegistry.get("media.transfer.throttle.wait").timer().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Integer> postStreams() {
+        return (Map<Long, Integer>) ReflectionTestUtils.getField(streamLimitService, "postStreams");
+    }
+
+    private MockHttpServletRequest request(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setUserPrincipal(() -> username);
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import com.project.demo.storage.StoredFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 썸네일 캐시 테스트 (min-requests부터 캐시, 크기 기준 LRU 제거, 큰 파일 제외, 무효화, 읽는 도중 삭제된 파일)
+ */
+class ThumbnailCacheServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MemoryStorageBackend storage;
+    private ThumbnailCacheService thumbnailCacheService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        storage = new MemoryStorageBackend();
+        thumbnailCacheService = new ThumbnailCacheService();
+        ReflectionTestUtils.setField(thumbnailCacheService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(thumbnailCacheService, "maxBytes", 300L);
+        ReflectionTestUtils.setField(thumbnailCacheService, "maxEntryBytes", 100L);
+        ReflectionTestUtils.setField(thumbnailCacheService, "minRequests", 1);
+        thumbnailCacheService.init();
+    }
+
+    @Test
+    void cachesFromMinRequests() throws IOException {
+        ReflectionTestUtils.setField(thumbnailCacheService, "minRequests", 2);
+        StoredFile file = thumbnail("a.jpg", 50);
+
+        // 첫 요청은 세기만 하고 파일로 응답
+        assertThat(thumbnailCacheService.put("a.jpg", 800, file, "\"a\"")).isNull();
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isNull();
+        assertThat(thumbnailCacheService.getEntryCount()).isZero();
+
+        ThumbnailCacheService.CachedThumbnail cached = thumbnailCacheService.put("a.jpg", 800, file, "\"a\"");
+
+        assertThat(cached).isNotNull();
+        assertThat(cached.getEtag()).isEqualTo("\"a\"");
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isSameAs(cached);
+        assertThat(read(cached)).isEqualTo(content("a.jpg", 50));
+        // 응답마다 버퍼의 읽기 위치가 따로이므로 다시 읽어도 같은 내용
+        assertThat(read(cached)).isEqualTo(content("a.jpg", 50));
+        assertThat(thumbnailCacheService.getCurrentBytes()).isEqualTo(50);
+    }
+
+    @Test
+    void evictsLeastRecentlyRequestedEntriesOverMaxBytes() throws IOException {
+        for (String name : new String[]{"a.jpg", "b.jpg", "c.jpg"}) {
+            assertThat(thumbnailCacheService.put(name, 800, thumbnail(name, 100), null)).isNotNull();
+        }
+        assertThat(thumbnailCacheService.getCurrentBytes()).isEqualTo(300);
+
+        // a를 요청했으므로 가장 오래 요청되지 않은 b가 제거됨
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isNotNull();
+        assertThat(thumbnailCacheService.put("d.jpg", 800, thumbnail("d.jpg", 100), null)).isNotNull();
+
+        assertThat(thumbnailCacheService.get("b.jpg", 800)).isNull();
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isNotNull();
+        assertThat(thumbnailCacheService.get("c.jpg", 800)).isNotNull();
+        assertThat(thumbnailCacheService.get("d.jpg", 800)).isNotNull();
+        assertThat(thumbnailCacheService.getCurrentBytes()).isEqualTo(300);
+        assertThat(meterRegistry.counter("media.thumbnail.cache.evictions").count()).isEqualTo(1);
+
+        // 큰 항목 하나가 들어오면 넘는 만큼 여러 항목을 제거
+        ReflectionTestUtils.setField(thumbnailCacheService, "maxEntryBytes", 300L);
+        assertThat(thumbnailCacheService.put("e.jpg", 800, thumbnail("e.jpg", 250), null)).isNotNull();
+        assertThat(thumbnailCacheService.getEntryCount()).isEqualTo(1);
+        assertThat(thumbnailCacheService.getCurrentBytes()).isEqualTo(250);
+    }
+
+    @Test
+    void skipsFilesLargerThanMaxEntryBytes() throws IOException {
+        StoredFile file = thumbnail("big.jpg", 101);
+        assertThat(thumbnailCacheService.put("big.jpg", 800, file, null)).isNull();
+        assertThat(thumbnailCacheService.put("big.jpg", 800, file, null)).isNull();
+
+        assertThat(thumbnailCacheService.get("big.jpg", 800)).isNull();
+        assertThat(thumbnailCacheService.getCurrentBytes()).isZero();
+    }
+
+    @Test
+    void invalidatesEveryWidthOfThumbnail() throws IOException {
+        thumbnailCacheService.put("a.jpg", 800, thumbnail("a.jpg", 60), null);
+        thumbnailCacheService.put("a.jpg", 160, thumbnail("a-w160.jpg", 20), null);
+        thumbnailCacheService.put("ab.jpg", 800, thumbnail("ab.jpg", 40), null);
+
+        thumbnailCacheService.invalidate("a.jpg");
+
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isNull();
+        assertThat(thumbnailCacheService.get("a.jpg", 160)).isNull();
+        assertThat(thumbnailCacheService.get("ab.jpg", 800)).isNotNull();
+        assertThat(thumbnailCacheService.getCurrentBytes()).isEqualTo(40);
+    }
+
+    @Test
+    void doesNotCacheFileInvalidatedWhileReading() throws IOException {
+        StoredFile stored = thumbnail("a.jpg", 50);
+        StoredFile file = spy(stored);
+        // 파일을 읽는 사이에 썸네일이 삭제되어 무효화된 경우
+        doAnswer(invocation -> {
+            thumbnailCacheService.invalidate("a.jpg");
+            return invocation.callRealMethod();
+        }).when(file).openRead();
+
+        assertThat(thumbnailCacheService.put("a.jpg", 800, file, null)).isNull();
+
+        assertThat(thumbnailCacheService.get("a.jpg", 800)).isNull();
+        assertThat(thumbnailCacheService.getCurrentBytes()).isZero();
+
+        // 이후의 요청은 다시 캐시됨
+        assertThat(thumbnailCacheService.put("a.jpg", 800, stored, null)).isNotNull();
+    }
+
+    private StoredFile thumbnail(String name, int size) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.THUMBNAILS, name, true)) {
+            channel.write(ByteBuffer.wrap(content(name, size)));
+        }
+        return storage.file(Area.THUMBNAILS, name);
+    }
+
+    private static byte[] content(String name, int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) name.charAt(0));
+        return content;
+    }
+
+    private static byte[] read(ThumbnailCacheService.CachedThumbnail cached) throws IOException {
+        try (InputStream in = cached.toResource().getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
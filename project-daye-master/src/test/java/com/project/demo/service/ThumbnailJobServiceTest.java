@@ -0,0 +1,187 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.Post;
+import com.project.demo.entity.Post.FastStartStatus;
+import com.project.demo.entity.Post.ThumbnailStatus;
+import com.project.demo.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 썸네일 백그라운드 작업 테스트 (중단된 작업 복구, 상태 전이, 대기열이 찼을 때 재등록)
+ */
+class ThumbnailJobServiceTest {
+
+    private PostRepository postRepository;
+    private FileService fileService;
+    private FastStartService fastStartService;
+    private MediaTaskExecutor mediaTaskExecutor;
+    private ThumbnailJobService thumbnailJobService;
+
+    // 실행기에 등록된 작업 (테스트가 직접 실행)
+    private final ArrayDeque<Runnable> submitted = new ArrayDeque<>();
+    private boolean executorFull;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        fileService = mock(FileService.class);
+        fastStartService = mock(FastStartService.class);
+        mediaTaskExecutor = mock(MediaTaskExecutor.class);
+        when(mediaTaskExecutor.submit(eq("thumbnail"), eq(MediaTaskExecutor.Priority.UPLOAD), any()))
+                .thenAnswer(invocation -> {
+                    if (executorFull) {
+                        return false;
+                    }
+                    submitted.add(invocation.getArgument(2));
+                    return true;
+                });
+        when(mediaTaskExecutor.remainingCapacity(MediaTaskExecutor.Priority.UPLOAD)).thenReturn(10);
+
+        thumbnailJobService = new ThumbnailJobService();
+        ReflectionTestUtils.setField(thumbnailJobService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(thumbnailJobService, "fileService", fileService);
+        ReflectionTestUtils.setField(thumbnailJobService, "fastStartService", fastStartService);
+        ReflectionTestUtils.setField(thumbnailJobService, "mediaTaskExecutor", mediaTaskExecutor);
+    }
+
+    @Test
+    void recoversRunningJobsAndRequeuesPending() {
+        when(postRepository.updateThumbnailStatusFrom(ThumbnailStatus.RUNNING, ThumbnailStatus.PENDING)).thenReturn(2);
+        when(postRepository.findIdsByThumbnailStatus(ThumbnailStatus.PENDING, PageRequest.of(0, 10)))
+                .thenReturn(List.of(1L, 2L, 3L));
+
+        thumbnailJobService.recoverInterruptedJobs();
+
+        verify(postRepository).updateThumbnailStatusFrom(ThumbnailStatus.RUNNING, ThumbnailStatus.PENDING);
+        assertThat(submitted).hasSize(3);
+    }
+
+    @Test
+    void generatesThumbnailAndStoresMetadata() throws Exception {
+        givenPost(1L, "a.mp4", null);
+        when(postRepository.transitionThumbnailStatus(1L, "a.mp4", ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING))
+                .thenReturn(1);
+        when(fastStartService.inspect("a.mp4")).thenReturn(FastStartStatus.ALREADY);
+        when(fileService.ingestVideo("a.mp4")).thenReturn(ingestResult("a.jpg"));
+        when(postRepository.completeThumbnail(1L, "a.mp4", "a.jpg", ThumbnailStatus.DONE)).thenReturn(1);
+
+        thumbnailJobService.enqueue(1L);
+        runAll();
+
+        verify(postRepository).updateVideoFastStart(1L, "a.mp4", FastStartStatus.ALREADY);
+        verify(postRepository).completeThumbnail(1L, "a.mp4", "a.jpg", ThumbnailStatus.DONE);
+        verify(postRepository).updateVideoMetadata(1L, "a.mp4", 5000L, 640, 360, 30.0, "h264");
+        verify(fileService, never()).deleteThumbnail(anyString());
+    }
+
+    @Test
+    void marksFailedWhenGenerationThrows() throws Exception {
+        givenPost(1L, "a.mp4", FastStartStatus.ALREADY);
+        when(postRepository.transitionThumbnailStatus(1L, "a.mp4", ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING))
+                .thenReturn(1);
+        when(fileService.ingestVideo("a.mp4")).thenThrow(new RuntimeException("디코딩 실패"));
+
+        thumbnailJobService.enqueue(1L);
+        runAll();
+
+        verify(postRepository).updateThumbnailStatus(1L, "a.mp4", ThumbnailStatus.FAILED);
+        verify(fastStartService, never()).inspect(anyString());
+    }
+
+    @Test
+    void skipsJobThatIsNoLongerPending() throws Exception {
+        givenPost(1L, "a.mp4", FastStartStatus.ALREADY);
+        when(postRepository.transitionThumbnailStatus(1L, "a.mp4", ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING))
+                .thenReturn(0);
+
+        thumbnailJobService.enqueue(1L);
+        runAll();
+
+        verify(fileService, never()).ingestVideo(anyString());
+    }
+
+    @Test
+    void discardsThumbnailWhenVideoWasReplacedDuringJob() throws Exception {
+        givenPost(1L, "a.mp4", FastStartStatus.ALREADY);
+        when(postRepository.transitionThumbnailStatus(1L, "a.mp4", ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING))
+                .thenReturn(1);
+        when(fileService.ingestVideo("a.mp4")).thenReturn(ingestResult("a.jpg"));
+        when(postRepository.completeThumbnail(1L, "a.mp4", "a.jpg", ThumbnailStatus.DONE)).thenReturn(0);
+
+        thumbnailJobService.enqueue(1L);
+        runAll();
+
+        verify(fileService).deleteThumbnail("a.jpg");
+        verify(postRepository, never()).updateVideoMetadata(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void leavesJobPendingWhenQueueIsFullAndAcceptsItLater() {
+        executorFull = true;
+        assertThat(thumbnailJobService.enqueue(1L)).isFalse();
+
+        executorFull = false;
+        assertThat(thumbnailJobService.enqueue(1L)).isTrue();
+        assertThat(submitted).hasSize(1);
+    }
+
+    @Test
+    void rerunsOnceWhenRequestedWhileQueued() throws Exception {
+        givenPost(1L, "a.mp4", FastStartStatus.ALREADY);
+        when(postRepository.transitionThumbnailStatus(1L, "a.mp4", ThumbnailStatus.PENDING, ThumbnailStatus.RUNNING))
+                .thenReturn(0);
+
+        thumbnailJobService.enqueue(1L);
+        thumbnailJobService.enqueue(1L);
+        thumbnailJobService.enqueue(1L);
+        assertThat(submitted).hasSize(1);
+
+        runAll();
+
+        verify(postRepository, times(2)).findById(1L);
+    }
+
+    private void givenPost(Long id, String videoFilename, FastStartStatus fastStart) {
+        Post post = new Post();
+        post.setId(id);
+        post.setVideoFilename(videoFilename);
+        post.setVideoFastStart(fastStart);
+        when(postRepository.findById(id)).thenReturn(Optional.of(post));
+    }
+
+    private FileService.IngestResult ingestResult(String thumbnailFilename) {
+        FileService.VideoMetadata metadata = new FileService.VideoMetadata();
+        metadata.setDurationMillis(5000L);
+        metadata.setWidth(640);
+        metadata.setHeight(360);
+        metadata.setFrameRate(30.0);
+        metadata.setCodec("h264");
+        FileService.IngestResult result = new FileService.IngestResult();
+        result.setThumbnailFilename(thumbnailFilename);
+        result.setMetadata(metadata);
+        return result;
+    }
+
+    private void runAll() {
+        while (!submitted.isEmpty()) {
+            submitted.poll().run();
+        }
+    }
+}
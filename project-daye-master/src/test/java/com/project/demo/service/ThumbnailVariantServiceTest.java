@@ -0,0 +1,102 @@
+package com.project.demo.service;
+
+import com.project.demo.storage.MemoryStorageBackend;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 썸네일 축소본 테스트 (만드는 요청이 Error로 끝나거나 오래 걸려도 기다리던 요청이 묶이지 않음)
+ */
+class ThumbnailVariantServiceTest {
+
+    private FileService fileService;
+    private ThumbnailVariantService thumbnailVariantService;
+
+    // 축소본을 만드는 요청이 시작되었는지, 끝내도 되는지
+    private final CountDownLatch renderStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseRender = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StorageBackend storage = new MemoryStorageBackend();
+        try (SeekableByteChannel channel = storage.openWrite(Area.THUMBNAILS, "abc.jpg", true)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        }
+        fileService = mock(FileService.class);
+        when(fileService.getThumbnailFile(anyString()))
+                .thenAnswer(invocation -> storage.file(Area.THUMBNAILS, invocation.getArgument(0)));
+        when(fileService.resolveThumbnailWidth(320)).thenReturn(320);
+        when(fileService.thumbnailVariantFilename("abc.jpg", 320)).thenReturn("abc-w320.jpg");
+
+        thumbnailVariantService = new ThumbnailVariantService();
+        ReflectionTestUtils.setField(thumbnailVariantService, "fileService", fileService);
+        ReflectionTestUtils.setField(thumbnailVariantService, "waitMillis", 10000L);
+    }
+
+    @Test
+    void waiterFailsWhenRenderThrowsError() throws Exception {
+        doAnswer(invocation -> {
+            renderStarted.countDown();
+            releaseRender.await();
+            throw new OutOfMemoryError("Java heap space");
+        }).when(fileService).renderThumbnailVariant(eq("abc.jpg"), anyInt());
+
+        CompletableFuture<Object> renderer = CompletableFuture.supplyAsync(this::requestVariant);
+        assertThat(renderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Object> waiter = CompletableFuture.supplyAsync(this::requestVariant);
+        Thread.sleep(100);
+        releaseRender.countDown();
+
+        assertThat(renderer.get(5, TimeUnit.SECONDS)).isInstanceOf(OutOfMemoryError.class);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void waiterGivesUpAfterTimeout() throws Exception {
+        ReflectionTestUtils.setField(thumbnailVariantService, "waitMillis", 100L);
+        doAnswer(invocation -> {
+            renderStarted.countDown();
+            releaseRender.await();
+            return null;
+        }).when(fileService).renderThumbnailVariant(eq("abc.jpg"), anyInt());
+
+        CompletableFuture<Object> renderer = CompletableFuture.supplyAsync(this::requestVariant);
+        assertThat(renderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThatThrownBy(() -> thumbnailVariantService.getThumbnail("abc.jpg", 320))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("시간이 초과");
+        } finally {
+            releaseRender.countDown();
+        }
+        assertThat(renderer.get(5, TimeUnit.SECONDS)).isNotInstanceOf(Throwable.class);
+    }
+
+    // 요청 결과 (실패하면 던져진 예외)
+    private Object requestVariant() {
+        try {
+            return thumbnailVariantService.getThumbnail("abc.jpg", 320);
+        } catch (Throwable e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.project.demo.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 업로드 컨테이너 형식 확인 테스트 (시그니처별 허용/거부, 확장자 불일치, 확인 후 스트림이 처음부터 그대로 읽히는지)
+ */
+class VideoContainerCheckTest {
+
+    private final FileService fileService = new FileService();
+
+    static Stream<Arguments> acceptedContainers() {
+        return Stream.of(
+                Arguments.of("clip.mp4", mp4Box("ftyp", "isom"), FileService.VideoContainer.MP4),
+                Arguments.of("clip.mov", mp4Box("ftyp", "qt  "), FileService.VideoContainer.MP4),
+                Arguments.of("CLIP.MP4", mp4Box("ftyp", "mp42"), FileService.VideoContainer.MP4),
+                // ftyp가 없는 오래된 QuickTime 파일 (wide 또는 mdat이 맨 앞)
+                Arguments.of("legacy.mov", concat(mp4Box("wide", ""), mp4Box("mdat", "data")), FileService.VideoContainer.MP4),
+                Arguments.of("legacy.mov", mp4Box("mdat", "data"), FileService.VideoContainer.MP4),
+                Arguments.of("clip.webm", ebml("webm"), FileService.VideoContainer.MATROSKA),
+                Arguments.of("clip.mkv", ebml("matroska"), FileService.VideoContainer.MATROSKA),
+                Arguments.of("clip.avi", riff("AVI "), FileService.VideoContainer.AVI),
+                Arguments.of("clip.ogv", ascii("OggS\0\2\0\0"), FileService.VideoContainer.OGG)
+        );
+    }
+
+    static Stream<Arguments> rejectedContainers() {
+        return Stream.of(
+                // 동영상 확장자로 바꾼 다른 파일
+                Arguments.of("renamed.mp4", ascii("hello, this is not a video"), "동영상 파일이 아닙니다"),
+                Arguments.of("renamed.mp4", ascii("\u0089PNG\r\n\u001a\n0000"), "동영상 파일이 아닙니다"),
+                Arguments.of("empty.mp4", new byte[0], "동영상 파일이 아닙니다"),
+                Arguments.of("short.mp4", ascii("ftyp"), "동영상 파일이 아닙니다"),
+                // 알 수 없는 박스 이름이나 잘못된 박스 크기
+                Arguments.of("box.mp4", mp4Box("abcd", "isom"), "동영상 파일이 아닙니다"),
+                Arguments.of("size.mp4", concat(new byte[]{0, 0, 0, 4}, ascii("ftypisom")), "동영상 파일이 아닙니다"),
+                // EBML이지만 동영상이 아닌 DocType, RIFF이지만 AVI가 아닌 형식
+                Arguments.of("doc.mkv", ebml("foo"), "동영상 파일이 아닙니다"),
+                Arguments.of("sound.avi", riff("WAVE"), "동영상 파일이 아닙니다"),
+                // 내용과 확장자가 다른 형식
+                Arguments.of("clip.avi", mp4Box("ftyp", "isom"), "일치하지 않습니다"),
+                Arguments.of("clip.mp4", ebml("webm"), "일치하지 않습니다"),
+                Arguments.of("clip.webm", riff("AVI "), "일치하지 않습니다"),
+                Arguments.of("clip", mp4Box("ftyp", "isom"), "일치하지 않습니다")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("acceptedContainers")
+    void acceptsVideoContainers(String filename, byte[] header, FileService.VideoContainer expected) throws IOException {
+        assertThat(fileService.detectVideoContainer(header, header.length)).isEqualTo(expected);
+
+        // 확인에 읽은 앞부분(4KB)을 되돌려 놓으므로 본문 전체가 처음부터 그대로 읽힘
+        byte[] body = concat(header, randomBytes(10 * 1024));
+        try (InputStream in = fileService.checkVideoContainer(new ByteArrayInputStream(body), filename)) {
+            assertThat(in.readAllBytes()).isEqualTo(body);
+        }
+        // 4KB보다 짧은 본문
+        try (InputStream in = fileService.checkVideoContainer(new ByteArrayInputStream(header), filename)) {
+            assertThat(in.readAllBytes()).isEqualTo(header);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("rejectedContainers")
+    void rejectsOtherContent(String filename, byte[] header, String message) {
+        byte[] body = concat(header, randomBytes(1024));
+
+        assertThatThrownBy(() -> fileService.checkVideoContainer(new ByteArrayInputStream(header), filename))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining(message);
+        if (header.length >= 8) {
+            assertThatThrownBy(() -> fileService.checkVideoContainer(new ByteArrayInputStream(body), filename))
+                    .hasMessageContaining(message);
+        }
+    }
+
+    // 크기(4바이트) + 박스 이름 + 내용
+    private static byte[] mp4Box(String type, String payload) {
+        byte[] content = ascii(type + payload);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int size = 4 + content.length;
+        out.write(size >>> 24);
+        out.write(size >>> 16);
+        out.write(size >>> 8);
+        out.write(size);
+        out.writeBytes(content);
+        return out.toByteArray();
+    }
+
+    // EBML 헤더 (버전 요소들 + DocType)
+    private static byte[] ebml(String docType) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(new byte[]{0x42, (byte) 0x86, (byte) 0x81, 0x01});
+        body.writeBytes(new byte[]{0x42, (byte) 0xF7, (byte) 0x81, 0x01});
+        body.writeBytes(new byte[]{0x42, (byte) 0xF2, (byte) 0x81, 0x04});
+        body.writeBytes(new byte[]{0x42, (byte) 0xF3, (byte) 0x81, 0x08});
+        body.writeBytes(new byte[]{0x42, (byte) 0x82, (byte) (0x80 | docType.length())});
+        body.writeBytes(ascii(docType));
+        body.writeBytes(new byte[]{0x42, (byte) 0x87, (byte) 0x81, 0x04});
+        body.writeBytes(new byte[]{0x42, (byte) 0x85, (byte) 0x81, 0x02});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3, (byte) (0x80 | body.size())});
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+
+    private static byte[] riff(String form) {
+        return concat(ascii("RIFF"), new byte[]{0x24, 0, 0, 0}, ascii(form + "LIST"));
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
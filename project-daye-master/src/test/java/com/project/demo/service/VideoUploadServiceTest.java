@@ -0,0 +1,275 @@
+package com.project.demo.service;
+
+import com.project.demo.entity.MediaBlob;
+import com.project.demo.entity.User;
+import com.project.demo.repository.MediaBlobRepository;
+import com.project.demo.storage.StorageBackend;
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 이어받기 업로드 테스트 (청크 순서와 확정 위치, 청크 크기 확인, 첫 청크 형식 확인, 완료 조건, 기록 중 취소, 만료 정리)
+ */
+@SpringBootTest(properties = "media.upload.chunk-size=" + VideoUploadServiceTest.CHUNK_SIZE)
+@ActiveProfiles("test")
+class VideoUploadServiceTest {
+
+    static final int CHUNK_SIZE = 64;
+
+    // 4개 청크, 마지막 청크는 10바이트
+    private static final int SIZE = CHUNK_SIZE * 3 + 10;
+
+    private static final AtomicLong USER_IDS = new AtomicLong(1000);
+
+    @Autowired
+    private VideoUploadService videoUploadService;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private StorageBackend storage;
+
+    @Test
+    void completesOutOfOrderChunksAndTracksCommittedOffset() throws Exception {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession session = createSession(owner, "clip.mp4");
+        assertThat(session.getTotalChunks()).isEqualTo(4);
+        assertThat(session.getMissingChunks()).containsExactly(0, 1, 2, 3);
+
+        writeChunk(session, owner, data, 0);
+        assertThat(session.getCommittedOffset()).isEqualTo(CHUNK_SIZE);
+
+        // 앞 청크가 비어 있으면 뒤 청크를 받아도 확정 위치는 그대로
+        writeChunk(session, owner, data, 2);
+        writeChunk(session, owner, data, 3);
+        assertThat(session.getCommittedOffset()).isEqualTo(CHUNK_SIZE);
+        assertThat(session.getMissingChunks()).containsExactly(1);
+
+        writeChunk(session, owner, data, 1);
+        assertThat(session.getCommittedOffset()).isEqualTo(SIZE);
+        assertThat(session.getReceivedChunkCount()).isEqualTo(4);
+        assertThat(session.getMissingChunks()).isEmpty();
+
+        VideoUploadService.StagedUpload staged = videoUploadService.completeSession(session.getUploadId(), owner);
+
+        assertThat(staged.getSize()).isEqualTo(SIZE);
+        assertThat(staged.getSha256()).isEqualTo(sha256(data));
+        assertThat(read(staged.getFilename())).isEqualTo(data);
+        assertThat(storage.exists(Area.VIDEOS, session.getFilename())).isFalse();
+        assertThatThrownBy(() -> videoUploadService.getSession(session.getUploadId(), owner))
+                .hasMessageContaining("업로드 세션을 찾을 수 없습니다");
+    }
+
+    @Test
+    void rejectsChunksOfWrongLength() throws Exception {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession session = createSession(owner, "clip.mp4");
+        writeChunk(session, owner, data, 0);
+
+        // Content-Length가 청크 크기와 다름
+        assertThatThrownBy(() -> videoUploadService.writeChunk(session.getUploadId(), owner, 1,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE - 1]), CHUNK_SIZE - 1))
+                .hasMessageContaining("청크 크기가 올바르지 않습니다");
+        // Content-Length 없이 마지막 청크(10바이트)에 전체 청크 크기를 보냄
+        assertThatThrownBy(() -> videoUploadService.writeChunk(session.getUploadId(), owner, 3,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE]), -1))
+                .hasMessageContaining("청크 크기가 올바르지 않습니다");
+        // 본문이 Content-Length보다 짧음
+        assertThatThrownBy(() -> videoUploadService.writeChunk(session.getUploadId(), owner, 2,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE - 1]), CHUNK_SIZE))
+                .hasMessageContaining("청크 크기가 올바르지 않습니다");
+        assertThatThrownBy(() -> videoUploadService.writeChunk(session.getUploadId(), owner, 4,
+                new ByteArrayInputStream(new byte[10]), 10))
+                .hasMessageContaining("청크 번호가 올바르지 않습니다");
+
+        // 실패한 청크는 받은 것으로 기록하지 않음
+        assertThat(session.getMissingChunks()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void refusesLaterChunksUntilFirstChunkPassesContainerCheck() {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession session = createSession(owner, "clip.mp4");
+
+        assertThatThrownBy(() -> writeChunk(session, owner, data, 1))
+                .hasMessageContaining("첫 번째 청크를 먼저 올려야 합니다");
+        assertThat(session.getReceivedChunkCount()).isZero();
+
+        // 첫 청크가 동영상이 아니면 세션을 취소하고 파일 삭제
+        byte[] junk = new byte[CHUNK_SIZE];
+        Arrays.fill(junk, (byte) 'x');
+        assertThatThrownBy(() -> videoUploadService.writeChunk(session.getUploadId(), owner, 0,
+                new ByteArrayInputStream(junk), CHUNK_SIZE))
+                .hasMessageContaining("동영상 파일이 아닙니다");
+        assertThat(storage.exists(Area.VIDEOS, session.getFilename())).isFalse();
+        assertThatThrownBy(() -> writeChunk(session, owner, data, 0))
+                .hasMessageContaining("업로드 세션을 찾을 수 없습니다");
+    }
+
+    @Test
+    void refusesToCompleteWithMissingChunks() {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession session = createSession(owner, "clip.mp4");
+        writeChunk(session, owner, data, 0);
+        writeChunk(session, owner, data, 1);
+
+        assertThatThrownBy(() -> videoUploadService.completeSession(session.getUploadId(), owner))
+                .hasMessageContaining("아직 받지 못한 청크가 있습니다");
+        assertThatThrownBy(() -> videoUploadService.completeSession(session.getUploadId(), user()))
+                .hasMessageContaining("업로드한 사용자만");
+
+        // 실패한 완료 요청 뒤에도 남은 청크를 이어서 올릴 수 있음
+        writeChunk(session, owner, data, 2);
+        writeChunk(session, owner, data, 3);
+        assertThat(videoUploadService.completeSession(session.getUploadId(), owner).getSize()).isEqualTo(SIZE);
+    }
+
+    @Test
+    void abortWaitsForActiveChunkWrite() throws Exception {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession session = createSession(owner, "clip.mp4");
+        writeChunk(session, owner, data, 0);
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream slowBody = new InputStream() {
+            private final InputStream body = new ByteArrayInputStream(chunk(data, 1));
+
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return body.read();
+            }
+        };
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() ->
+                videoUploadService.writeChunk(session.getUploadId(), owner, 1, slowBody, CHUNK_SIZE));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> videoUploadService.abortSession(session.getUploadId(), owner))
+                    .hasMessageContaining("기록하는 중에는 취소할 수 없습니다");
+            assertThat(storage.exists(Area.VIDEOS, session.getFilename())).isTrue();
+        } finally {
+            release.countDown();
+        }
+        write.get(5, TimeUnit.SECONDS);
+
+        videoUploadService.abortSession(session.getUploadId(), owner);
+
+        assertThat(storage.exists(Area.VIDEOS, session.getFilename())).isFalse();
+        assertThatThrownBy(() -> writeChunk(session, owner, data, 2))
+                .hasMessageContaining("업로드 세션을 찾을 수 없습니다");
+    }
+
+    @Test
+    void cleansUpInactiveSessionsAndExpiredStagedUploads() throws Exception {
+        User owner = user();
+        byte[] data = mp4(SIZE);
+        VideoUploadService.UploadSession stalled = createSession(owner, "stalled.mp4");
+        writeChunk(stalled, owner, data, 0);
+        VideoUploadService.UploadSession active = createSession(owner, "active.mp4");
+
+        VideoUploadService.UploadSession finished = createSession(owner, "finished.mp4");
+        for (int i = 0; i < finished.getTotalChunks(); i++) {
+            writeChunk(finished, owner, data, i);
+        }
+        VideoUploadService.StagedUpload staged = videoUploadService.completeSession(finished.getUploadId(), owner);
+        assertThat(videoUploadService.getActiveFilenames())
+                .contains(stalled.getFilename(), active.getFilename(), staged.getFilename());
+
+        ReflectionTestUtils.setField(stalled, "lastActivityAt", 0L);
+        staged.setCreatedAt(0);
+        videoUploadService.cleanupExpiredUploads();
+
+        // 멈춘 세션은 파일과 함께 삭제, 최근 세션은 유지
+        assertThat(storage.exists(Area.VIDEOS, stalled.getFilename())).isFalse();
+        assertThatThrownBy(() -> videoUploadService.getSession(stalled.getUploadId(), owner))
+                .hasMessageContaining("업로드 세션을 찾을 수 없습니다");
+        assertThat(videoUploadService.getSession(active.getUploadId(), owner)).isSameAs(active);
+
+        // 게시글에 연결되지 않은 업로드는 참조를 반환 (마지막 참조면 파일도 삭제)
+        assertThat(mediaBlobRepository.findBySha256(staged.getSha256()).map(MediaBlob::getRefCount)).isEmpty();
+        assertThat(storage.exists(Area.VIDEOS, staged.getFilename())).isFalse();
+        assertThat(videoUploadService.getActiveFilenames())
+                .doesNotContain(stalled.getFilename(), staged.getFilename())
+                .contains(active.getFilename());
+        assertThatThrownBy(() -> videoUploadService.claim(staged.getToken(), owner))
+                .hasMessageContaining("업로드된 동영상을 찾을 수 없습니다");
+    }
+
+    private VideoUploadService.UploadSession createSession(User owner, String filename) {
+        return videoUploadService.createSession(owner, filename, "video/mp4", SIZE);
+    }
+
+    private void writeChunk(VideoUploadService.UploadSession session, User owner, byte[] data, int index) {
+        byte[] chunk = chunk(data, index);
+        videoUploadService.writeChunk(session.getUploadId(), owner, index, new ByteArrayInputStream(chunk), chunk.length);
+    }
+
+    private byte[] chunk(byte[] data, int index) {
+        int start = index * CHUNK_SIZE;
+        return Arrays.copyOfRange(data, start, Math.min(start + CHUNK_SIZE, data.length));
+    }
+
+    private byte[] read(String filename) throws IOException {
+        try (InputStream in = Channels.newInputStream(storage.openRead(Area.VIDEOS, filename))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(USER_IDS.incrementAndGet());
+        return user;
+    }
+
+    // ftyp 박스 뒤에 무작위 내용의 free 박스가 오는 size바이트 MP4 (테스트마다 해시가 다름)
+    private static byte[] mp4(int size) {
+        byte[] payload = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(24).put("ftypisom".getBytes(StandardCharsets.US_ASCII)).putInt(0x200)
+                .put("isommp41".getBytes(StandardCharsets.US_ASCII));
+        buffer.putInt(size - 24).put("free".getBytes(StandardCharsets.US_ASCII));
+        while (buffer.hasRemaining()) {
+            buffer.put(payload, 0, Math.min(payload.length, buffer.remaining()));
+        }
+        return buffer.array();
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
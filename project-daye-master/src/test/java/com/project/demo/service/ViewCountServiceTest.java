@@ -0,0 +1,136 @@
+package com.project.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 조회수 모아서 반영 테스트 (배치 내용, 실패 시 증가분 보존과 재시도)
+ */
+class ViewCountServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private MeterRegistry meterRegistry;
+    private ViewCountService viewCountService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        meterRegistry = new SimpleMeterRegistry();
+
+        viewCountService = new ViewCountService(transactionManager);
+        ReflectionTestUtils.setField(viewCountService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(viewCountService, "meterRegistry", meterRegistry);
+        viewCountService.init();
+    }
+
+    @Test
+    void flushesDeltasAsOneBatchOrderedById() {
+        increment(5L, 3);
+        increment(2L, 1);
+        increment(9L, 2);
+        assertThat(meterRegistry.get("posts.views.pending").gauge().value()).isEqualTo(6.0);
+
+        assertThat(viewCountService.flush()).isEqualTo(3);
+
+        assertThat(lastBatch(1)).containsExactly(new Object[]{1L, 2L}, new Object[]{3L, 5L}, new Object[]{2L, 9L});
+        verify(transactionManager).commit(any());
+        assertThat(viewCountService.getPendingTotal()).isZero();
+        assertThat(meterRegistry.get("posts.views.flushed").counter().count()).isEqualTo(6.0);
+        assertThat(meterRegistry.get("posts.views.flush").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsDeltasAndRetriesAfterFailure() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("DB 연결 실패"))
+                .thenReturn(new int[]{1, 1});
+        increment(1L, 2);
+        increment(7L, 4);
+
+        assertThat(viewCountService.flush()).isZero();
+
+        // 반영하지 못한 증가분은 그대로 남고 실패 횟수만 기록됨
+        assertThat(viewCountService.getPending(1L)).isEqualTo(2);
+        assertThat(viewCountService.getPending(7L)).isEqualTo(4);
+        assertThat(meterRegistry.get("posts.views.flush.failures").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("posts.views.flushed").counter()).isNull();
+
+        // 실패 후 들어온 조회수와 함께 다음 반영에서 한 번에 기록
+        increment(1L, 1);
+        assertThat(viewCountService.flush()).isEqualTo(2);
+
+        assertThat(lastBatch(2)).containsExactly(new Object[]{3L, 1L}, new Object[]{4L, 7L});
+        assertThat(viewCountService.getPendingTotal()).isZero();
+        assertThat(meterRegistry.get("posts.views.flushed").counter().count()).isEqualTo(7.0);
+        assertThat(meterRegistry.get("posts.views.flush.failures").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void skipsDatabaseWhenNothingPending() {
+        assertThat(viewCountService.flush()).isZero();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void countsViewsOnIdleCounterAfterItIsRetired() {
+        increment(3L, 1);
+        viewCountService.flush();
+
+        // 증가분이 없는 반영에서 카운터가 정리된 뒤 다시 조회된 경우
+        assertThat(viewCountService.flush()).isZero();
+        increment(3L, 2);
+        assertThat(viewCountService.getPending(3L)).isEqualTo(2);
+
+        assertThat(viewCountService.flush()).isEqualTo(1);
+        assertThat(lastBatch(2)).containsExactly(new Object[]{2L, 3L});
+    }
+
+    @Test
+    void ignoresNullPostId() {
+        viewCountService.increment(null);
+
+        assertThat(viewCountService.getPendingTotal()).isZero();
+        assertThat(viewCountService.flush()).isZero();
+    }
+
+    private void increment(Long postId, int times) {
+        for (int i = 0; i < times; i++) {
+            viewCountService.increment(postId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> lastBatch(int expectedCalls) {
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(expectedCalls)).batchUpdate(
+                eq("UPDATE posts SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?"),
+                batch.capture());
+        return batch.getValue();
+    }
+}
@@ -0,0 +1,123 @@
+package com.project.demo.storage;
+
+import com.project.demo.storage.StorageBackend.Area;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 로컬 저장소 테스트 (하위 디렉토리 분산, 경로 조작 차단, 옮기기 전 기존 경로의 파일 읽기)
+ */
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private Path legacyRoot;
+    private LocalStorageBackend storage;
+
+    @BeforeEach
+    void setUp() {
+        root = tempDir.resolve("media");
+        legacyRoot = tempDir.resolve("uploads");
+        storage = new LocalStorageBackend(root.toString(), legacyRoot.toString());
+    }
+
+    @Test
+    void storesFilesUnderHashPrefixDirectories() throws IOException {
+        write("video.mp4", "data");
+
+        String prefix = StorageBackend.fanOutPrefix("video.mp4");
+        assertThat(prefix).matches("[0-9a-f]{2}/[0-9a-f]{2}");
+        assertThat(root.resolve("videos").resolve(prefix).resolve("video.mp4")).hasContent("data");
+        assertThat(storage.localPath(Area.VIDEOS, "video.mp4")).contains(
+                root.resolve("videos").resolve(prefix).resolve("video.mp4"));
+        assertThat(storage.list(Area.VIDEOS)).containsExactly("video.mp4");
+        assertThat(storage.list(Area.THUMBNAILS)).isEmpty();
+    }
+
+    @Test
+    void rejectsNamesThatEscapeTheArea() throws IOException {
+        Files.writeString(tempDir.resolve("secret.txt"), "secret");
+
+        for (String name : new String[]{"../secret.txt", "..", "a/b.mp4", "a\\b.mp4", ".hidden", "", null}) {
+            assertThat(storage.exists(Area.VIDEOS, name)).as(String.valueOf(name)).isFalse();
+            assertThatThrownBy(() -> storage.openRead(Area.VIDEOS, name)).as(String.valueOf(name))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> storage.openWrite(Area.VIDEOS, name, true)).as(String.valueOf(name))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> storage.delete(Area.VIDEOS, name)).as(String.valueOf(name))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> storage.move(Area.VIDEOS, "video.mp4", "../../secret.txt"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(tempDir.resolve("secret.txt")).hasContent("secret");
+    }
+
+    @Test
+    void readsFileNotYetMovedFromLegacyRoot() throws IOException {
+        Path legacyFile = legacyRoot.resolve("videos").resolve("old.mp4");
+        Files.createDirectories(legacyFile.getParent());
+        Files.writeString(legacyFile, "legacy");
+
+        assertThat(storage.exists(Area.VIDEOS, "old.mp4")).isTrue();
+        assertThat(storage.exists(Area.THUMBNAILS, "old.mp4")).isFalse();
+        assertThat(storage.size(Area.VIDEOS, "old.mp4")).isEqualTo(6);
+        assertThat(read("old.mp4")).isEqualTo("legacy");
+        assertThat(storage.localPath(Area.VIDEOS, "old.mp4")).contains(legacyFile.toAbsolutePath().normalize());
+        // 목록(미사용 파일 정리 대상)에는 분산 경로의 파일만 포함
+        assertThat(storage.list(Area.VIDEOS)).isEmpty();
+    }
+
+    @Test
+    void prefersMovedFileOverLegacyCopy() throws IOException {
+        Path legacyFile = legacyRoot.resolve("videos").resolve("old.mp4");
+        Files.createDirectories(legacyFile.getParent());
+        Files.writeString(legacyFile, "legacy");
+        write("old.mp4", "moved");
+
+        assertThat(read("old.mp4")).isEqualTo("moved");
+    }
+
+    @Test
+    void deletesAndMovesLegacyFile() throws IOException {
+        Path legacyDir = legacyRoot.resolve("videos");
+        Files.createDirectories(legacyDir);
+        Files.writeString(legacyDir.resolve("a.mp4"), "a");
+        Files.writeString(legacyDir.resolve("b.mp4"), "b");
+
+        assertThat(storage.delete(Area.VIDEOS, "a.mp4")).isTrue();
+        storage.move(Area.VIDEOS, "b.mp4", Area.QUARANTINE, "b.mp4");
+
+        assertThat(legacyDir).isEmptyDirectory();
+        assertThat(storage.exists(Area.VIDEOS, "a.mp4")).isFalse();
+        assertThat(storage.list(Area.QUARANTINE)).containsExactly("b.mp4");
+    }
+
+    private void write(String name, String content) throws IOException {
+        try (SeekableByteChannel channel = storage.openWrite(Area.VIDEOS, name, true)) {
+            channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private String read(String name) throws IOException {
+        try (SeekableByteChannel channel = storage.openRead(Area.VIDEOS, name)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 끝까지 읽기
+            }
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        }
+    }
+}